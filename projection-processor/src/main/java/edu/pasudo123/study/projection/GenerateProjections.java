@@ -0,0 +1,24 @@
+package edu.pasudo123.study.projection;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * value 에 적은 DTO 마다 리플렉션 없이 DTO 를 만드는 querydsl 프로젝션 팩토리({DTO 이름}Projection) 를 생성한다.
+ *
+ * DTO 클래스에는 아무것도 붙이지 않고, 패키지(package-info.java) 나 설정 클래스에 붙인다.
+ * ex) @GenerateProjections({MemberDto.class, UserDto.class})
+ *
+ * DTO 에 직접 선언된 public 생성자 중 파라미터가 가장 많은 생성자를 사용하고,
+ * 파라미터가 있는 생성자가 없으면 기본 생성자 + 필드 선언 순서의 setter 를 사용한다.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.PACKAGE, ElementType.TYPE})
+public @interface GenerateProjections {
+
+    Class<?>[] value();
+}
@@ -0,0 +1,243 @@
+package edu.pasudo123.study.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @GenerateProjections 에 적힌 DTO 마다 FactoryExpressionBase 를 상속한 {DTO 이름}Projection 을 생성한다.
+ *
+ * Projections.bean / fields 는 로우마다 리플렉션으로 setter / 필드를 찾아서 값을 넣고,
+ * Projections.constructor 와 @QueryProjection 은 리플렉션으로 생성자를 호출한다.
+ * 생성된 팩토리는 newInstance 에서 생성자 / setter 를 직접 호출하므로 리플렉션과 인자 배열 복사가 없다.
+ */
+@SupportedAnnotationTypes("edu.pasudo123.study.projection.GenerateProjections")
+public class ProjectionProcessor extends AbstractProcessor {
+
+    private static final String EXPRESSION = "com.querydsl.core.types.Expression";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for(Element annotated : roundEnv.getElementsAnnotatedWith(GenerateProjections.class)) {
+            for(TypeElement dto : targets(annotated)) {
+                if(generated.add(dto.getQualifiedName().toString())) {
+                    generate(dto);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Class<?>[] 값은 컴파일 중에는 Class 로 꺼낼 수 없으므로 AnnotationMirror 에서 TypeMirror 로 읽는다.
+     */
+    private List<TypeElement> targets(final Element annotated) {
+        final List<TypeElement> targets = new ArrayList<>();
+        for(AnnotationMirror mirror : annotated.getAnnotationMirrors()) {
+            if(!mirror.getAnnotationType().toString().equals(GenerateProjections.class.getName())) {
+                continue;
+            }
+
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if(!entry.getKey().getSimpleName().contentEquals("value")) {
+                    continue;
+                }
+
+                @SuppressWarnings("unchecked")
+                final List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for(AnnotationValue value : values) {
+                    final TypeMirror type = (TypeMirror) value.getValue();
+                    targets.add((TypeElement) ((DeclaredType) type).asElement());
+                }
+            }
+        }
+        return targets;
+    }
+
+    private void generate(final TypeElement dto) {
+        if(dto.getEnclosingElement().getKind() != ElementKind.PACKAGE || !dto.getTypeParameters().isEmpty()) {
+            error(dto, "projection target must be a non-generic top level class : " + dto.getQualifiedName());
+            return;
+        }
+
+        final Optional<ExecutableElement> constructor = ElementFilter.constructorsIn(dto.getEnclosedElements()).stream()
+                .filter(each -> each.getModifiers().contains(Modifier.PUBLIC))
+                .filter(each -> !each.getParameters().isEmpty())
+                .max(Comparator.comparingInt(each -> each.getParameters().size()));
+
+        final List<? extends VariableElement> properties = constructor.isPresent()
+                ? constructor.get().getParameters()
+                : settableFields(dto);
+
+        if(properties.isEmpty()) {
+            error(dto, "projection target has neither a public constructor with parameters nor fields : " + dto.getQualifiedName());
+            return;
+        }
+
+        final String packageName = processingEnv.getElementUtils().getPackageOf(dto).getQualifiedName().toString();
+        final String dtoName = dto.getSimpleName().toString();
+        final String className = dtoName + "Projection";
+
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + className, dto);
+            try(Writer writer = file.openWriter()) {
+                writer.write(source(packageName, dtoName, className, properties, constructor.isPresent()));
+            }
+        } catch (IOException e) {
+            error(dto, "failed to generate " + className + " : " + e.getMessage());
+        }
+    }
+
+    private List<VariableElement> settableFields(final TypeElement dto) {
+        final List<VariableElement> fields = new ArrayList<>();
+        for(VariableElement field : ElementFilter.fieldsIn(dto.getEnclosedElements())) {
+            if(!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.FINAL)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private String source(final String packageName,
+                          final String dtoName,
+                          final String className,
+                          final List<? extends VariableElement> properties,
+                          final boolean useConstructor) {
+
+        final List<String> parameters = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+        for(int i = 0; i < properties.size(); i++) {
+            final VariableElement property = properties.get(i);
+            final String name = property.getSimpleName().toString();
+            parameters.add(EXPRESSION + "<" + boxedName(property.asType()) + "> " + name);
+            names.add(name);
+            values.add(value(property.asType(), "args[" + i + "]"));
+        }
+
+        final StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n");
+        source.append(" * ").append(dtoName).append(" 프로젝션 팩토리 (ProjectionProcessor 가 생성한 코드)\n");
+        source.append(" * 리플렉션 없이 ").append(useConstructor ? "생성자를" : "기본 생성자와 setter 를").append(" 직접 호출한다.\n");
+        source.append(" */\n");
+        source.append("public final class ").append(className)
+                .append(" extends com.querydsl.core.types.FactoryExpressionBase<").append(dtoName).append("> {\n\n");
+        source.append("    private static final long serialVersionUID = 1L;\n\n");
+        source.append("    private final java.util.List<").append(EXPRESSION).append("<?>> arguments;\n\n");
+
+        source.append("    public ").append(className).append("(").append(String.join(", ", parameters)).append(") {\n");
+        source.append("        super(").append(dtoName).append(".class);\n");
+        source.append("        this.arguments = java.util.Collections.unmodifiableList(java.util.Arrays.<")
+                .append(EXPRESSION).append("<?>>asList(").append(String.join(", ", names)).append("));\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public java.util.List<").append(EXPRESSION).append("<?>> getArgs() {\n");
+        source.append("        return arguments;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings(\"unchecked\")\n");
+        source.append("    public ").append(dtoName).append(" newInstance(final Object... args) {\n");
+        if(useConstructor) {
+            source.append("        return new ").append(dtoName).append("(").append(String.join(", ", values)).append(");\n");
+        } else {
+            source.append("        final ").append(dtoName).append(" dto = new ").append(dtoName).append("();\n");
+            for(int i = 0; i < names.size(); i++) {
+                source.append("        dto.").append(setter(names.get(i))).append("(").append(values.get(i)).append(");\n");
+            }
+            source.append("        return dto;\n");
+        }
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public <R, C> R accept(final com.querydsl.core.types.Visitor<R, C> v, final C context) {\n");
+        source.append("        return v.visit(this, context);\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 숫자는 DB 드라이버가 돌려준 Number 타입(Long, BigDecimal ...) 에 상관없이 변환하고, null 인 primitive 는 기본값을 넣는다.
+     */
+    private String value(final TypeMirror type, final String arg) {
+        if(type.getKind().isPrimitive()) {
+            switch(type.getKind()) {
+                case BOOLEAN:
+                    return "(" + arg + " != null && (java.lang.Boolean) " + arg + ")";
+                case CHAR:
+                    return "(" + arg + " == null ? '\\0' : (java.lang.Character) " + arg + ")";
+                default:
+                    return "(" + arg + " == null ? 0 : ((java.lang.Number) " + arg + ")." + type.getKind().name().toLowerCase() + "Value())";
+            }
+        }
+
+        final String boxed = boxedName(type);
+        final Optional<String> primitive = unboxedName(type);
+        if(primitive.isPresent() && !primitive.get().equals("boolean") && !primitive.get().equals("char")) {
+            return "(" + arg + " == null ? null : (" + boxed + ") ((java.lang.Number) " + arg + ")." + primitive.get() + "Value())";
+        }
+
+        return "(" + processingEnv.getTypeUtils().erasure(type) + ") " + arg;
+    }
+
+    private String boxedName(final TypeMirror type) {
+        if(type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private Optional<String> unboxedName(final TypeMirror type) {
+        if(type.getKind() != TypeKind.DECLARED) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(processingEnv.getTypeUtils().unboxedType(type).getKind().name().toLowerCase());
+        } catch(IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String setter(final String field) {
+        return "set" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
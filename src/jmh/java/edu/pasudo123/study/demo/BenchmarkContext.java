@@ -0,0 +1,71 @@
+package edu.pasudo123.study.demo;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Consumer;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ *
+ * dev 프로필 설정을 그대로 쓰되, 웹 서버는 띄우지 않고 SQL 로그는 끈다.
+ * fork 마다 별도의 in-memory h2 를 사용하므로 벤치마크끼리 데이터가 섞이지 않는다.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(final ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static BenchmarkContext start(final String... properties) {
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.root=warn")
+                .properties(properties)
+                .run();
+        return new BenchmarkContext(context);
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 스프링 트랜잭션 밖에서 쓰는 애플리케이션 관리 EntityManager
+     * 벤치마크 스레드 하나가 계속 사용하고, 다 쓰면 닫는다.
+     */
+    public EntityManager createEntityManager() {
+        return context.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    /**
+     * 리소스 로컬 트랜잭션으로 데이터를 준비한다. (native insert 등)
+     */
+    public void inTransaction(final Consumer<EntityManager> work) {
+        final EntityManager em = createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            if(em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
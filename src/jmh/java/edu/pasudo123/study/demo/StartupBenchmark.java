@@ -0,0 +1,78 @@
+package edu.pasudo123.study.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * time-to-first-request : SpringApplication.run 부터 첫 GET /members 응답을 다 읽을 때까지
+ *
+ * 기동은 JVM 마다 한 번뿐이므로 워밍업 없이 fork 마다 한 번씩만 잰다. (클래스 로딩, JIT 이 되지 않은 상태 그대로)
+ * faststart 는 빈 생성을 첫 요청으로 미루므로 기동 시간이 아니라 첫 응답까지의 시간으로 비교한다.
+ * JVM 자체의 기동과 CDS 효과는 포함되지 않으므로 ./gradlew bootRunFast 의 startup timeline 로그로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"dev", "dev,faststart"})
+    String profiles;
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException {
+        try(ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles(profiles.split(","))
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.root=warn")
+                .run()) {
+
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return get(new URL("http://localhost:" + port + "/members?limit=10"));
+        }
+    }
+
+    private static int get(final URL url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            if(connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("unexpected status : " + connection.getResponseCode());
+            }
+
+            try(InputStream in = connection.getInputStream()) {
+                final byte[] buffer = new byte[8192];
+                int total = 0;
+                for(int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    total += read;
+                }
+                return total;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
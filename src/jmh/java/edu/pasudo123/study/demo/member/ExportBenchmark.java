@@ -0,0 +1,114 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.support.ExportFormat;
+import edu.pasudo123.study.demo.support.ExportResult;
+import edu.pasudo123.study.demo.support.TableExporter;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * member 테이블 내보내기 : findAll() 로 엔티티를 읽어서 CSV 로 쓰는 경로와 TableExporter (CSV, COLUMNAR) 비교
+ *
+ * 한 번의 op 는 rows 건 전체 내보내기다. jmhPerRow 가 rows/s 로 바꿔서 출력한다.
+ * 목표 : parallelism 4 의 CSV 가 100만 로우/초 이상, 엔티티 경로의 5배 이상
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExportBenchmark {
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    BenchmarkContext context;
+    TableExporter exporter;
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start("logging.level.edu.pasudo123.study.demo.support.TableExporter=warn");
+        context.inTransaction(tx -> {
+            tx.createNativeQuery("INSERT INTO team (id, name) SELECT X, CONCAT('team', X) FROM SYSTEM_RANGE(1, 100)").executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('member', LPAD(X, 8, '0')), MOD(X, 100), MOD(X, 100) + 1 FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, rows)
+                    .executeUpdate();
+        });
+
+        exporter = new TableExporter(context.getBean(DataSource.class), parallelism, 1 << 20, 1000, 65536);
+        directory = Files.createTempDirectory("export-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        exporter.close();
+        context.close();
+        try(Stream<Path> files = Files.list(directory)) {
+            for(Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * 기존 방식 : 엔티티를 모두 읽은 뒤 문자열로 만들어 쓴다. (parallelism 과 상관없이 한 스레드)
+     */
+    @Benchmark
+    public long entityCsv() throws IOException {
+        final EntityManager em = context.createEntityManager();
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try(BufferedWriter writer = Files.newBufferedWriter(directory.resolve("entity.csv"), StandardCharsets.UTF_8)) {
+            final List<Member> members = em.createQuery("SELECT m FROM Member m", Member.class).getResultList();
+            writer.write("id,username,age,team_id\n");
+            for(Member member : members) {
+                writer.write(member.getId() + "," + member.getUsername() + "," + member.getAge() + ","
+                        + (member.getTeam() == null ? "" : member.getTeam().getId()) + "\n");
+            }
+            return members.size();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public ExportResult csv() {
+        return exporter.export(MemberExportService.MEMBER, ExportFormat.CSV, directory);
+    }
+
+    @Benchmark
+    public ExportResult columnar() {
+        return exporter.export(MemberExportService.MEMBER, ExportFormat.COLUMNAR, directory);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.team.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 관리 상태의 Member, Team 이 rows 건 있을 때의 flush 비용 (바이트코드 향상 전 / 후)
+ *
+ * 향상 전에는 flush 마다 모든 엔티티의 필드를 스냅샷과 비교하고, 향상 후에는 엔티티가 기록한 변경 필드만 확인한다.
+ * ./gradlew jmh -PjmhInclude=FlushBenchmark 와 ./gradlew jmh -PjmhInclude=FlushBenchmark -Penhance=false 결과를 비교한다.
+ *
+ * 트랜잭션 하나를 trial 동안 열어 두고, op 마다 dirty 명의 팀을 번갈아 바꾼 뒤 flush 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FlushBenchmark {
+
+    private static final long TEAM_A = 1L;
+    private static final long TEAM_B = 2L;
+
+    @Param({"10000"})
+    int rows;
+
+    @Param({"0", "10", "1000"})
+    int dirty;
+
+    BenchmarkContext context;
+    EntityManager em;
+    List<Member> members;
+    Team teamA;
+    Team teamB;
+
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> {
+            tx.createNativeQuery("INSERT INTO team (id, name) VALUES (1, 'TEAM A'), (2, 'TEAM B')").executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('member', X), MOD(X, 100), 1 FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, rows)
+                    .executeUpdate();
+        });
+
+        em = context.createEntityManager();
+        em.getTransaction().begin();
+        teamA = em.find(Team.class, TEAM_A);
+        teamB = em.find(Team.class, TEAM_B);
+        members = em.createQuery("SELECT m FROM Member m ORDER BY m.id", Member.class).getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.getTransaction().rollback();
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        for(int i = 0; i < dirty; i++) {
+            final Member member = members.get(next);
+            member.referTeam(member.getTeam() == teamA ? teamB : teamA);
+            next = (next + 1) % members.size();
+        }
+        em.flush();
+    }
+}
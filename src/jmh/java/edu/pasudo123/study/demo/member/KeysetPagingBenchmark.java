@@ -0,0 +1,91 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * 마지막 페이지 조회 : offset 페이징과 keyset 페이징 (MemberJpaRepository#findPageOrderByUsername)
+ *
+ * offset 은 앞의 로우를 모두 읽고 버리므로 rows 에 비례해서 느려지고, keyset 은 rows 와 관계없이 일정해야 한다.
+ * 두 경로 모두 스프링의 공유 EntityManager 를 쓰므로 트랜잭션 밖에서는 호출마다 영속성 컨텍스트가 새로 만들어진다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class KeysetPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    BenchmarkContext context;
+    JPAQueryFactory queryFactory;
+    MemberJpaRepository memberJpaRepository;
+    long lastOffset;
+    MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> tx.createNativeQuery("INSERT INTO member (id, username, age) " +
+                "SELECT X, CONCAT('member', LPAD(X, 8, '0')), MOD(X, 100) FROM SYSTEM_RANGE(1, ?1)")
+                .setParameter(1, rows)
+                .executeUpdate());
+
+        queryFactory = new JPAQueryFactory(context.getBean(EntityManager.class));
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        // 마지막 페이지 바로 앞 로우를 커서로 잡는다.
+        lastOffset = rows - PAGE_SIZE;
+        final Member beforeLast = queryFactory
+                .selectFrom(member)
+                .orderBy(member.username.asc(), member.id.asc())
+                .offset(lastOffset - 1)
+                .limit(1)
+                .fetchOne();
+        cursor = MemberCursor.afterUsername(beforeLast);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> offset() {
+        return queryFactory
+                .selectFrom(member)
+                .orderBy(member.username.asc(), member.id.asc())
+                .offset(lastOffset)
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Member> keyset() {
+        return memberJpaRepository.findPageOrderByUsername(cursor, PAGE_SIZE);
+    }
+}
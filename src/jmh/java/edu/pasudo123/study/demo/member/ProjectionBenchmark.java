@@ -0,0 +1,163 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.support.ColumnarQuery;
+import edu.pasudo123.study.demo.support.ColumnarResult;
+import edu.pasudo123.study.demo.support.QueryShapeCache;
+import edu.pasudo123.study.demo.support.ShapeCachingJPAQueryFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * Dto 프로젝션 방식별 처리량과 할당량 (MemberAdvancedTest 의 다섯 가지 방식 + 생성된 프로젝션 팩토리 + Tuple + 컬럼 배열 + 엔티티)
+ *
+ * 한 번의 op 는 rows 건 전체 조회다. ./gradlew jmh 후 jmhPerRow 가 rows/s, B/row 로 바꿔서 출력한다.
+ * 2차 캐시 저장 비용이 섞이지 않도록 세션의 CacheMode 는 IGNORE 로 둔다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProjectionBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    BenchmarkContext context;
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> tx.createNativeQuery("INSERT INTO member (id, username, age) " +
+                "SELECT X, CONCAT('member', LPAD(X, 8, '0')), MOD(X, 100) FROM SYSTEM_RANGE(1, ?1)")
+                .setParameter(1, rows)
+                .executeUpdate());
+
+        em = context.createEntityManager();
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        queryFactory = new ShapeCachingJPAQueryFactory(em, context.getBean(QueryShapeCache.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> jpqlNew() {
+        return em.createQuery("select new edu.pasudo123.study.demo.member.MemberDto(m.username, m.age) from Member m", MemberDto.class)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionsBean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionsFields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionsConstructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<AccountDto> queryProjection() {
+        return queryFactory
+                .select(new QAccountDto(member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> generatedProjection() {
+        return queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Tuple> tuple() {
+        return queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public ColumnarResult columnar() {
+        return ColumnarQuery.fetch(queryFactory
+                .select(member.username, member.age)
+                .from(member), em, MemberJpaRepository.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 평균 나이 : Tuple 에서 Integer 를 꺼내는 경우와 int[] 를 바로 더하는 경우
+     */
+    @Benchmark
+    public double tupleAverageAge() {
+        long sum = 0;
+        final List<Tuple> tuples = tuple();
+        for(Tuple tuple : tuples) {
+            sum += tuple.get(member.age);
+        }
+        return tuples.isEmpty() ? Double.NaN : (double) sum / tuples.size();
+    }
+
+    @Benchmark
+    public double columnarAverageAge() {
+        return columnar().getInts(member.age).avg();
+    }
+
+    /**
+     * 엔티티는 영속성 컨텍스트에 쌓이므로 매번 비운다. (스냅샷 생성 비용까지 포함된다.)
+     */
+    @Benchmark
+    public List<Member> entity() {
+        final List<Member> members = queryFactory
+                .selectFrom(member)
+                .fetch();
+        em.clear();
+        return members;
+    }
+}
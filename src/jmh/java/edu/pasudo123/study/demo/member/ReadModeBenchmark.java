@@ -0,0 +1,131 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.ReadMode;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * 읽기 모드(ReadMode) 별 member + team 검색 지연시간과 힙 사용량
+ *
+ * 한 번의 op 는 트랜잭션 하나에서 rows 건을 team 과 함께 읽고 커밋하는 것이다. (커밋 때의 flush 포함)
+ * searchThenQuery 는 읽은 뒤 쿼리를 하나 더 실행해서, 그 전에 일어나는 auto flush(영속성 컨텍스트 전체 dirty checking) 비용까지 잰다.
+ *
+ * 할당량은 jmhPerRow 의 B/row 로 보고, 트랜잭션이 끝나기 전까지 영속성 컨텍스트가 붙잡고 있는 힙은
+ * trial 시작 때 한 번 재서 보조 지표 retainedBytesPerRow 로 결과에 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReadModeBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"MANAGED", "READ_ONLY", "STATELESS"})
+    ReadMode mode;
+
+    BenchmarkContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> {
+            tx.createNativeQuery("INSERT INTO team (id, name) " +
+                    "SELECT X, CONCAT('team', X) FROM SYSTEM_RANGE(1, 1000)")
+                    .executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('member', LPAD(X, 8, '0')), MOD(X, 100), MOD(X, 1000) + 1 FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, rows)
+                    .executeUpdate();
+        });
+
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> search(final RetainedHeap retainedHeap) {
+        return transactionTemplate.execute(status -> find());
+    }
+
+    @Benchmark
+    public long searchThenQuery(final RetainedHeap retainedHeap) {
+        return transactionTemplate.execute(status -> {
+            final List<Member> members = find();
+            return members.size() + memberJpaRepository.findBy(member.id.eq(1L), FetchPlan.NONE, ReadMode.MANAGED).size();
+        });
+    }
+
+    private List<Member> find() {
+        return memberJpaRepository.findBy(member.age.goe(0), FetchPlan.ENTITY_GRAPH, mode);
+    }
+
+    /**
+     * 트랜잭션 안에서 rows 건을 읽기 전, 후 GC 직후의 힙 사용량 차이
+     */
+    private long retainedBytes() {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return transactionTemplate.execute(status -> {
+            final long before = usedHeap(memory);
+            final List<Member> members = find();
+            final long after = usedHeap(memory);
+            return members.isEmpty() ? 0 : after - before;
+        });
+    }
+
+    private static long usedHeap(final MemoryMXBean memory) {
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 보조 지표로 결과에 남기는 로우당 retained heap (B/row)
+     * 값은 trial 동안 한 번만 재고 iteration 마다 초기화하지 않으므로 모든 iteration 에 같은 값이 찍힌다.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+
+        public double retainedBytesPerRow;
+
+        @Setup(Level.Trial)
+        public void measure(final ReadModeBenchmark benchmark) {
+            retainedBytesPerRow = benchmark.retainedBytes() / (double) benchmark.rows;
+        }
+    }
+}
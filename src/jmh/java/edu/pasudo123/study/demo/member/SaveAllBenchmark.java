@@ -0,0 +1,99 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.team.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 저장 : 건별 save + flush 와 MemberJpaRepository#saveAll (JDBC batch insert)
+ *
+ * 한 번의 op 는 100 개 팀에 나눠 담은 rows 명을 한 트랜잭션으로 저장한다. jmhPerRow 가 rows/s 로 바꿔서 출력한다.
+ * 기존 IDENTITY 전략에서는 persist 마다 insert 가 즉시 나갔으므로 건별 flush 로 재현한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SaveAllBenchmark {
+
+    private static final int TEAMS = 100;
+
+    @Param({"1000", "20000"})
+    int rows;
+
+    BenchmarkContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager em;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        em = context.getBean(EntityManager.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int save() {
+        final List<Member> members = members();
+        transactionTemplate.executeWithoutResult(status -> {
+            for(Member each : members) {
+                memberJpaRepository.save(each);
+                em.flush();
+            }
+            em.clear();
+        });
+        return members.size();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        final List<Member> members = members();
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.saveAll(members));
+        return members.size();
+    }
+
+    private List<Member> members() {
+        final List<Team> teams = new ArrayList<>();
+        for(int i = 0; i < TEAMS; i++) {
+            teams.add(Team.builder().name("TEAM " + i).build());
+        }
+
+        final List<Member> members = new ArrayList<>();
+        for(int i = 0; i < rows; i++) {
+            members.add(Member.builder()
+                    .username("member" + i)
+                    .age(i % 100)
+                    .team(teams.get(i % TEAMS))
+                    .build());
+        }
+        return members;
+    }
+}
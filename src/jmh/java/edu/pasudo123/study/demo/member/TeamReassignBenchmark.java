@@ -0,0 +1,104 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.team.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * 팀 이동: member 마다 changeTeam 하는 루프와 MemberBulkService#reassignTeam 비교
+ *
+ * 팀 A 에 moved 명, 팀 B 에 resident 명이 있고, op 한 번마다 moved 명을 반대편 팀으로 옮긴다. (A → B, B → A 반복)
+ * 루프는 옮길 member 를 모두 읽고, 관리 상태의 대상 Team 에 changeTeam 한 뒤 로우마다 update 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TeamReassignBenchmark {
+
+    private static final long TEAM_A = 1L;
+    private static final long TEAM_B = 2L;
+
+    @Param({"100", "1000", "10000"})
+    int moved;
+
+    @Param({"10000", "100000"})
+    int resident;
+
+    BenchmarkContext context;
+    MemberBulkService memberBulkService;
+
+    long from = TEAM_A;
+    long to = TEAM_B;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("logging.level.edu.pasudo123.study.demo.member.MemberBulkService=warn");
+        context.inTransaction(tx -> {
+            tx.createNativeQuery("INSERT INTO team (id, name) VALUES (1, 'TEAM A'), (2, 'TEAM B')").executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('moved', X), MOD(X, 100), 1 FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, moved)
+                    .executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('resident', X), MOD(X, 100), 2 FROM SYSTEM_RANGE(?1 + 1, ?1 + ?2)")
+                    .setParameter(1, moved)
+                    .setParameter(2, resident)
+                    .executeUpdate();
+        });
+        memberBulkService = context.getBean(MemberBulkService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int perEntityLoop() {
+        final int[] rows = new int[1];
+        context.inTransaction(tx -> {
+            final Team target = tx.find(Team.class, to);
+            final List<Member> members = tx
+                    .createQuery("SELECT m FROM Member m WHERE m.team.id = :from AND m.username LIKE 'moved%'", Member.class)
+                    .setParameter("from", from)
+                    .getResultList();
+            members.forEach(each -> each.changeTeam(target));
+            rows[0] = members.size();
+        });
+        swap();
+        return rows[0];
+    }
+
+    @Benchmark
+    public long bulkReassign() {
+        final long rows = memberBulkService.reassignTeam(member.team.id.eq(from).and(member.username.startsWith("moved")), to);
+        swap();
+        return rows;
+    }
+
+    private void swap() {
+        final long previous = from;
+        from = to;
+        to = previous;
+    }
+}
@@ -0,0 +1,113 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.support.QueryShapeCache;
+import edu.pasudo123.study.demo.support.ShapeCachingJPAQueryFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * username 자동완성 / 부분 검색의 DB 경로와 메모리 인덱스(UsernameIndex) 경로 비교
+ *
+ * username 은 member00000001 형식이다.
+ * prefix 검색은 DB 에서도 idx_member_username_id 를 타지만, contains 는 DB 에서 전체를 훑어야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UsernameSearchBenchmark {
+
+    private static final int LIMIT = 10;
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    @Param({"member0004", "member000042"})
+    String prefix;
+
+    @Param({"4242", "99999"})
+    String keyword;
+
+    BenchmarkContext context;
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    UsernameIndex usernameIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> tx.createNativeQuery("INSERT INTO member (id, username, age) " +
+                "SELECT X, CONCAT('member', LPAD(X, 8, '0')), MOD(X, 100) FROM SYSTEM_RANGE(1, ?1)")
+                .setParameter(1, rows)
+                .executeUpdate());
+
+        // native insert 는 엔티티 이벤트가 없으므로 인덱스를 다시 채운다.
+        usernameIndex = context.getBean(UsernameIndex.class);
+        usernameIndex.rebuild();
+
+        em = context.createEntityManager();
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        queryFactory = new ShapeCachingJPAQueryFactory(em, context.getBean(QueryShapeCache.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> dbStartsWith() {
+        return queryFactory
+                .select(member.username)
+                .from(member)
+                .where(member.username.startsWith(prefix))
+                .orderBy(member.username.asc())
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<String> indexAutocomplete() {
+        return usernameIndex.autocomplete(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<String> dbContains() {
+        return queryFactory
+                .select(member.username)
+                .from(member)
+                .where(member.username.contains(keyword))
+                .orderBy(member.username.asc())
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<String> indexContains() {
+        return usernameIndex.searchContaining(keyword, LIMIT);
+    }
+}
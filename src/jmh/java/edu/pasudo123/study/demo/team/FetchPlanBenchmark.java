@@ -0,0 +1,100 @@
+package edu.pasudo123.study.demo.team;
+
+import edu.pasudo123.study.demo.BenchmarkContext;
+import edu.pasudo123.study.demo.member.Member;
+import edu.pasudo123.study.demo.member.MemberJpaRepository;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+
+/**
+ * fetch plan 별 연관관계 로딩 : teams 개 팀의 team.members 와, 그 팀 member 들의 member.team
+ *
+ * 팀마다 member 가 3 명씩 있다. 지연 로딩까지 포함해야 하므로 op 마다 트랜잭션 하나로 조회하고 연관관계를 건드린다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FetchPlanBenchmark {
+
+    private static final int MEMBERS_PER_TEAM = 3;
+
+    @Param({"1000", "10000"})
+    int teams;
+
+    @Param({"NONE", "ENTITY_GRAPH", "BATCH"})
+    FetchPlan plan;
+
+    BenchmarkContext context;
+    TransactionTemplate transactionTemplate;
+    TeamJpaRepository teamJpaRepository;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.inTransaction(tx -> {
+            tx.createNativeQuery("INSERT INTO team (id, name) " +
+                    "SELECT X, CONCAT('team', X) FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, teams)
+                    .executeUpdate();
+            tx.createNativeQuery("INSERT INTO member (id, username, age, team_id) " +
+                    "SELECT X, CONCAT('member', X), MOD(X, 100), (X - 1) / ?2 + 1 FROM SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, teams * MEMBERS_PER_TEAM)
+                    .setParameter(2, MEMBERS_PER_TEAM)
+                    .executeUpdate();
+        });
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        teamJpaRepository = context.getBean(TeamJpaRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int teamMembers() {
+        return transactionTemplate.execute(status -> {
+            int size = 0;
+            for(Team each : teamJpaRepository.findBy(team.id.isNotNull(), plan)) {
+                size += each.getMembers().size();
+            }
+            return size;
+        });
+    }
+
+    @Benchmark
+    public int memberTeam() {
+        return transactionTemplate.execute(status -> {
+            final List<Member> members = memberJpaRepository.findBy(member.id.isNotNull(), plan);
+            members.forEach(each -> each.getTeam().getName());
+            return members.size();
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package edu.pasudo123.study.demo;
 
+import edu.pasudo123.study.demo.config.StartupTimelineListener;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -7,7 +8,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class DemoApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(DemoApplication.class, args);
+        final SpringApplication application = new SpringApplication(DemoApplication.class);
+        // 이 JVM 을 띄운 애플리케이션의 기동만 잰다. (테스트나 다른 SpringApplication 에는 붙지 않는다.)
+        application.addListeners(new StartupTimelineListener());
+        application.run(args);
     }
 
 }
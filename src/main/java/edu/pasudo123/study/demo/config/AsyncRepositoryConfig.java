@@ -0,0 +1,50 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.DataSources;
+import edu.pasudo123.study.demo.support.InstrumentedThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 비동기 리포지토리 전용 executor
+ *
+ * 작업 하나가 커넥션 하나를 쓰므로 스레드 수를 커넥션 풀 크기에 맞춘다.
+ * 스레드가 풀보다 많으면 남는 스레드는 커넥션을 기다리며 놀고, 적으면 풀이 남는다.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(AsyncRepositoryProperties.class)
+public class AsyncRepositoryConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedThreadPoolExecutor repositoryExecutor(final AsyncRepositoryProperties properties, final DataSource dataSource) {
+        final int poolSize = properties.getPoolSize() > 0 ? properties.getPoolSize() : DataSources.connectionPoolSize(dataSource);
+        log.info("repository executor pool-size={} queue-capacity={} overflow={}",
+                poolSize, properties.getQueueCapacity(), properties.getOverflow());
+
+        return new InstrumentedThreadPoolExecutor("repository-async", poolSize, properties.getQueueCapacity(),
+                properties.getOverflow() == AsyncRepositoryProperties.Overflow.CALLER_RUNS
+                        ? new ThreadPoolExecutor.CallerRunsPolicy()
+                        : new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor 빈이 하나라도 있으면 스프링 부트가 기본 applicationTaskExecutor (MVC 비동기 요청, @Async) 를 만들지 않으므로 직접 등록한다.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(final TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,26 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 비동기 리포지토리(MemberAsyncRepository) 전용 executor 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.async-repository")
+public class AsyncRepositoryProperties {
+
+    /** 0 이하면 커넥션 풀 크기(hikari maximum-pool-size) 와 맞춘다. */
+    private int poolSize = 0;
+    private int queueCapacity = 100;
+    private Overflow overflow = Overflow.REJECT;
+
+    public enum Overflow {
+        /** RejectedExecutionException 으로 실패한 future 를 돌려준다. */
+        REJECT,
+        /** 호출한 스레드에서 직접 실행해서 호출자를 늦춘다. (backpressure) */
+        CALLER_RUNS
+    }
+}
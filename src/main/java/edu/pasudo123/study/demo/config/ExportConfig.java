@@ -0,0 +1,28 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.DataSources;
+import edu.pasudo123.study.demo.support.TableExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportConfig {
+
+    @Bean(destroyMethod = "close")
+    public TableExporter tableExporter(final ExportProperties properties, final DataSource dataSource) {
+        // 내보내는 동안에도 요청을 처리할 수 있도록 커넥션 하나는 남겨둔다.
+        final int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), DataSources.connectionPoolSize(dataSource) - 1));
+        log.info("table exporter parallelism={} buffer-size={}", parallelism, properties.getBufferSize());
+
+        return new TableExporter(dataSource, parallelism, (int) properties.getBufferSize().toBytes(),
+                properties.getFetchSize(), properties.getBlockRows());
+    }
+}
@@ -0,0 +1,23 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 테이블 파일 내보내기(TableExporter) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.export")
+public class ExportProperties {
+
+    /** id 범위를 나누는 수, 0 이하면 코어 수와 (커넥션 풀 크기 - 1) 중 작은 값 */
+    private int parallelism = 0;
+    /** 파트 파일마다 재사용하는 direct 버퍼 크기 */
+    private DataSize bufferSize = DataSize.ofMegabytes(1);
+    private int fetchSize = 1000;
+    /** COLUMNAR 형식의 블록 당 로우 수 */
+    private int blockRows = 65536;
+}
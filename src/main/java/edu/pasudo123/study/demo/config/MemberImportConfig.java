@@ -0,0 +1,9 @@
+package edu.pasudo123.study.demo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(MemberImportProperties.class)
+public class MemberImportConfig {
+}
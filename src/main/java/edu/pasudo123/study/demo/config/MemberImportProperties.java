@@ -0,0 +1,21 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * member CSV 가져오기(MemberImportService) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.member-import")
+public class MemberImportProperties {
+
+    /** 파일을 나누는 세그먼트(스레드) 수, 0 이하면 코어 수. 세그먼트마다 커넥션을 하나씩 쓴다. */
+    private int parallelism = 0;
+    /** 한 트랜잭션(체크포인트) 에서 넣는 로우 수 */
+    private int chunkSize = 5000;
+    /** JDBC batch 크기 */
+    private int batchSize = 500;
+}
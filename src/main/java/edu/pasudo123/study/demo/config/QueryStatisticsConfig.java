@@ -0,0 +1,79 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.InstrumentedDataSource;
+import edu.pasudo123.study.demo.support.QueryOrigin;
+import edu.pasudo123.study.demo.support.QueryStatistics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL 모양 별 지연시간 / 로우 수 통계
+ *
+ * dataSource 빈을 InstrumentedDataSource 로 감싸서 JDBC 실행 시간을 재고,
+ * Spring Data 리포지토리 프록시 앞에 인터셉터를 붙여서 리포지토리에서 실행된 SQL 을 구분한다. (querydsl 은 ShapeCachingJPAQuery 가 표시한다.)
+ * 결과는 /actuator/queries 로 본다.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryStatisticsProperties.class)
+@ConditionalOnProperty(prefix = "demo.query-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsConfig {
+
+    @Bean
+    public QueryStatistics queryStatistics(final QueryStatisticsProperties properties) {
+        return new QueryStatistics(properties.getSlowQueryThreshold(), properties.getMaximumShapes(),
+                properties.getSlowQueryHistory(), properties.getMaximumParameterLength());
+    }
+
+    @Bean
+    public QueryStatisticsEndpoint queryStatisticsEndpoint(final QueryStatistics queryStatistics) {
+        return new QueryStatisticsEndpoint(queryStatistics);
+    }
+
+    /**
+     * BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 static 으로 등록하고 QueryStatistics 는 필요할 때 꺼낸다.
+     */
+    @Bean
+    public static BeanPostProcessor queryStatisticsPostProcessor(final ObjectProvider<QueryStatistics> queryStatistics) {
+        return new QueryStatisticsPostProcessor(queryStatistics);
+    }
+
+    static class QueryStatisticsPostProcessor implements BeanPostProcessor {
+
+        private static final MethodInterceptor SPRING_DATA_ORIGIN = invocation -> QueryOrigin.SPRING_DATA.execute(() -> {
+            try {
+                return invocation.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        private final ObjectProvider<QueryStatistics> queryStatistics;
+
+        QueryStatisticsPostProcessor(final ObjectProvider<QueryStatistics> queryStatistics) {
+            this.queryStatistics = queryStatistics;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if(bean instanceof DataSource && "dataSource".equals(beanName) && !(bean instanceof InstrumentedDataSource)) {
+                return new InstrumentedDataSource((DataSource) bean, queryStatistics.getObject());
+            }
+
+            if(bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+                ((Advised) bean).addAdvice(0, SPRING_DATA_ORIGIN);
+            }
+            return bean;
+        }
+    }
+}
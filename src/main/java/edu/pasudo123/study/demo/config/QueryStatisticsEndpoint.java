@@ -0,0 +1,37 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.QueryStatistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/queries : 모양 별 통계 (총 실행 시간 내림차순) 와 최근 느린 쿼리
+ * DELETE /actuator/queries : 통계 초기화
+ */
+@Endpoint(id = "queries")
+public class QueryStatisticsEndpoint {
+
+    private final QueryStatistics queryStatistics;
+
+    public QueryStatisticsEndpoint(final QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queries() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("shapes", queryStatistics.snapshot());
+        result.put("slowQueryCount", queryStatistics.getSlowQueryCount());
+        result.put("slowQueries", queryStatistics.slowQueries());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryStatistics.reset();
+    }
+}
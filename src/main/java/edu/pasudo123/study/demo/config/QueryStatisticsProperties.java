@@ -0,0 +1,25 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * SQL 모양 별 지연시간 통계와 느린 쿼리 로그 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.query-statistics")
+public class QueryStatisticsProperties {
+
+    private boolean enabled = true;
+    /** 이 시간 이상 걸린 SQL 은 바인딩 파라미터와 함께 경고 로그를 남긴다. */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+    /** 모양이 이보다 많아지면 나머지는 (other) 로 합친다. */
+    private int maximumShapes = 1000;
+    /** 엔드포인트에서 보여줄 최근 느린 쿼리 수 */
+    private int slowQueryHistory = 100;
+    private int maximumParameterLength = 100;
+}
@@ -0,0 +1,35 @@
+package edu.pasudo123.study.demo.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QuerydslPager;
+import edu.pasudo123.study.demo.support.QueryShapeCache;
+import edu.pasudo123.study.demo.support.ShapeCachingJPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+@Configuration
+public class QuerydslConfig {
+
+    @Bean
+    public QueryShapeCache queryShapeCache(@Value("${demo.query-shape-cache.maximum-size:512}") final int maximumSize) {
+        return new QueryShapeCache(maximumSize);
+    }
+
+    /**
+     * EntityManager 는 트랜잭션 범위의 공유 프록시이므로 팩토리는 하나만 만들어서 같이 쓴다.
+     */
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(final EntityManager em, final QueryShapeCache queryShapeCache) {
+        return new ShapeCachingJPAQueryFactory(em, queryShapeCache);
+    }
+
+    @Bean
+    public QuerydslPager querydslPager(@Value("${demo.paging.count-cache-ttl:5s}") final Duration countCacheTtl,
+                                       @Value("${demo.paging.count-cache-maximum-size:1000}") final int countCacheMaximumSize) {
+        return new QuerydslPager(countCacheTtl, countCacheMaximumSize);
+    }
+}
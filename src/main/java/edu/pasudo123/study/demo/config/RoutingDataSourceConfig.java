@@ -0,0 +1,73 @@
+package edu.pasudo123.study.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.pasudo123.study.demo.support.ReplicaRoutingDataSource;
+import edu.pasudo123.study.demo.support.ReplicationLagMonitor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * demo.datasource.routing.enabled=true 이면 DataSource 를 primary / 레플리카 라우팅으로 바꾼다.
+ *
+ * JPA, querydsl 이 사용하는 DataSource 는 LazyConnectionDataSourceProxy(ReplicaRoutingDataSource) 이고,
+ * 스키마 생성 / sql 초기화도 트랜잭션 밖이므로 primary 로 간다. 레플리카 스키마와 데이터는 DB 복제에 맡긴다.
+ */
+@Configuration
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "demo.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicationLagMonitor replicationLagMonitor(final HikariDataSource primaryDataSource, final RoutingDataSourceProperties properties) {
+        return new ReplicationLagMonitor(primaryDataSource, properties.getHeartbeatInterval(), properties.getLagCheckInterval());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(final HikariDataSource primaryDataSource,
+                                                             final ReplicationLagMonitor replicationLagMonitor,
+                                                             final RoutingDataSourceProperties properties) {
+        final List<HikariDataSource> replicas = properties.getReplicas().stream()
+                .map(this::replica)
+                .collect(Collectors.toList());
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getBalance(),
+                replicationLagMonitor, properties.getMaxReplicationLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private HikariDataSource replica(final RoutingDataSourceProperties.Replica replica) {
+        final HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,37 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.ReplicaBalancer;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 / 쓰기 DataSource 라우팅 설정
+ * primary 는 spring.datasource.* 를 그대로 사용한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = false;
+    private ReplicaBalancer balance = ReplicaBalancer.ROUND_ROBIN;
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.pasudo123.study.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * hibernate 2차 캐시 저장소 설정
+ *
+ * region 마다 caffeine 캐시를 크기(maximum-size), TTL(expire-after-write) 제한을 두고 미리 만들어서 hibernate 에 넘겨준다.
+ * querydsl update / delete 는 JPQL 벌크 연산이므로 hibernate 가 실행 시점에 대상 테이블의 region 을 통째로 비운다.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(final SecondLevelCacheProperties properties) {
+        // 테스트에서 스프링 컨텍스트가 여러 개 떠도 region 이 겹치지 않도록 컨텍스트마다 CacheManager 를 따로 만든다.
+        final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        properties.getRegions().forEach((region, spec) -> cacheManager.createCache(region, configuration(spec)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(final CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> configuration(final SecondLevelCacheProperties.Region spec) {
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(spec.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(spec.getExpireAfterWrite().toNanos()));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
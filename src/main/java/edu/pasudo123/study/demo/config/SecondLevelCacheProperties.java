@@ -0,0 +1,29 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region 별 크기, TTL 설정
+ * region 이름은 엔티티 / 컬렉션의 @Cache(region = ...) 와 맞춘다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.cache")
+public class SecondLevelCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,73 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * region 별 2차 캐시 hit / miss / eviction 수
+ * caffeine jcache 가 statisticsEnabled 캐시마다 JMX 에 등록하는 CacheStatisticsMXBean 을 읽는다.
+ */
+@Component
+public class SecondLevelCacheStatistics {
+
+    private final CacheManager secondLevelCacheManager;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public SecondLevelCacheStatistics(final CacheManager secondLevelCacheManager) {
+        this.secondLevelCacheManager = secondLevelCacheManager;
+    }
+
+    public Map<String, RegionStatistics> snapshot() {
+        final Map<String, RegionStatistics> snapshot = new LinkedHashMap<>();
+        for(String region : secondLevelCacheManager.getCacheNames()) {
+            snapshot.put(region, of(region));
+        }
+        return snapshot;
+    }
+
+    public RegionStatistics of(final String region) {
+        try {
+            final ObjectName name = new ObjectName(String.format("javax.cache:type=CacheStatistics,CacheManager=%s,Cache=%s",
+                    sanitize(secondLevelCacheManager.getURI().toString()), sanitize(region)));
+
+            return new RegionStatistics(
+                    (Long) mBeanServer.getAttribute(name, "CacheHits"),
+                    (Long) mBeanServer.getAttribute(name, "CacheMisses"),
+                    (Long) mBeanServer.getAttribute(name, "CacheEvictions"));
+        } catch (JMException e) {
+            throw new IllegalStateException("cache statistics not available : " + region, e);
+        }
+    }
+
+    /**
+     * jcache 구현체가 ObjectName 을 만들 때와 같은 규칙으로 특수문자를 치환한다.
+     */
+    private String sanitize(final String name) {
+        return name.replaceAll("[,:=\n]", ".");
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class RegionStatistics {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public double getHitRatio() {
+            final long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
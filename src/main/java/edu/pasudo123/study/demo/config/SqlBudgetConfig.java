@@ -0,0 +1,187 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.SqlBudget;
+import edu.pasudo123.study.demo.support.SqlCounter;
+import edu.pasudo123.study.demo.support.SqlScope;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 / 트랜잭션 별 SQL 수와 N+1 지연 로딩 감지
+ *
+ * SQL 은 StatementInspector 로 세고(JDBC batch 는 batch 하나를 한 번으로 센다), 지연 로딩은 hibernate 이벤트 리스너로 센다.
+ * 요청은 필터에서 범위를 열고, 트랜잭션은 첫 SQL 이 실행될 때 범위를 열어서 커밋 직전에 예산을 검사한다.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+@ConditionalOnProperty(prefix = "demo.sql-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetConfig {
+
+    @Bean
+    public StatementInspector sqlBudgetInspector(final SqlBudgetProperties properties) {
+        return new SqlBudgetInspector(budget(properties, properties.getMaxStatementsPerTransaction()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(final SqlBudgetProperties properties) {
+        final FilterRegistrationBean<SqlBudgetFilter> registration =
+                new FilterRegistrationBean<>(new SqlBudgetFilter(budget(properties, properties.getMaxStatementsPerRequest())));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 기본 리스너 앞뒤에 하나씩 붙여서, 지연 로딩 전후의 SQL 수를 비교한다.
+     */
+    @Bean
+    public SmartInitializingSingleton lazyLoadListenerRegistrar(final EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+
+            // 이벤트 그룹은 같은 클래스의 리스너를 중복으로 보므로 앞 / 뒤 리스너 클래스를 나눈다.
+            registry.prependListeners(EventType.LOAD, new BeforeLazyLoadListener());
+            registry.appendListeners(EventType.LOAD, new AfterLazyLoadListener());
+            registry.prependListeners(EventType.INIT_COLLECTION, new BeforeLazyLoadListener());
+            registry.appendListeners(EventType.INIT_COLLECTION, new AfterLazyLoadListener());
+        };
+    }
+
+    private SqlBudget budget(final SqlBudgetProperties properties, final int maxStatements) {
+        return new SqlBudget(maxStatements, properties.getRepeatedLazyLoadThreshold(),
+                properties.getMode() == SqlBudgetProperties.Mode.FAIL);
+    }
+
+    static class SqlBudgetInspector implements StatementInspector {
+
+        private static final String SCOPE_RESOURCE_KEY = SqlBudgetInspector.class.getName() + ".SCOPE";
+
+        private final SqlBudget budget;
+
+        SqlBudgetInspector(final SqlBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public String inspect(final String sql) {
+            openTransactionScope();
+            SqlCounter.statement();
+            return sql;
+        }
+
+        private void openTransactionScope() {
+            if(!TransactionSynchronizationManager.isSynchronizationActive()
+                    || TransactionSynchronizationManager.hasResource(SCOPE_RESOURCE_KEY)) {
+                return;
+            }
+
+            final String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            final SqlScope scope = SqlCounter.open("transaction " + (name == null ? "" : name));
+            TransactionSynchronizationManager.bindResource(SCOPE_RESOURCE_KEY, scope);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void suspend() {
+                    // REQUIRES_NEW 트랜잭션은 자기 범위를 따로 연다.
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SCOPE_RESOURCE_KEY);
+                    scope.suspend();
+                }
+
+                @Override
+                public void resume() {
+                    scope.resume();
+                    TransactionSynchronizationManager.bindResource(SCOPE_RESOURCE_KEY, scope);
+                }
+
+                @Override
+                public void beforeCommit(final boolean readOnly) {
+                    budget.check(scope);
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SCOPE_RESOURCE_KEY);
+                    scope.close();
+                }
+            });
+        }
+    }
+
+    static class SqlBudgetFilter extends OncePerRequestFilter {
+
+        private final SqlBudget budget;
+
+        SqlBudgetFilter(final SqlBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        protected void doFilterInternal(final HttpServletRequest request,
+                                        final HttpServletResponse response,
+                                        final FilterChain filterChain) throws ServletException, IOException {
+            try(SqlScope scope = SqlCounter.open("request " + request.getMethod() + " " + request.getRequestURI())) {
+                filterChain.doFilter(request, response);
+                budget.check(scope);
+            }
+        }
+    }
+
+    /**
+     * 프록시 초기화(IMMEDIATE_LOAD) 와 지연 컬렉션 초기화만 지연 로딩으로 본다.
+     */
+    abstract static class LazyLoadListener implements LoadEventListener, InitializeCollectionEventListener {
+
+        @Override
+        public void onLoad(final LoadEvent event, final LoadType loadType) {
+            if(loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                onLazyLoad(event.getEntityClassName());
+            }
+        }
+
+        @Override
+        public void onInitializeCollection(final InitializeCollectionEvent event) {
+            onLazyLoad(event.getCollection().getRole());
+        }
+
+        abstract void onLazyLoad(String role);
+    }
+
+    static class BeforeLazyLoadListener extends LazyLoadListener {
+
+        @Override
+        void onLazyLoad(final String role) {
+            SqlCounter.beforeLazyLoad();
+        }
+    }
+
+    static class AfterLazyLoadListener extends LazyLoadListener {
+
+        @Override
+        void onLazyLoad(final String role) {
+            SqlCounter.afterLazyLoad(role);
+        }
+    }
+}
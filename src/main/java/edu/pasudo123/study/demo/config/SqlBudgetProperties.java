@@ -0,0 +1,28 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP 요청 / 트랜잭션 별 SQL 예산 설정
+ * max-statements-* 와 repeated-lazy-load-threshold 는 0 이하면 제한하지 않는다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOG;
+    private int maxStatementsPerRequest = 100;
+    private int maxStatementsPerTransaction = 50;
+    private int repeatedLazyLoadThreshold = 10;
+
+    public enum Mode {
+        /** 경고 로그만 남긴다. */
+        LOG,
+        /** SqlBudgetExceededException 을 던진다. 트랜잭션은 커밋 직전에 검사하므로 롤백된다. */
+        FAIL
+    }
+}
@@ -0,0 +1,21 @@
+package edu.pasudo123.study.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 기동 시간 측정(StartupTimelineListener) 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "demo.startup")
+public class StartupProperties {
+
+    /** 기동이 끝나면 단계 별 시간을 로그로 남긴다. */
+    private boolean report = true;
+    /** 리포트에 넣는 오래 걸린 빈 수 */
+    private int slowestBeans = 10;
+    /** 기동이 끝나면 바로 종료한다. (CDS 클래스 목록 수집, 기동 시간 측정용) */
+    private boolean exitAfterReady = false;
+}
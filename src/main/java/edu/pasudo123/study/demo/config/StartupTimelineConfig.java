@@ -0,0 +1,46 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.StartupTimeline;
+import edu.pasudo123.study.demo.support.TimedSchemaManagementTool;
+import edu.pasudo123.study.demo.team.TeamStatisticsService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.schema.internal.HibernateSchemaManagementTool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 기동 시간 측정과 빠른 기동(faststart 프로필) 설정
+ *
+ * StartupTimeline 은 StartupTimelineListener 가 컨텍스트에 넣어 준다. 여기서는 hibernate 스키마 생성 시간을 재고 /actuator/startup 을 연다.
+ * 리스너는 DemoApplication#main 에서만 붙으므로, 테스트처럼 리스너 없이 뜬 컨텍스트에서는 스키마 생성 시간을 재지 않고 빈 타임라인을 보여준다.
+ * faststart 프로필은 spring.main.lazy-initialization 을 켜므로, 기동할 때 반드시 만들어야 하는 빈은 지연 초기화에서 뺀다.
+ */
+@Configuration
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupTimelineConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer schemaManagementToolCustomizer(final ObjectProvider<StartupTimeline> startupTimeline) {
+        return hibernateProperties -> startupTimeline.ifAvailable(timeline -> hibernateProperties.put(AvailableSettings.SCHEMA_MANAGEMENT_TOOL,
+                new TimedSchemaManagementTool(new HibernateSchemaManagementTool(), timeline)));
+    }
+
+    @Bean
+    public StartupTimelineEndpoint startupTimelineEndpoint(final ObjectProvider<StartupTimeline> startupTimeline, final StartupProperties properties) {
+        return new StartupTimelineEndpoint(startupTimeline.getIfAvailable(StartupTimeline::new), properties.getSlowestBeans());
+    }
+
+    /**
+     * hibernate 리스너를 등록하는 SmartInitializingSingleton 과 주기적으로 재집계하는 TeamStatisticsService 는
+     * 누군가 처음 사용할 때까지 미루면 그 사이의 member 변경이나 스케줄이 빠지므로 기동할 때 만든다.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SmartInitializingSingleton.class, TeamStatisticsService.class);
+    }
+}
@@ -0,0 +1,31 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.StartupTimeline;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/startup : 기동 단계 별 시간과 오래 걸린 빈
+ */
+@Endpoint(id = "startup")
+public class StartupTimelineEndpoint {
+
+    private final StartupTimeline timeline;
+    private final int slowestBeans;
+
+    public StartupTimelineEndpoint(final StartupTimeline timeline, final int slowestBeans) {
+        this.timeline = timeline;
+        this.slowestBeans = slowestBeans;
+    }
+
+    @ReadOperation
+    public Map<String, Object> startup() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("phases", timeline.getPhases());
+        result.put("slowestBeans", timeline.slowestBeans(slowestBeans));
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.support.StartupTimeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기동 단계 별 시간을 StartupTimeline 에 기록한다. (DemoApplication#main 에서 등록)
+ *
+ * 컨텍스트가 만들어지기 전의 이벤트부터 받아야 하므로 빈이 아니라 SpringApplication 의 리스너로 등록하고,
+ * jvm start 를 JVM 가동 시간으로 재므로 JVM 을 띄운 애플리케이션 하나에만 붙인다.
+ * 컨텍스트가 준비되면 StartupTimeline 을 싱글톤으로 넣고 빈 생성 시간을 재는 BeanPostProcessor 를 가장 먼저 붙인다.
+ *
+ * jvm start         : JVM 시작 ~ SpringApplication.run
+ * environment       : 설정 파일, 프로필 로딩
+ * context prepare   : 컨텍스트 생성, 설정 클래스 등록
+ * context refresh   : 빈 생성 (jpa bootstrap, schema generation, repositories 는 이 안의 하위 단계)
+ * web server        : 내장 톰캣 시작
+ * runners           : ApplicationRunner, CommandLineRunner
+ */
+@Slf4j
+public class StartupTimelineListener implements ApplicationListener<ApplicationEvent> {
+
+    private final StartupTimeline timeline = new StartupTimeline();
+    private long last;
+    private boolean refreshed;
+
+    @Override
+    public void onApplicationEvent(final ApplicationEvent event) {
+        if(event instanceof ApplicationStartingEvent) {
+            last = System.nanoTime();
+            timeline.phase("jvm start", 0, TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime()));
+        } else if(event instanceof ApplicationEnvironmentPreparedEvent) {
+            phase("environment");
+        } else if(event instanceof ApplicationPreparedEvent) {
+            final ConfigurableApplicationContext context = ((ApplicationPreparedEvent) event).getApplicationContext();
+            context.getBeanFactory().registerSingleton("startupTimeline", timeline);
+            context.getBeanFactory().addBeanPostProcessor(new BeanCreationTimer(timeline));
+            phase("context prepare");
+        } else if(event instanceof ContextRefreshedEvent && !refreshed) {
+            refreshed = true;
+            contextRefreshed();
+        } else if(event instanceof ApplicationStartedEvent) {
+            phase("web server");
+        } else if(event instanceof ApplicationReadyEvent) {
+            ready((ApplicationReadyEvent) event);
+        }
+    }
+
+    private void contextRefreshed() {
+        phase("context refresh");
+        final long schemaGeneration = timeline.accumulated(StartupTimeline.SCHEMA_GENERATION);
+        timeline.phase(StartupTimeline.JPA_BOOTSTRAP, 1, Math.max(0, timeline.accumulated(StartupTimeline.JPA_BOOTSTRAP) - schemaGeneration));
+        timeline.phase(StartupTimeline.SCHEMA_GENERATION, 1, schemaGeneration);
+        timeline.phase(StartupTimeline.REPOSITORIES, 1, timeline.accumulated(StartupTimeline.REPOSITORIES));
+    }
+
+    private void ready(final ApplicationReadyEvent event) {
+        phase("runners");
+        timeline.phase("ready", 0, TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime()));
+
+        final StartupProperties properties = Binder.get(event.getApplicationContext().getEnvironment())
+                .bindOrCreate("demo.startup", StartupProperties.class);
+        if(properties.isReport()) {
+            log.info(timeline.report(properties.getSlowestBeans()));
+        }
+        if(properties.isExitAfterReady()) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    private void phase(final String name) {
+        final long now = System.nanoTime();
+        timeline.phase(name, 0, now - last);
+        last = now;
+    }
+
+    /**
+     * 인스턴스 생성 직전부터 초기화 직후까지를 빈 생성 시간으로 본다.
+     * 생성 중에 의존하는 빈을 만들면 스택에 쌓고, 그 시간은 바깥 빈의 시간에서 뺀다.
+     */
+    static class BeanCreationTimer implements InstantiationAwareBeanPostProcessor {
+
+        private final StartupTimeline timeline;
+        private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+        BeanCreationTimer(final StartupTimeline timeline) {
+            this.timeline = timeline;
+        }
+
+        @Override
+        public Object postProcessBeforeInstantiation(final Class<?> beanClass, final String beanName) {
+            frames.get().push(new Frame(beanName, System.nanoTime()));
+            return null;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            final Frame frame = pop(beanName);
+            if(frame == null) {
+                // FactoryBean 이 만든 객체는 생성 직전 콜백 없이 초기화 후 콜백만 받는다.
+                return bean;
+            }
+
+            final long total = System.nanoTime() - frame.start;
+            final long exclusive = total - frame.children;
+            final Frame parent = frames.get().peek();
+            if(parent != null) {
+                parent.children += total;
+            }
+
+            timeline.bean(beanName, exclusive);
+            if(bean instanceof AbstractEntityManagerFactoryBean) {
+                timeline.accumulate(StartupTimeline.JPA_BOOTSTRAP, exclusive);
+            } else if(bean instanceof RepositoryFactoryBeanSupport) {
+                timeline.accumulate(StartupTimeline.REPOSITORIES, exclusive);
+            }
+            return bean;
+        }
+
+        /**
+         * 생성에 실패한 빈의 프레임은 남아 있을 수 있으므로 beanName 프레임까지 걷어낸다.
+         */
+        private Frame pop(final String beanName) {
+            final Deque<Frame> stack = frames.get();
+            if(stack.stream().noneMatch(frame -> frame.name.equals(beanName))) {
+                return null;
+            }
+
+            Frame frame = stack.pop();
+            while(!frame.name.equals(beanName)) {
+                frame = stack.pop();
+            }
+            return frame;
+        }
+    }
+
+    private static class Frame {
+        private final String name;
+        private final long start;
+        private long children;
+
+        Frame(final String name, final long start) {
+            this.name = name;
+            this.start = start;
+        }
+    }
+}
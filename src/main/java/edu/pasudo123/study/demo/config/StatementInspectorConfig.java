@@ -0,0 +1,54 @@
+package edu.pasudo123.study.demo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 스프링 빈으로 등록된 StatementInspector 들을 hibernate 에 하나로 묶어서 등록한다.
+ *
+ * hibernate 가 실행하는 모든 SQL (JPQL, querydsl, spring data, 벌크 연산 포함) 이 지나가는 곳이다.
+ * 인스펙터가 EntityManager 에 의존하면 순환참조가 생기므로, 첫 SQL 이 실행될 때 빈을 찾아온다.
+ */
+@Configuration
+public class StatementInspectorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(final ObjectProvider<StatementInspector> inspectors) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new CompositeStatementInspector(inspectors));
+    }
+
+    static class CompositeStatementInspector implements StatementInspector {
+
+        private final ObjectProvider<StatementInspector> provider;
+        private volatile List<StatementInspector> inspectors;
+
+        CompositeStatementInspector(final ObjectProvider<StatementInspector> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public String inspect(final String sql) {
+            String result = sql;
+            for(StatementInspector inspector : inspectors()) {
+                result = inspector.inspect(result);
+            }
+            return result;
+        }
+
+        private List<StatementInspector> inspectors() {
+            List<StatementInspector> resolved = inspectors;
+            if(resolved == null) {
+                resolved = provider.orderedStream().collect(Collectors.toList());
+                inspectors = resolved;
+            }
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.team.TeamStatisticsListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * team_statistics 를 증분으로 갱신하는 리스너를 hibernate 에 등록한다.
+ */
+@Configuration
+public class TeamStatisticsConfig {
+
+    @Bean
+    public SmartInitializingSingleton teamStatisticsListenerRegistrar(final EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+
+            final TeamStatisticsListener listener = new TeamStatisticsListener();
+            registry.appendListeners(EventType.POST_INSERT, listener);
+            registry.appendListeners(EventType.POST_UPDATE, listener);
+            registry.appendListeners(EventType.POST_DELETE, listener);
+        };
+    }
+}
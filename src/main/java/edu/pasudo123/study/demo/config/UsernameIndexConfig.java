@@ -0,0 +1,33 @@
+package edu.pasudo123.study.demo.config;
+
+import edu.pasudo123.study.demo.member.UsernameIndex;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * username 메모리 인덱스를 커밋 이후 이벤트에 등록하고, 시작할 때 member 테이블에서 한 번 채운다.
+ */
+@Configuration
+public class UsernameIndexConfig {
+
+    @Bean
+    public SmartInitializingSingleton usernameIndexRegistrar(final EntityManagerFactory entityManagerFactory, final UsernameIndex usernameIndex) {
+        return () -> {
+            final EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, usernameIndex);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, usernameIndex);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, usernameIndex);
+
+            usernameIndex.rebuild();
+        };
+    }
+}
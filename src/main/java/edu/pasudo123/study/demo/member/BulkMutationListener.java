@@ -0,0 +1,10 @@
+package edu.pasudo123.study.demo.member;
+
+/**
+ * 청크가 커밋될 때마다 호출된다.
+ */
+@FunctionalInterface
+public interface BulkMutationListener {
+
+    void onChunk(BulkMutationProgress progress);
+}
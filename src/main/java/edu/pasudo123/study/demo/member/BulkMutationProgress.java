@@ -0,0 +1,26 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 청크 하나가 커밋된 직후의 진행 상황
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BulkMutationProgress {
+
+    private final int chunk;
+    private final long minId;
+    private final long maxId;
+    private final long fromId;
+    private final long toId;
+    private final long chunkRows;
+    private final long totalRows;
+
+    public double getProgressRate() {
+        return (double) (toId - minId + 1) / (maxId - minId + 1);
+    }
+}
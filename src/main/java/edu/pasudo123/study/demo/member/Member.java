@@ -2,18 +2,34 @@ package edu.pasudo123.study.demo.member;
 
 import edu.pasudo123.study.demo.team.Team;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
-@Table(name = "member")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+@NamedEntityGraph(name = Member.WITH_TEAM, attributeNodes = @NamedAttributeNode("team"))
+@Table(name = "member", indexes = {
+        // keyset 페이징 (MemberJpaRepository#findPageOrderBy*)
+        @Index(name = "idx_member_username_id", columnList = "username, id"),
+        @Index(name = "idx_member_age_id", columnList = "age, id"),
+        // username 단독 조건(eq, startsWith) 은 idx_member_username_id 의 앞 컬럼으로 찾는다.
+        // 팀 별 나이 조건 / 집계 (TeamStatisticsService#refresh)
+        @Index(name = "idx_member_team_id_age", columnList = "team_id, age")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class Member {
 
+    public static final String WITH_TEAM = "Member.withTeam";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 insert 시점에 id 를 받아와야 해서 JDBC batch insert 가 비활성화된다.
+    // pooled 시퀀스로 allocationSize 만큼 id 를 미리 할당 받아 batch insert 가 가능하도록 한다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
@@ -38,4 +54,12 @@ public class Member {
         this.team = team;
         team.getMembers().add(this);
     }
+
+    /**
+     * team.members 컬렉션은 건드리지 않고 FK 만 바꾼다.
+     * 벌크 저장 중 clear 되어 준영속이 된 팀을 프록시 참조로 바꿔 끼울 때 사용한다.
+     */
+    void referTeam(final Team team) {
+        this.team = team;
+    }
 }
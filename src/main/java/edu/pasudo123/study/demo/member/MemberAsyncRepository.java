@@ -0,0 +1,79 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.types.Predicate;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.InstrumentedThreadPoolExecutor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * MemberJpaRepository 의 비동기 버전
+ *
+ * 쿼리는 커넥션 풀 크기에 맞춘 전용 executor(repositoryExecutor) 에서 각자의 트랜잭션으로 실행되고, 톰캣 스레드는 바로 돌아간다.
+ * 큐가 가득 차면 overflow 설정에 따라 RejectedExecutionException 으로 실패한 future 를 돌려주거나, 호출 스레드에서 실행한다.
+ *
+ * 반환되는 엔티티는 트랜잭션이 끝난 준영속 상태이므로, 연관관계가 필요하면 fetch plan 을 받는 메서드를 사용한다.
+ */
+@Repository
+public class MemberAsyncRepository {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final InstrumentedThreadPoolExecutor executor;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public MemberAsyncRepository(final MemberJpaRepository memberJpaRepository,
+                                 final InstrumentedThreadPoolExecutor repositoryExecutor,
+                                 final PlatformTransactionManager transactionManager) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.executor = repositoryExecutor;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public CompletableFuture<Optional<Member>> findById(final Long id) {
+        return submit(readTransaction, () -> memberJpaRepository.findById(id));
+    }
+
+    public CompletableFuture<List<Member>> findAll(final FetchPlan plan) {
+        return findBy(null, plan);
+    }
+
+    public CompletableFuture<List<Member>> findBy(final Predicate predicate, final FetchPlan plan) {
+        return submit(readTransaction, () -> memberJpaRepository.findBy(predicate, plan));
+    }
+
+    public CompletableFuture<List<Member>> search(final MemberSearchCondition condition, final long offset, final long limit) {
+        return submit(readTransaction, () -> memberJpaRepository.search(condition, offset, limit));
+    }
+
+    public CompletableFuture<Member> save(final Member member) {
+        return submit(writeTransaction, () -> memberJpaRepository.save(member));
+    }
+
+    public CompletableFuture<List<Member>> saveAll(final List<Member> members) {
+        return submit(writeTransaction, () -> memberJpaRepository.saveAll(members));
+    }
+
+    public InstrumentedThreadPoolExecutor.Statistics statistics() {
+        return executor.statistics();
+    }
+
+    private <T> CompletableFuture<T> submit(final TransactionTemplate transaction, final Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> transaction.execute(status -> work.get()), executor);
+        } catch (RejectedExecutionException e) {
+            final CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+}
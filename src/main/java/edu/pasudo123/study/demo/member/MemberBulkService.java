@@ -0,0 +1,311 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import edu.pasudo123.study.demo.team.Team;
+import edu.pasudo123.study.demo.team.TeamStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+
+/**
+ * id 범위 청크 단위 벌크 update / delete
+ *
+ * queryFactory.update(member) 한 번으로 전체 테이블을 바꾸면 트랜잭션이 끝날 때까지 로우 락을 오래 잡는다.
+ * 여기서는 [minId, maxId] 를 chunkSize 만큼 잘라서 청크마다 새 트랜잭션(REQUIRES_NEW) 으로 커밋하고,
+ * 청크가 끝날 때마다 바뀐 Member 만 1차 캐시(호출자 트랜잭션의 영속성 컨텍스트) 와 2차 캐시에서 제거한다.
+ *
+ * 벌크 연산은 엔티티 이벤트를 거치지 않으므로, 청크마다 변경 전, 후 팀의 team_statistics 를 같은 트랜잭션에서 다시 집계하고
+ * 커밋 후에는 바뀐 Member 를 UsernameIndex 에 다시 읽는다.
+ *
+ * 청크 트랜잭션은 호출자 트랜잭션과 다른 커넥션을 사용하므로, 호출자가 같은 로우를 수정 중이라면 먼저 커밋한 뒤에 호출한다.
+ * where 조건은 조인 없이 member 만으로 구성해야 한다. (JPQL update/delete 는 조인을 지원하지 않는다.)
+ */
+@Slf4j
+@Service
+public class MemberBulkService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final BulkMutationListener LOGGING_LISTENER = progress ->
+            log.info("bulk mutation chunk={} ids=[{}, {}] rows={} total={} progress={}%",
+                    progress.getChunk(), progress.getFromId(), progress.getToId(),
+                    progress.getChunkRows(), progress.getTotalRows(),
+                    String.format("%.1f", progress.getProgressRate() * 100));
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatisticsService teamStatisticsService;
+    private final UsernameIndex usernameIndex;
+    private final TransactionTemplate chunkTransaction;
+
+    public MemberBulkService(final EntityManager em,
+                             final JPAQueryFactory queryFactory,
+                             final TeamStatisticsService teamStatisticsService,
+                             final UsernameIndex usernameIndex,
+                             final PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.teamStatisticsService = teamStatisticsService;
+        this.usernameIndex = usernameIndex;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long update(final Predicate where, final Consumer<JPAUpdateClause> assignments) {
+        return update(where, assignments, DEFAULT_CHUNK_SIZE, LOGGING_LISTENER);
+    }
+
+    /**
+     * @param assignments update 절의 set 을 채운다. ex) clause -> clause.set(member.age, member.age.add(1))
+     * @return 변경된 로우 수
+     */
+    public long update(final Predicate where,
+                       final Consumer<JPAUpdateClause> assignments,
+                       final int chunkSize,
+                       final BulkMutationListener listener) {
+        return execute(where, chunkSize, listener, ids -> {
+            final JPAUpdateClause clause = queryFactory.update(member);
+            assignments.accept(clause);
+            return clause
+                    .where(where, member.id.in(ids))
+                    .execute();
+        });
+    }
+
+    public long delete(final Predicate where) {
+        return delete(where, DEFAULT_CHUNK_SIZE, LOGGING_LISTENER);
+    }
+
+    /**
+     * @return 삭제된 로우 수
+     */
+    public long delete(final Predicate where, final int chunkSize, final BulkMutationListener listener) {
+        return execute(where, chunkSize, listener, ids -> queryFactory
+                .delete(member)
+                .where(where, member.id.in(ids))
+                .execute());
+    }
+
+    public long reassignTeam(final Collection<Long> memberIds, final Long teamId) {
+        return memberIds.isEmpty() ? 0 : reassignTeam(member.id.in(memberIds), teamId);
+    }
+
+    public long reassignTeam(final Predicate where, final Long teamId) {
+        return reassignTeam(where, teamId, DEFAULT_CHUNK_SIZE, LOGGING_LISTENER);
+    }
+
+    /**
+     * where 에 해당하는 member 를 teamId 팀으로 옮긴다.
+     *
+     * member 마다 changeTeam 을 호출하면 member 를 모두 읽어서 로우마다 update 하지만, 여기서는 청크마다 update 한 번으로 FK 만 바꾼다.
+     * Team.members 는 읽지 않는다. 호출자의 영속성 컨텍스트에 있는 member 와 이미 초기화된 members 컬렉션만 메모리에서 맞춰 준다.
+     *
+     * @return 옮겨진 로우 수
+     */
+    public long reassignTeam(final Predicate where, final Long teamId, final int chunkSize, final BulkMutationListener listener) {
+        if(queryFactory.selectOne().from(team).where(team.id.eq(teamId)).fetchFirst() == null) {
+            throw new IllegalArgumentException("team not found : " + teamId);
+        }
+
+        final long rows = execute(where, chunkSize, listener, ids -> queryFactory
+                .update(member)
+                .set(member.team, em.getReference(Team.class, teamId))
+                .where(where, member.id.in(ids))
+                .execute(), ids -> syncTeam(ids, teamId));
+
+        // 옮겨진 member 가 들어 있던 팀들의 members 컬렉션 캐시를 비운다.
+        em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictCollectionData(Team.class.getName() + ".members");
+        return rows;
+    }
+
+    private long execute(final Predicate where,
+                         final int chunkSize,
+                         final BulkMutationListener listener,
+                         final Function<List<Long>, Long> mutation) {
+        return execute(where, chunkSize, listener, mutation, this::evict);
+    }
+
+    /**
+     * @param afterChunk 청크가 커밋된 뒤 바뀐 member id 로 캐시와 호출자의 영속성 컨텍스트를 맞춘다.
+     */
+    private long execute(final Predicate where,
+                         final int chunkSize,
+                         final BulkMutationListener listener,
+                         final Function<List<Long>, Long> mutation,
+                         final Consumer<List<Long>> afterChunk) {
+
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+        }
+
+        final Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(where)
+                .fetchOne();
+
+        if(range == null || range.get(member.id.min()) == null) {
+            return 0;
+        }
+
+        final long minId = range.get(member.id.min());
+        final long maxId = range.get(member.id.max());
+
+        long totalRows = 0;
+        int chunk = 0;
+
+        for(long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            final long chunkFromId = fromId;
+            final long chunkToId = Math.min(fromId + chunkSize - 1, maxId);
+
+            final ChunkResult result = chunkTransaction.execute(status -> {
+                final List<Long> ids = queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(where, member.id.between(chunkFromId, chunkToId))
+                        .fetch();
+
+                if(ids.isEmpty()) {
+                    return new ChunkResult(Collections.emptyList(), 0);
+                }
+
+                final Set<Long> teamIds = new HashSet<>(teamIds(ids));
+                final long rows = mutation.apply(ids);
+                teamIds.addAll(teamIds(ids));
+                teamStatisticsService.refresh(teamIds);
+
+                return new ChunkResult(ids, rows);
+            });
+
+            afterChunk.accept(result.ids);
+            usernameIndex.refresh(result.ids);
+
+            totalRows += result.rows;
+            listener.onChunk(new BulkMutationProgress(++chunk, minId, maxId, chunkFromId, chunkToId, result.rows, totalRows));
+        }
+
+        return totalRows;
+    }
+
+    private List<Long> teamIds(final List<Long> ids) {
+        return queryFactory
+                .select(member.team.id)
+                .distinct()
+                .from(member)
+                .where(member.id.in(ids), member.team.id.isNotNull())
+                .fetch();
+    }
+
+    /**
+     * 옮겨진 Member 를 2차 캐시에서 지우고, 호출자의 영속성 컨텍스트에 있는 Member 는 detach 하지 않고 새 팀을 가리키게 한다.
+     * 로딩 당시 상태(loadedState) 도 새 팀으로 바꿔서 flush 때 같은 update 가 다시 나가지 않도록 한다.
+     * 바이트코드 향상된 Member 는 스냅샷 대신 자신이 기록한 변경 필드로 dirty checking 하므로, 다른 변경이 없었다면 기록도 지운다.
+     * 옛 팀 / 새 팀의 members 는 이미 초기화된 경우에만 고친다.
+     */
+    private void syncTeam(final List<Long> ids, final Long teamId) {
+        if(ids.isEmpty()) {
+            return;
+        }
+
+        final Cache cache = em.getEntityManagerFactory().getCache();
+        for(Long id : ids) {
+            cache.evict(Member.class, id);
+        }
+
+        if(!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+        final EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        final int teamIndex = persister.getEntityMetamodel().getPropertyIndex("team");
+        final Team target = em.getReference(Team.class, teamId);
+
+        for(Long id : ids) {
+            final Member managed = (Member) session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if(managed == null || managed.getTeam() == target) {
+                continue;
+            }
+
+            final Team previous = managed.getTeam();
+            if(previous != null && Hibernate.isInitialized(previous) && Hibernate.isInitialized(previous.getMembers())) {
+                previous.getMembers().remove(managed);
+            }
+            if(Hibernate.isInitialized(target) && Hibernate.isInitialized(target.getMembers())) {
+                target.getMembers().add(managed);
+            }
+            final boolean dirty = !(managed instanceof SelfDirtinessTracker) || ((SelfDirtinessTracker) managed).$$_hibernate_hasDirtyAttributes();
+            managed.referTeam(target);
+            if(!dirty) {
+                ((SelfDirtinessTracker) managed).$$_hibernate_clearDirtyAttributes();
+            }
+
+            final EntityEntry entry = session.getPersistenceContext().getEntry(managed);
+            if(entry != null && entry.getLoadedState() != null) {
+                entry.getLoadedState()[teamIndex] = target;
+            }
+        }
+    }
+
+    /**
+     * 바뀐 Member 만 2차 캐시와 호출자의 영속성 컨텍스트에서 제거한다.
+     */
+    private void evict(final List<Long> ids) {
+        if(ids.isEmpty()) {
+            return;
+        }
+
+        final Cache cache = em.getEntityManagerFactory().getCache();
+        for(Long id : ids) {
+            cache.evict(Member.class, id);
+        }
+
+        if(!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+        final EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for(Long id : ids) {
+            final Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if(managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private static class ChunkResult {
+        private final List<Long> ids;
+        private final long rows;
+
+        ChunkResult(final List<Long> ids, final long rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+}
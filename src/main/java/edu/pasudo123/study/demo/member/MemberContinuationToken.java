@@ -0,0 +1,37 @@
+package edu.pasudo123.study.demo.member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * id 순 keyset 스트리밍의 이어받기 토큰
+ * 마지막으로 받은 member id 를 URL-safe base64 로 감싼다.
+ */
+public final class MemberContinuationToken {
+
+    private static final String PREFIX = "member:";
+
+    private MemberContinuationToken() {
+    }
+
+    public static String encode(final Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException 토큰 형식이 맞지 않을 때
+     */
+    public static Long decode(final String token) {
+        final String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if(!decoded.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("invalid continuation token : " + token);
+        }
+
+        try {
+            return Long.valueOf(decoded.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid continuation token : " + token, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package edu.pasudo123.study.demo.member;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 API
+ *
+ * 결과를 JSON 배열로 모으지 않고 DB 커서에서 읽는 대로 한 줄에 하나씩 (NDJSON) 내보내므로 결과 크기와 상관없이 서버 메모리가 일정하다.
+ * 클라이언트가 연결을 끊으면 쓰기에 실패한 시점에 커서와 트랜잭션을 닫는다.
+ * 각 줄의 cursor 를 after 로 넘기면 끊긴 지점부터 이어서 받는다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/members")
+public class MemberController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int FETCH_SIZE = 500;
+    private static final int FLUSH_INTERVAL = 100;
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 100;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final UsernameIndex usernameIndex;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readTransaction;
+
+    public MemberController(final MemberJpaRepository memberJpaRepository,
+                            final UsernameIndex usernameIndex,
+                            final ObjectMapper objectMapper,
+                            final PlatformTransactionManager transactionManager) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.usernameIndex = usernameIndex;
+        // 한 줄씩 쓰고 나서 응답 스트림이 닫히지 않도록 한다.
+        this.writer = objectMapper.writerFor(MemberResponse.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * ex) GET /members?teamName=NEW TEAM&ageGoe=20&ageLoe=39&limit=1000&after={cursor}
+     */
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> search(final MemberSearchCondition condition,
+                                                        @RequestParam(required = false) final String after,
+                                                        @RequestParam(required = false) final Integer limit) {
+        // 토큰 오류는 스트리밍을 시작하기 전에 400 으로 응답한다.
+        final Long afterId = after == null ? null : MemberContinuationToken.decode(after);
+        if(limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive : " + limit);
+        }
+
+        final StreamingResponseBody body = out -> readTransaction.executeWithoutResult(status -> write(condition, afterId, limit, out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * username 자동완성 (DB 를 조회하지 않는다.)
+     * ex) GET /members/autocomplete?prefix=PA&limit=10
+     */
+    @GetMapping("/autocomplete")
+    public List<String> autocomplete(@RequestParam final String prefix,
+                                     @RequestParam(defaultValue = "10") final int limit) {
+        if(limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive : " + limit);
+        }
+        return usernameIndex.autocomplete(prefix, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(final IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(e.getMessage());
+    }
+
+    private void write(final MemberSearchCondition condition, final Long afterId, final Integer limit, final OutputStream out) {
+        int written = 0;
+        try(Stream<MemberResponse> rows = memberJpaRepository.streamResponses(condition, afterId, FETCH_SIZE)) {
+            final Iterator<MemberResponse> iterator = rows.iterator();
+            while(iterator.hasNext() && (limit == null || written < limit)) {
+                writer.writeValue(out, iterator.next());
+                out.write(NEW_LINE);
+
+                if(++written % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // 클라이언트 취소 (ClientAbortException 등). 커서는 try-with-resources 로 닫힌다.
+            log.debug("member stream cancelled by client after {} rows", written, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package edu.pasudo123.study.demo.member;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * member 가져오기 CSV (username,age,team) 한 줄을 매핑된 버퍼에서 바로 파싱한다.
+ *
+ * 필드는 RFC 4180 따옴표("", 안의 "" 는 ") 를 지원하지만 레코드 경계는 줄바꿈으로 나누므로 필드 안의 줄바꿈은 지원하지 않는다.
+ * 바이트 배열 하나를 재사용하므로 스레드마다 하나씩 만든다.
+ */
+class MemberCsvParser {
+
+    static final String HEADER = "username,age,team";
+
+    enum Result {
+        /** 한 줄을 읽었다. */
+        ROW,
+        /** 형식이 틀린 줄을 건너뛰었다. */
+        REJECTED,
+        /** 버퍼 끝까지 줄바꿈이 없다. (다음 윈도우에서 다시 읽는다.) */
+        INCOMPLETE,
+        /** 빈 줄 */
+        EMPTY
+    }
+
+    private byte[] field = new byte[256];
+    private int length;
+
+    private String username;
+    private int age;
+    private String team;
+
+    String getUsername() {
+        return username;
+    }
+
+    int getAge() {
+        return age;
+    }
+
+    /**
+     * @return 빈 문자열이나 빈 필드면 null
+     */
+    String getTeam() {
+        return team;
+    }
+
+    /**
+     * buffer 의 position 부터 한 줄을 읽는다. ROW / REJECTED / EMPTY 면 position 은 다음 줄의 시작, INCOMPLETE 면 그대로다.
+     *
+     * @param endOfInput buffer 의 끝이 입력(세그먼트) 의 끝이면 마지막 줄에 줄바꿈이 없어도 된다.
+     */
+    Result next(final ByteBuffer buffer, final boolean endOfInput) {
+        final int start = buffer.position();
+        final int end = lineEnd(buffer, start);
+        if(end < 0 && !endOfInput) {
+            return Result.INCOMPLETE;
+        }
+
+        final int lineEnd = end < 0 ? buffer.limit() : end;
+        buffer.position(end < 0 ? buffer.limit() : end + 1);
+
+        int contentEnd = lineEnd;
+        if(contentEnd > start && buffer.get(contentEnd - 1) == '\r') {
+            contentEnd--;
+        }
+        if(contentEnd == start) {
+            return Result.EMPTY;
+        }
+
+        // username
+        int position = field(buffer, start, contentEnd);
+        if(position < 0 || position >= contentEnd || buffer.get(position) != ',') {
+            return Result.REJECTED;
+        }
+        username = fieldValue();
+        if(username == null) {
+            return Result.REJECTED;
+        }
+
+        // age
+        position++;
+        int value = 0;
+        int digits = 0;
+        while(position < contentEnd && buffer.get(position) != ',') {
+            final int digit = buffer.get(position++) - '0';
+            // 9 자리까지만 받으므로 int 를 넘지 않는다.
+            if(digit < 0 || digit > 9 || ++digits > 9) {
+                return Result.REJECTED;
+            }
+            value = value * 10 + digit;
+        }
+        if(digits == 0) {
+            return Result.REJECTED;
+        }
+        age = value;
+
+        // team (없어도 된다.)
+        team = null;
+        if(position < contentEnd) {
+            position = field(buffer, position + 1, contentEnd);
+            if(position != contentEnd) {
+                return Result.REJECTED;
+            }
+            team = fieldValue();
+        }
+        return Result.ROW;
+    }
+
+    /**
+     * 헤더 줄인지 확인한다. (대소문자, 앞뒤 공백 무시)
+     */
+    static boolean isHeader(final String line) {
+        return HEADER.equalsIgnoreCase(line.trim());
+    }
+
+    /**
+     * field 배열에 필드 하나를 읽는다.
+     *
+     * @return 필드 다음 위치 (',' 또는 end), 따옴표가 닫히지 않으면 -1
+     */
+    private int field(final ByteBuffer buffer, final int from, final int end) {
+        length = 0;
+        int position = from;
+
+        if(position < end && buffer.get(position) == '"') {
+            position++;
+            while(true) {
+                if(position >= end) {
+                    return -1;
+                }
+                final byte b = buffer.get(position++);
+                if(b == '"') {
+                    if(position < end && buffer.get(position) == '"') {
+                        append(b);
+                        position++;
+                        continue;
+                    }
+                    return position;
+                }
+                append(b);
+            }
+        }
+
+        while(position < end && buffer.get(position) != ',') {
+            append(buffer.get(position++));
+        }
+        return position;
+    }
+
+    private void append(final byte b) {
+        if(length == field.length) {
+            field = Arrays.copyOf(field, length * 2);
+        }
+        field[length++] = b;
+    }
+
+    private String fieldValue() {
+        return length == 0 ? null : new String(field, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int lineEnd(final ByteBuffer buffer, final int from) {
+        for(int i = from; i < buffer.limit(); i++) {
+            if(buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,44 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * keyset(seek) 페이징을 위한 커서
+ * 정렬 키 + id 로 구성되며, 마지막으로 읽은 로우의 바로 다음부터 조회하도록 한다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberCursor {
+
+    private final String username;
+    private final Integer age;
+    private final Long id;
+
+    public static MemberCursor ofUsername(final String username, final Long id) {
+        return new MemberCursor(username, null, id);
+    }
+
+    public static MemberCursor ofAge(final int age, final Long id) {
+        return new MemberCursor(null, age, id);
+    }
+
+    /**
+     * (username, id) 정렬 페이지의 마지막 회원으로 다음 페이지 커서를 만든다.
+     */
+    public static MemberCursor afterUsername(final Member last) {
+        return ofUsername(last.getUsername(), last.getId());
+    }
+
+    /**
+     * (age, id) 정렬 페이지의 마지막 회원으로 다음 페이지 커서를 만든다.
+     */
+    public static MemberCursor afterAge(final Member last) {
+        return ofAge(last.getAge(), last.getId());
+    }
+}
@@ -0,0 +1,58 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * member 가져오기의 세그먼트 별 진행 위치
+ *
+ * 청크를 넣는 트랜잭션에서 committed_offset 도 같이 바꾸므로, 중단된 가져오기는 커밋된 위치 다음 줄부터 다시 시작한다.
+ * MemberImportService 가 JDBC 로 갱신하므로 JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "member_import_checkpoint", indexes = @Index(name = "idx_member_import_checkpoint_import_id", columnList = "import_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberImportCheckpoint {
+
+    /** import_id + ":" + segment */
+    @Id
+    private String id;
+
+    @Column(name = "import_id", nullable = false)
+    private String importId;
+
+    @Column(nullable = false)
+    private int segment;
+
+    /** 세그먼트 범위 [start_offset, end_offset) (파일 바이트 위치) */
+    @Column(name = "start_offset", nullable = false)
+    private long startOffset;
+
+    @Column(name = "end_offset", nullable = false)
+    private long endOffset;
+
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    @Column(name = "imported_rows", nullable = false)
+    private long importedRows;
+
+    @Column(name = "rejected_rows", nullable = false)
+    private long rejectedRows;
+
+    public boolean isCompleted() {
+        return committedOffset >= endOffset;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberImportResult {
+
+    private final String importId;
+    /** 이전에 중단된 가져오기를 이어서 했는지 */
+    private final boolean resumed;
+    /** 이번 실행에서 넣은 로우 수 */
+    private final long importedRows;
+    /** 이번 실행에서 형식이 틀려서 건너뛴 줄 수 */
+    private final long rejectedRows;
+    private final int createdTeams;
+    private final long elapsedMillis;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? importedRows * 1000 : importedRows * 1000 / elapsedMillis;
+    }
+}
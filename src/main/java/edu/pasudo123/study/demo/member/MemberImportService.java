@@ -0,0 +1,519 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.config.MemberImportProperties;
+import edu.pasudo123.study.demo.support.InstrumentedThreadPoolExecutor;
+import edu.pasudo123.study.demo.support.QuerydslPager;
+import edu.pasudo123.study.demo.team.Team;
+import edu.pasudo123.study.demo.team.TeamStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMemberImportCheckpoint.memberImportCheckpoint;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+
+/**
+ * member CSV 파일 가져오기 (username,age,team 헤더)
+ *
+ * 파일을 줄 경계에 맞춰 parallelism 개의 세그먼트로 나누고, 세그먼트마다 한 스레드가 메모리 매핑한 윈도우에서 바로 파싱한다.
+ * 파싱한 로우는 chunkSize 건씩 새 트랜잭션(REQUIRES_NEW) 에서 JDBC batch insert 하고, 같은 트랜잭션에서 세그먼트의 체크포인트를 옮긴다.
+ * 중단된 가져오기는 같은 파일(이름, 크기, 수정 시각) 로 다시 호출하면 커밋된 위치 다음 줄부터 이어서 넣는다.
+ *
+ * member id 는 JPA 로 저장하는 member 와 같은 hibernate id 생성기(member_seq 의 pooled 최적화) 에서 받으므로 겹치지 않는다.
+ * 팀 이름은 가져오기 시작 시점의 team 테이블을 읽은 사전으로 id 를 찾고, 없는 팀은 한 번만 만든다.
+ *
+ * 엔티티 이벤트를 거치지 않으므로 청크가 커밋될 때마다 UsernameIndex 를 고치고, 끝나면 team_statistics 와 검색 / count 캐시를 맞춘다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    private static final String INSERT_MEMBER = "INSERT INTO member (id, username, age, team_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CHECKPOINT = "INSERT INTO member_import_checkpoint "
+            + "(id, import_id, segment, start_offset, end_offset, committed_offset, imported_rows, rejected_rows) VALUES (?, ?, ?, ?, ?, ?, 0, 0)";
+    private static final String UPDATE_CHECKPOINT = "UPDATE member_import_checkpoint "
+            + "SET committed_offset = ?, imported_rows = imported_rows + ?, rejected_rows = rejected_rows + ? WHERE id = ?";
+
+    /** 한 번에 매핑하는 크기, 한 줄은 이보다 짧아야 한다. */
+    private static final long WINDOW_SIZE = 64L << 20;
+    private static final long NO_TEAM = 0L;
+    private static final int MAX_REJECTED_LOGS = 10;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatisticsService teamStatisticsService;
+    private final UsernameIndex usernameIndex;
+    private final MemberSearchCache searchCache;
+    private final QuerydslPager pager;
+    private final TransactionTemplate chunkTransaction;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int batchSize;
+    private final InstrumentedThreadPoolExecutor executor;
+
+    public MemberImportService(final EntityManager em,
+                               final JPAQueryFactory queryFactory,
+                               final TeamStatisticsService teamStatisticsService,
+                               final UsernameIndex usernameIndex,
+                               final MemberSearchCache searchCache,
+                               final QuerydslPager pager,
+                               final PlatformTransactionManager transactionManager,
+                               final MemberImportProperties properties) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.teamStatisticsService = teamStatisticsService;
+        this.usernameIndex = usernameIndex;
+        this.searchCache = searchCache;
+        this.pager = pager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = properties.getChunkSize();
+        this.batchSize = properties.getBatchSize();
+        this.executor = new InstrumentedThreadPoolExecutor("member-import", parallelism, parallelism * 2, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 파일 이름, 크기, 수정 시각으로 가져오기를 구분한다. 파일이 바뀌면 처음부터 다시 가져온다.
+     */
+    public MemberImportResult importFile(final Path file) {
+        try {
+            return importFile(file, file.getFileName() + "@" + Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 같은 importId 로 동시에 호출하지 않는다.
+     */
+    public MemberImportResult importFile(final Path file, final String importId) {
+        final long start = System.nanoTime();
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<MemberImportCheckpoint> checkpoints = checkpoints(importId);
+            final boolean resumed = !checkpoints.isEmpty();
+            if(!resumed) {
+                createCheckpoints(importId, channel);
+                checkpoints = checkpoints(importId);
+            } else if(checkpoints.get(checkpoints.size() - 1).getEndOffset() != channel.size()) {
+                throw new IllegalArgumentException("file size changed since the checkpoint : " + importId);
+            }
+
+            final TeamDictionary teams = new TeamDictionary();
+            final Progress progress = new Progress(importId, start);
+            final List<CompletableFuture<SegmentResult>> futures = checkpoints.stream()
+                    .filter(checkpoint -> !checkpoint.isCompleted())
+                    .map(checkpoint -> CompletableFuture.supplyAsync(() -> importSegment(channel, checkpoint, teams, progress), executor))
+                    .collect(Collectors.toList());
+
+            // 실패한 세그먼트가 있어도 나머지 세그먼트가 끝날 때까지 기다린 뒤 실패를 모아서 던진다.
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((ignored, e) -> null).join();
+
+            final List<SegmentResult> results = new ArrayList<>();
+            RuntimeException failure = null;
+            for(CompletableFuture<SegmentResult> future : futures) {
+                try {
+                    results.add(future.join());
+                } catch (CompletionException e) {
+                    final RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                    if(failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if(failure != null) {
+                throw failure;
+            }
+
+            final Set<Long> touchedTeams = new HashSet<>();
+            results.forEach(result -> touchedTeams.addAll(result.teamIds));
+            afterImport(touchedTeams, resumed);
+
+            final MemberImportResult result = new MemberImportResult(importId, resumed,
+                    results.stream().mapToLong(each -> each.importedRows).sum(),
+                    results.stream().mapToLong(each -> each.rejectedRows).sum(),
+                    teams.created.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            log.info("member import finished {}", result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<MemberImportCheckpoint> checkpoints(final String importId) {
+        return queryFactory
+                .selectFrom(memberImportCheckpoint)
+                .where(memberImportCheckpoint.importId.eq(importId))
+                .orderBy(memberImportCheckpoint.segment.asc())
+                .fetch();
+    }
+
+    /**
+     * 헤더를 확인하고, 파일을 줄 경계에 맞춰 parallelism 개 이하의 세그먼트로 나눈다.
+     */
+    private void createCheckpoints(final String importId, final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final long dataStart = lineStart(channel, 0, size);
+        final String header = new String(read(channel, 0, (int) Math.min(dataStart, 1024)), StandardCharsets.UTF_8);
+        if(!MemberCsvParser.isHeader(header)) {
+            throw new IllegalArgumentException("header must be '" + MemberCsvParser.HEADER + "' : " + header.trim());
+        }
+
+        final List<Long> boundaries = new ArrayList<>();
+        boundaries.add(dataStart);
+        for(int i = 1; i < parallelism; i++) {
+            final long boundary = lineStart(channel, dataStart + (size - dataStart) * i / parallelism, size);
+            if(boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                boundaries.add(boundary);
+            }
+        }
+        boundaries.add(size);
+
+        chunkTransaction.executeWithoutResult(status -> em.unwrap(Session.class).doWork(connection -> {
+            try(PreparedStatement insert = connection.prepareStatement(INSERT_CHECKPOINT)) {
+                for(int segment = 0; segment < boundaries.size() - 1; segment++) {
+                    insert.setString(1, importId + ":" + segment);
+                    insert.setString(2, importId);
+                    insert.setInt(3, segment);
+                    insert.setLong(4, boundaries.get(segment));
+                    insert.setLong(5, boundaries.get(segment + 1));
+                    insert.setLong(6, boundaries.get(segment));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }));
+    }
+
+    private SegmentResult importSegment(final FileChannel channel,
+                                        final MemberImportCheckpoint checkpoint,
+                                        final TeamDictionary teams,
+                                        final Progress progress) {
+        final MemberCsvParser parser = new MemberCsvParser();
+        final Chunk chunk = new Chunk(chunkSize);
+        final SegmentResult result = new SegmentResult(checkpoint.getCommittedOffset());
+        final long end = checkpoint.getEndOffset();
+
+        long position = checkpoint.getCommittedOffset();
+        try {
+            while(position < end) {
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, end - position));
+                final boolean lastWindow = position + window.limit() == end;
+
+                while(window.hasRemaining()) {
+                    final MemberCsvParser.Result parsed = parser.next(window, lastWindow);
+                    if(parsed == MemberCsvParser.Result.INCOMPLETE) {
+                        if(window.position() == 0) {
+                            throw new IllegalArgumentException("line is longer than " + WINDOW_SIZE + " bytes at offset " + position);
+                        }
+                        break;
+                    }
+
+                    if(parsed == MemberCsvParser.Result.ROW) {
+                        final long teamId = teams.id(parser.getTeam());
+                        chunk.add(parser.getUsername(), parser.getAge(), teamId);
+                        if(teamId != NO_TEAM) {
+                            result.teamIds.add(teamId);
+                        }
+                    } else if(parsed == MemberCsvParser.Result.REJECTED) {
+                        if(result.rejectedRows + chunk.rejected++ < MAX_REJECTED_LOGS) {
+                            log.warn("member import {} rejected line before offset {}", checkpoint.getImportId(), position + window.position());
+                        }
+                    }
+
+                    if(chunk.size == chunkSize) {
+                        commit(checkpoint, chunk, position + window.position(), result, progress);
+                    }
+                }
+                position += window.position();
+            }
+
+            // 남은 로우가 없어도 끝의 빈 줄까지 읽었음을 남긴다.
+            if(result.committedOffset < end) {
+                commit(checkpoint, chunk, end, result, progress);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 청크를 넣고 체크포인트를 offset 으로 옮긴다. (한 트랜잭션)
+     */
+    private void commit(final MemberImportCheckpoint checkpoint,
+                        final Chunk chunk,
+                        final long offset,
+                        final SegmentResult result,
+                        final Progress progress) {
+        chunkTransaction.executeWithoutResult(status -> {
+            final SessionImplementor session = em.unwrap(SessionImplementor.class);
+            final IdentifierGenerator idGenerator = session.getFactory().getMetamodel()
+                    .entityPersister(Member.class)
+                    .getIdentifierGenerator();
+            for(int i = 0; i < chunk.size; i++) {
+                chunk.ids[i] = (Long) idGenerator.generate(session, null);
+            }
+            session.doWork(connection -> insert(connection, checkpoint, chunk, offset));
+        });
+
+        usernameIndex.putAll(chunk.usernames());
+
+        result.committedOffset = offset;
+        result.importedRows += chunk.size;
+        result.rejectedRows += chunk.rejected;
+        progress.add(chunk.size);
+        chunk.clear();
+    }
+
+    private void insert(final Connection connection, final MemberImportCheckpoint checkpoint, final Chunk chunk, final long offset) throws SQLException {
+        try(PreparedStatement insert = connection.prepareStatement(INSERT_MEMBER)) {
+            for(int i = 0; i < chunk.size; i++) {
+                insert.setLong(1, chunk.ids[i]);
+                insert.setString(2, chunk.usernames[i]);
+                insert.setInt(3, chunk.ages[i]);
+                if(chunk.teamIds[i] == NO_TEAM) {
+                    insert.setNull(4, Types.BIGINT);
+                } else {
+                    insert.setLong(4, chunk.teamIds[i]);
+                }
+                insert.addBatch();
+
+                if((i + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            if(chunk.size % batchSize != 0) {
+                insert.executeBatch();
+            }
+        }
+
+        try(PreparedStatement update = connection.prepareStatement(UPDATE_CHECKPOINT)) {
+            update.setLong(1, offset);
+            update.setLong(2, chunk.size);
+            update.setLong(3, chunk.rejected);
+            update.setString(4, checkpoint.getId());
+            update.executeUpdate();
+        }
+    }
+
+    /**
+     * 이번 실행에서 넣은 팀만 다시 집계한다. 이어서 가져온 경우 이전 실행의 팀을 알 수 없으므로 전체를 재집계한다.
+     */
+    private void afterImport(final Set<Long> touchedTeams, final boolean resumed) {
+        if(resumed) {
+            teamStatisticsService.rebuild();
+        } else {
+            chunkTransaction.executeWithoutResult(status -> teamStatisticsService.refresh(touchedTeams));
+        }
+
+        em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictCollectionData(Team.class.getName() + ".members");
+        searchCache.invalidate();
+        pager.invalidateCounts();
+    }
+
+    /**
+     * offset 이 줄의 시작이면 그대로, 아니면 다음 줄의 시작 (없으면 size)
+     */
+    private static long lineStart(final FileChannel channel, final long offset, final long size) throws IOException {
+        if(offset == 0) {
+            // 헤더 다음 줄
+            return nextLine(channel, 0, size);
+        }
+        return read(channel, offset - 1, 1)[0] == '\n' ? offset : nextLine(channel, offset, size);
+    }
+
+    private static long nextLine(final FileChannel channel, final long offset, final long size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = offset;
+        while(position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            for(int i = 0; i < read; i++) {
+                if(buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte[] read(final FileChannel channel, final long offset, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+            // 끝까지 읽는다.
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 팀 이름 → id 사전
+     * 같은 이름의 팀이 여러 개면 id 가 가장 작은 팀을 쓴다. 없는 팀은 별도 트랜잭션에서 바로 커밋해서, 이어서 가져올 때도 같은 팀을 찾는다.
+     */
+    private class TeamDictionary {
+
+        private final Map<String, Long> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger created = new AtomicInteger();
+
+        TeamDictionary() {
+            for(Tuple tuple : queryFactory
+                    .select(team.name, team.id.min())
+                    .from(team)
+                    .where(team.name.isNotNull())
+                    .groupBy(team.name)
+                    .fetch()) {
+                ids.put(tuple.get(team.name), tuple.get(team.id.min()));
+            }
+        }
+
+        long id(final String name) {
+            if(name == null) {
+                return NO_TEAM;
+            }
+            final Long id = ids.get(name);
+            return id != null ? id : create(name);
+        }
+
+        private synchronized long create(final String name) {
+            final Long existing = ids.get(name);
+            if(existing != null) {
+                return existing;
+            }
+
+            final Long id = chunkTransaction.execute(status -> {
+                final Team newTeam = Team.builder().name(name).build();
+                em.persist(newTeam);
+                return newTeam.getId();
+            });
+            ids.put(name, id);
+            created.incrementAndGet();
+            return id;
+        }
+    }
+
+    private static class Chunk {
+        private final long[] ids;
+        private final String[] usernames;
+        private final int[] ages;
+        private final long[] teamIds;
+        private int size;
+        private long rejected;
+
+        Chunk(final int capacity) {
+            this.ids = new long[capacity];
+            this.usernames = new String[capacity];
+            this.ages = new int[capacity];
+            this.teamIds = new long[capacity];
+        }
+
+        void add(final String username, final int age, final long teamId) {
+            usernames[size] = username;
+            ages[size] = age;
+            teamIds[size] = teamId;
+            size++;
+        }
+
+        Map<Long, String> usernames() {
+            final Map<Long, String> results = new HashMap<>();
+            for(int i = 0; i < size; i++) {
+                results.put(ids[i], usernames[i]);
+            }
+            return results;
+        }
+
+        void clear() {
+            Arrays.fill(usernames, 0, size, null);
+            size = 0;
+            rejected = 0;
+        }
+    }
+
+    private static class SegmentResult {
+        private final Set<Long> teamIds = new HashSet<>();
+        private long committedOffset;
+        private long importedRows;
+        private long rejectedRows;
+
+        SegmentResult(final long committedOffset) {
+            this.committedOffset = committedOffset;
+        }
+    }
+
+    /**
+     * 전체 세그먼트의 진행률을 PROGRESS_INTERVAL 마다 로그로 남긴다.
+     */
+    private static class Progress {
+        private final String importId;
+        private final long start;
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong nextReport;
+
+        Progress(final String importId, final long start) {
+            this.importId = importId;
+            this.start = start;
+            this.nextReport = new AtomicLong(start + PROGRESS_INTERVAL_NANOS);
+        }
+
+        void add(final int count) {
+            rows.add(count);
+            final long now = System.nanoTime();
+            final long report = nextReport.get();
+            if(now >= report && nextReport.compareAndSet(report, now + PROGRESS_INTERVAL_NANOS)) {
+                final long total = rows.sum();
+                log.info("member import {} rows={} rows/s={}", importId, total,
+                        total * TimeUnit.SECONDS.toNanos(1) / Math.max(1, now - start));
+            }
+        }
+    }
+}
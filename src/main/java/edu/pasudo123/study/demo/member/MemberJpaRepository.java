@@ -1,21 +1,67 @@
 package edu.pasudo123.study.demo.member;
 
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.ColumnarQuery;
+import edu.pasudo123.study.demo.support.ColumnarResult;
+import edu.pasudo123.study.demo.support.CursorStreams;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.QuerydslPager;
+import edu.pasudo123.study.demo.support.ReadMode;
+import edu.pasudo123.study.demo.support.StatelessQuery;
+import edu.pasudo123.study.demo.team.Team;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
 
 @Repository
 public class MemberJpaRepository {
 
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    public static final int DEFAULT_CLEAR_INTERVAL = 500;
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchCache searchCache;
+    private final QuerydslPager pager;
+    private final int fetchBatchSize;
 
-    public MemberJpaRepository(final EntityManager em) {
+    public MemberJpaRepository(final EntityManager em,
+                               final JPAQueryFactory queryFactory,
+                               final MemberSearchCache searchCache,
+                               final QuerydslPager pager,
+                               @Value("${demo.fetch-plan.batch-size:100}") final int fetchBatchSize) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = queryFactory;
+        this.searchCache = searchCache;
+        this.pager = pager;
+        this.fetchBatchSize = fetchBatchSize;
     }
 
     public Member save(final Member member) {
@@ -27,6 +73,51 @@ public class MemberJpaRepository {
         }
     }
 
+    /**
+     * 대량 저장
+     * batchSize 건마다 flush 해서 JDBC batch insert 로 내보내고, clear 해서 영속성 컨텍스트가 커지지 않도록 한다.
+     * batchSize 는 hibernate.jdbc.batch_size 와 시퀀스 allocationSize 의 배수로 맞추는 것이 좋다.
+     * 저장한 member 는 준영속 상태로 돌려주며, member.team 은 넘겨받은 팀 객체 그대로 둔다.
+     */
+    public List<Member> saveAll(final List<Member> members) {
+        return saveAll(members, DEFAULT_BATCH_SIZE);
+    }
+
+    public List<Member> saveAll(final List<Member> members, final int batchSize) {
+        final Map<Member, Team> referred = new IdentityHashMap<>();
+
+        for(int i = 0; i < members.size(); i++) {
+            final Member member = members.get(i);
+            final Team team = member.getTeam();
+
+            // 앞선 batch 에서 저장 후 clear 된 팀은 cascade persist 대상이 될 수 없으므로 insert 할 동안만 참조로 바꿔준다.
+            if(team != null && team.getId() != null && !em.contains(team)) {
+                referred.put(member, team);
+                member.referTeam(em.getReference(Team.class, team.getId()));
+            }
+
+            em.persist(member);
+
+            if((i + 1) % batchSize == 0) {
+                flushAndClear(referred);
+            }
+        }
+
+        flushAndClear(referred);
+        return members;
+    }
+
+    /**
+     * insert 가 나간 뒤에는 member 가 준영속이므로 원래 팀으로 되돌려도 DB 에는 반영되지 않는다.
+     */
+    private void flushAndClear(final Map<Member, Team> referred) {
+        em.flush();
+        em.clear();
+
+        referred.forEach(Member::referTeam);
+        referred.clear();
+    }
+
     public void delete(Member member) {
         em.remove(member);
     }
@@ -40,4 +131,331 @@ public class MemberJpaRepository {
         return em.createQuery("SELECT m FROM member m", Member.class)
                 .getResultList();
     }
+
+    /**
+     * fetch plan 에 따라 member.team 을 함께 가져온다. (id 순)
+     */
+    public List<Member> findBy(final Predicate predicate, final FetchPlan plan) {
+        return findBy(predicate, plan, ReadMode.MANAGED);
+    }
+
+    /**
+     * 응답으로만 쓰는 조회는 READ_ONLY / STATELESS 로 스냅샷과 flush 비용을 없앤다.
+     * STATELESS 는 지연 로딩을 할 수 없으므로 plan 과 상관없이 member.team 을 fetch join 한다. (team.members 는 읽을 수 없다.)
+     */
+    public List<Member> findBy(final Predicate predicate, final FetchPlan plan, final ReadMode mode) {
+        if(mode == ReadMode.STATELESS) {
+            return StatelessQuery.fetch(queryFactory
+                    .selectFrom(member)
+                    .leftJoin(member.team, team).fetchJoin()
+                    .where(predicate)
+                    .orderBy(member.id.asc()), em, DEFAULT_FETCH_SIZE);
+        }
+
+        return fetch(queryFactory
+                .selectFrom(member)
+                .where(predicate)
+                .orderBy(member.id.asc()), plan, mode);
+    }
+
+    /**
+     * findAll() 의 스트리밍 버전
+     * getResultList() 로 전체를 힙에 올리지 않고 커서로 fetchSize 만큼씩 읽는다.
+     * 트랜잭션 안에서 호출하고, 다 쓴 스트림은 반드시 close 한다.
+     */
+    public Stream<Member> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE, DEFAULT_CLEAR_INTERVAL);
+    }
+
+    public Stream<Member> streamAll(final int fetchSize, final int clearInterval) {
+        return CursorStreams.of(em.createQuery("SELECT m FROM Member m", Member.class)
+                .unwrap(Query.class)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY), em, clearInterval);
+    }
+
+    /**
+     * selectFrom(member).where(predicate) 를 커서로 읽는다.
+     */
+    public Stream<Member> streamBy(final Predicate predicate, final int fetchSize, final int clearInterval) {
+        return stream(queryFactory
+                .selectFrom(member)
+                .where(predicate), fetchSize, clearInterval);
+    }
+
+    /**
+     * Dto 프로젝션을 커서로 읽는다. Dto 는 영속성 컨텍스트에 쌓이지 않으므로 clear 가 필요없다.
+     * 로우가 많으므로 리플렉션 없는 생성 팩토리(MemberDtoProjection) 를 사용한다.
+     */
+    public Stream<MemberDto> streamMemberDtoBy(final Predicate predicate, final int fetchSize) {
+        return stream(queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .where(predicate), fetchSize, 0);
+    }
+
+    /**
+     * 임의의 Querydsl 쿼리를 커서로 읽는다.
+     * HQLTemplates 를 쓰는 JPAQuery 의 iterate() 는 내부적으로 ScrollableResults(FORWARD_ONLY) 를 사용한다.
+     */
+    public <T> Stream<T> stream(final JPAQuery<T> query, final int fetchSize, final int clearInterval) {
+        return CursorStreams.of(query
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .iterate(), em, clearInterval);
+    }
+
+    /**
+     * 동적 검색 (null 인 조건은 제외)
+     * 팀 이름 조건은 team 별칭(leftJoin(member.team, team)) 을 쓰므로 where(condition) 을 쓰는 쿼리는 모두 그 조인을 건다.
+     */
+    public List<Member> search(final MemberSearchCondition condition, final long offset, final long limit) {
+        return search(where(condition), offset, limit);
+    }
+
+    /**
+     * 동적 검색 페이지 (id 순)
+     * 전체 건수는 QuerydslPager 가 content 로 추론하거나, 캐시하거나, count 쿼리로 구한다.
+     */
+    public Page<MemberDto> searchPage(final MemberSearchCondition condition, final Pageable pageable) {
+        return pager.fetchPage(queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where(condition))
+                .orderBy(member.id.asc()), pageable);
+    }
+
+    /**
+     * 동적 검색 결과를 id 순으로 커서에서 바로 MemberResponse 로 읽는다. (GET /members)
+     * afterId 가 있으면 그 다음 id 부터 읽으므로 끊긴 스트림을 keyset 으로 이어받을 수 있다.
+     * 트랜잭션 안에서 호출하고, 다 쓴 스트림은 반드시 close 한다.
+     */
+    public Stream<MemberResponse> streamResponses(final MemberSearchCondition condition, final Long afterId, final int fetchSize) {
+        return stream(queryFactory
+                .select(new MemberResponseProjection(member.id, member.username, member.age, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where(condition), idAfter(afterId))
+                .orderBy(member.id.asc()), fetchSize, 0);
+    }
+
+    /**
+     * 동적 검색 결과를 컬럼 배열로 읽는다. (분석용, 엔티티나 Tuple 을 만들지 않는다.)
+     * columns 에는 member, team 의 정수 / 문자열 경로나 집계 함수를 쓴다. ex) fetchColumns(condition, member.username, member.age, team.name)
+     * 트랜잭션 안에서 호출한다.
+     */
+    public ColumnarResult fetchColumns(final MemberSearchCondition condition, final Expression<?>... columns) {
+        return ColumnarQuery.fetch(queryFactory
+                .select(columns)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where(condition)), em, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 동적 검색 결과 캐시를 사용하는 검색
+     *
+     * 같은 조건(정규화된 predicate + 페이징) 이면 DB 를 조회하지 않고 캐시된 id 로 엔티티를 가져온다.
+     * 엔티티는 영속성 컨텍스트, 2차 캐시 순으로 찾고 없는 것만 IN 절로 조회하므로 트랜잭션 안에서 호출한다.
+     */
+    public List<Member> search(final Predicate predicate, final long offset, final long limit) {
+        if(!searchCache.isAvailable()) {
+            return loadAll(findIds(predicate, offset, limit));
+        }
+
+        final String key = MemberSearchCache.key(predicate, offset, limit);
+        List<Long> ids = searchCache.get(key);
+        if(ids == null) {
+            final long generation = searchCache.generation();
+            ids = findIds(predicate, offset, limit);
+            searchCache.put(key, generation, ids);
+        }
+
+        return loadAll(ids);
+    }
+
+    private List<Long> findIds(final Predicate predicate, final long offset, final long limit) {
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicate)
+                .orderBy(member.id.asc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    private List<Member> loadAll(final List<Long> ids) {
+        if(ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return em.unwrap(Session.class)
+                .byMultipleIds(Member.class)
+                .enableSessionCheck(true)
+                .multiLoad(ids)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Predicate where(final MemberSearchCondition condition) {
+        return ExpressionUtils.allOf(
+                usernameEq(condition.getUsername()),
+                ageEq(condition.getAge()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()),
+                teamNameEq(condition.getTeamName()));
+    }
+
+    private BooleanExpression usernameEq(final String username) {
+        return (username == null)
+                ? null
+                : member.username.eq(username);
+    }
+
+    private BooleanExpression ageEq(final Integer age) {
+        return (age == null)
+                ? null
+                : member.age.eq(age);
+    }
+
+    private BooleanExpression ageGoe(final Integer ageGoe) {
+        return (ageGoe == null)
+                ? null
+                : member.age.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(final Integer ageLoe) {
+        return (ageLoe == null)
+                ? null
+                : member.age.loe(ageLoe);
+    }
+
+    private BooleanExpression teamNameEq(final String teamName) {
+        return (teamName == null)
+                ? null
+                : team.name.eq(teamName);
+    }
+
+    private BooleanExpression idAfter(final Long afterId) {
+        return (afterId == null)
+                ? null
+                : member.id.gt(afterId);
+    }
+
+    /**
+     * (username, id) 순서의 keyset 페이징
+     * offset 으로 앞의 로우를 읽고 버리는 대신 커서 다음부터 인덱스를 타고 읽기 때문에 N 번째 페이지도 첫 페이지와 비용이 같다.
+     * cursor 가 null 이면 첫 페이지를 조회한다.
+     *
+     * @throws IllegalArgumentException 다른 정렬 키로 만든 커서(MemberCursor.afterAge 등) 를 넘겼을 때
+     */
+    public List<Member> findPageOrderByUsername(final MemberCursor cursor, final int size) {
+        return findPageOrderByUsername(cursor, size, FetchPlan.NONE);
+    }
+
+    public List<Member> findPageOrderByUsername(final MemberCursor cursor, final int size, final FetchPlan plan) {
+        return fetch(queryFactory
+                .selectFrom(member)
+                .where(usernameAfter(cursor))
+                .orderBy(member.username.asc(), member.id.asc())
+                .limit(size), plan);
+    }
+
+    /**
+     * (age, id) 순서의 keyset 페이징
+     *
+     * @throws IllegalArgumentException 다른 정렬 키로 만든 커서(MemberCursor.afterUsername 등) 를 넘겼을 때
+     */
+    public List<Member> findPageOrderByAge(final MemberCursor cursor, final int size) {
+        return findPageOrderByAge(cursor, size, FetchPlan.NONE);
+    }
+
+    public List<Member> findPageOrderByAge(final MemberCursor cursor, final int size, final FetchPlan plan) {
+        return fetch(queryFactory
+                .selectFrom(member)
+                .where(ageAfter(cursor))
+                .orderBy(member.age.asc(), member.id.asc())
+                .limit(size), plan);
+    }
+
+    private List<Member> fetch(final JPAQuery<Member> query, final FetchPlan plan) {
+        return fetch(query, plan, ReadMode.MANAGED);
+    }
+
+    /**
+     * member.team 은 ToOne 이므로 entity graph 로 fetch join 해도 로우 수가 늘지 않고, limit 도 DB 에서 처리된다.
+     */
+    private List<Member> fetch(final JPAQuery<Member> query, final FetchPlan plan, final ReadMode mode) {
+        if(plan == FetchPlan.ENTITY_GRAPH) {
+            query.setHint(QueryHints.HINT_FETCHGRAPH, em.getEntityGraph(Member.WITH_TEAM));
+        }
+
+        final List<Member> members = readMode(query, mode).fetch();
+
+        if(plan == FetchPlan.BATCH) {
+            fetchTeams(members, mode);
+        }
+        return members;
+    }
+
+    /**
+     * READ_ONLY : 쿼리로 로딩한 엔티티(fetch join 포함) 를 읽기 전용으로 두고, 쿼리 전에 영속성 컨텍스트 전체를 dirty checking 하는 auto flush 를 건너뛴다.
+     */
+    private <T> JPAQuery<T> readMode(final JPAQuery<T> query, final ReadMode mode) {
+        if(mode == ReadMode.READ_ONLY) {
+            query.setHint(QueryHints.HINT_READONLY, true)
+                    .setFlushMode(FlushModeType.COMMIT);
+        }
+        return query;
+    }
+
+    /**
+     * 초기화되지 않은 member.team 프록시의 id 를 모아서 IN 절로 가져온다.
+     * 팀이 영속성 컨텍스트에 올라오면 프록시는 SQL 없이 초기화된다.
+     */
+    private void fetchTeams(final List<Member> members, final ReadMode mode) {
+        final PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        final List<Long> teamIds = members.stream()
+                .map(Member::getTeam)
+                .filter(each -> each != null && !Hibernate.isInitialized(each))
+                .map(each -> (Long) persistenceUnitUtil.getIdentifier(each))
+                .distinct()
+                .collect(Collectors.toList());
+
+        for(List<Long> ids : FetchPlan.partition(teamIds, fetchBatchSize)) {
+            readMode(queryFactory
+                    .selectFrom(team)
+                    .where(team.id.in(ids)), mode)
+                    .fetch();
+        }
+    }
+
+    private BooleanExpression usernameAfter(final MemberCursor cursor) {
+        if(cursor == null) {
+            return null;
+        }
+        if(cursor.getUsername() == null || cursor.getId() == null) {
+            throw new IllegalArgumentException("cursor is not ordered by username : " + cursor);
+        }
+
+        // (username, id) > (:username, :id)
+        return member.username.gt(cursor.getUsername())
+                .or(member.username.eq(cursor.getUsername()).and(member.id.gt(cursor.getId())));
+    }
+
+    private BooleanExpression ageAfter(final MemberCursor cursor) {
+        if(cursor == null) {
+            return null;
+        }
+        if(cursor.getAge() == null || cursor.getId() == null) {
+            throw new IllegalArgumentException("cursor is not ordered by age : " + cursor);
+        }
+
+        // (age, id) > (:age, :id)
+        return member.age.gt(cursor.getAge())
+                .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getId())));
+    }
 }
@@ -0,0 +1,29 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * GET /members 응답의 한 줄
+ * cursor 를 다음 요청의 after 로 넘기면 이 회원 다음부터 이어서 받는다.
+ */
+@Getter
+@ToString
+public class MemberResponse {
+
+    private Long id;
+    private String username;
+    private int age;
+    private String teamName;
+
+    public MemberResponse(Long id, String username, int age, String teamName) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+
+    public String getCursor() {
+        return MemberContinuationToken.encode(id);
+    }
+}
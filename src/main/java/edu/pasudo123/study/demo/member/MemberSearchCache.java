@@ -0,0 +1,92 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.types.Predicate;
+import edu.pasudo123.study.demo.support.LruCache;
+import edu.pasudo123.study.demo.support.PredicateCanonicalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동적 검색 결과 캐시
+ *
+ * 키는 정규화된 where 조건 + 페이징이고, 값은 검색된 member id 목록이다. (엔티티는 2차 캐시에서 가져온다.)
+ * member 테이블에 insert / update / delete 가 실행되면 전체를 비우고, 그 트랜잭션이 끝날 때 한 번 더 비운다.
+ * 커밋되지 않은 데이터가 다른 트랜잭션에 보이지 않도록, member 를 변경한 트랜잭션 안에서는 캐시를 사용하지 않는다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private static final String WRITE_RESOURCE_KEY = MemberSearchCache.class.getName() + ".WRITE";
+
+    private final LruCache<String, List<Long>> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MemberSearchCache(@Value("${demo.search-cache.maximum-size:1000}") final int maximumSize) {
+        this.cache = new LruCache<>(maximumSize);
+    }
+
+    public static String key(final Predicate predicate, final long offset, final long limit) {
+        return PredicateCanonicalizer.canonicalize(predicate) + "|offset=" + offset + "|limit=" + limit;
+    }
+
+    public boolean isAvailable() {
+        return !TransactionSynchronizationManager.hasResource(WRITE_RESOURCE_KEY);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public List<Long> get(final String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * 조회를 시작한 뒤 member 변경이 있었다면(generation 이 바뀌었다면) 저장하지 않는다.
+     * generation 확인과 저장 사이에 invalidate() 가 끼어들지 않도록 같은 락 안에서 한다.
+     */
+    public synchronized void put(final String key, final long generationAtQuery, final List<Long> ids) {
+        if(generation.get() == generationAtQuery) {
+            cache.put(key, ids);
+        }
+    }
+
+    /**
+     * member 테이블 변경 SQL 이 실행될 때 호출된다.
+     */
+    public void onMemberWrite() {
+        invalidate();
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(WRITE_RESOURCE_KEY)) {
+            TransactionSynchronizationManager.bindResource(WRITE_RESOURCE_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_RESOURCE_KEY);
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+
+    public LruCache.Statistics statistics() {
+        return cache.statistics();
+    }
+
+    public long invalidations() {
+        return invalidations.get();
+    }
+}
@@ -0,0 +1,22 @@
+package edu.pasudo123.study.demo.member;
+
+import lombok.*;
+
+/**
+ * 동적 검색 조건
+ * null 인 필드는 where 절에서 제외된다.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberSearchCondition {
+
+    private String username;
+    private Integer age;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private String teamName;
+}
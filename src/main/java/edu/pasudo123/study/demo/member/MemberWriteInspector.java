@@ -0,0 +1,40 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.support.QuerydslPager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * member 테이블을 변경하는 SQL 을 감지해서 검색 캐시를 비우고, member / team 을 변경하는 SQL 이면 페이징 count 캐시를 비운다.
+ * em.persist / remove / dirty checking 뿐 아니라 querydsl 벌크 update / delete 도 여기를 지나간다.
+ * JDBC 로 직접 쓰는 경로(MemberImportService) 는 여기를 지나가지 않으므로 직접 비운다.
+ */
+@Component
+public class MemberWriteInspector implements StatementInspector {
+
+    private static final Pattern MEMBER_WRITE = Pattern.compile(
+            "^\\s*(insert\\s+into|update|delete\\s+from)\\s+member\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TEAM_WRITE = Pattern.compile(
+            "^\\s*(insert\\s+into|update|delete\\s+from)\\s+team\\b", Pattern.CASE_INSENSITIVE);
+
+    private final MemberSearchCache memberSearchCache;
+    private final QuerydslPager pager;
+
+    public MemberWriteInspector(final MemberSearchCache memberSearchCache, final QuerydslPager pager) {
+        this.memberSearchCache = memberSearchCache;
+        this.pager = pager;
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        if(MEMBER_WRITE.matcher(sql).find()) {
+            memberSearchCache.onMemberWrite();
+            pager.onWrite();
+        } else if(TEAM_WRITE.matcher(sql).find()) {
+            pager.onWrite();
+        }
+        return sql;
+    }
+}
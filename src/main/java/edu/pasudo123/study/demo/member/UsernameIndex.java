@@ -0,0 +1,330 @@
+package edu.pasudo123.study.demo.member;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+
+/**
+ * username 자동완성 / 부분 검색용 메모리 인덱스
+ *
+ * 정렬된 username → member id 맵(ConcurrentSkipListMap) 에서 prefix 범위만 잘라 읽고,
+ * 부분 검색은 username 의 3-gram → username 역색인에서 가장 작은 후보 집합만 확인한다.
+ * DB 를 거치지 않으므로 결과 수(limit) 에 비례하는 시간에 답한다. (대소문자를 구분하는 startsWith / contains 와 같은 결과)
+ *
+ * 커밋된 persist / update / remove 는 hibernate post-commit 이벤트로 반영하고,
+ * 엔티티 이벤트가 없는 벌크 연산은 MemberBulkService 가 refresh 로 반영한다.
+ * 그 밖의 JPQL / native 벌크 변경은 rebuild 로 다시 읽는다.
+ * 읽기는 잠금 없이, 쓰기는 username / 3-gram 두 인덱스를 함께 바꾸도록 직렬화한다.
+ * rebuild 는 새 인덱스를 따로 채운 뒤 volatile 참조 하나로 바꿔 끼우므로, 다시 읽는 동안에도 조회는 기존 인덱스로 답한다.
+ */
+@Slf4j
+@Component
+public class UsernameIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final int GRAM = 3;
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readTransaction;
+
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot();
+    /** DB 를 읽는 중인 refresh / rebuild 마다 그 사이에 바뀐 member id 를 모은다. (this 로 잠근다.) */
+    private final List<Set<Long>> changeCollectors = new ArrayList<>();
+
+    public UsernameIndex(final JPAQueryFactory queryFactory, final PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * prefix 로 시작하는 username 을 사전 순으로 limit 개까지 돌려준다.
+     */
+    public List<String> autocomplete(final String prefix, final int limit) {
+        final ConcurrentSkipListMap<String, Set<Long>> ids = snapshot.ids;
+        final NavigableMap<String, Set<Long>> range = prefix.isEmpty()
+                ? ids
+                : ids.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+
+        final List<String> results = new ArrayList<>(Math.min(limit, 64));
+        for(String username : range.keySet()) {
+            if(results.size() >= limit) {
+                break;
+            }
+            results.add(username);
+        }
+        return results;
+    }
+
+    /**
+     * prefix 로 시작하는 username 을 가진 member id (username, id 순)
+     */
+    public List<Long> findIdsByPrefix(final String prefix, final int limit) {
+        final List<Long> results = new ArrayList<>(Math.min(limit, 64));
+        for(Set<Long> each : snapshot.ids.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for(Long id : new TreeSet<>(each)) {
+                if(results.size() >= limit) {
+                    return results;
+                }
+                results.add(id);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * keyword 를 포함하는 username 을 사전 순으로 limit 개까지 돌려준다.
+     * keyword 가 3글자보다 짧으면 3-gram 을 쓸 수 없으므로 전체 username 을 훑는다.
+     */
+    public List<String> searchContaining(final String keyword, final int limit) {
+        final Snapshot current = snapshot;
+        final Collection<String> candidates = keyword.length() < GRAM ? current.ids.keySet() : current.smallestCandidates(keyword);
+
+        final TreeSet<String> results = new TreeSet<>();
+        for(String username : candidates) {
+            if(username.contains(keyword)) {
+                results.add(username);
+                if(results.size() > limit) {
+                    results.pollLast();
+                }
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    public int size() {
+        return snapshot.usernames.size();
+    }
+
+    /**
+     * 엔티티 이벤트 없이 커밋된 member 의 id → username 을 DB 를 다시 읽지 않고 그대로 넣는다. (MemberImportService)
+     */
+    public synchronized void putAll(final Map<Long, String> usernames) {
+        usernames.forEach(this::put);
+    }
+
+    /**
+     * 주어진 member 만 DB 에서 다시 읽는다. 없어진 member 는 인덱스에서 뺀다.
+     * 읽는 동안 post-commit 이벤트로 바뀐 member 는 이벤트의 값이 더 새로우므로 읽은 값으로 덮어쓰지 않는다.
+     */
+    public void refresh(final Collection<Long> memberIds) {
+        if(memberIds.isEmpty()) {
+            return;
+        }
+
+        final Set<Long> changed = collectChanges();
+        try {
+            final Map<Long, String> found = new HashMap<>();
+            readTransaction.executeWithoutResult(status -> {
+                for(Tuple tuple : queryFactory
+                        .select(member.id, member.username)
+                        .from(member)
+                        .where(member.id.in(memberIds))
+                        .fetch()) {
+                    found.put(tuple.get(member.id), tuple.get(member.username));
+                }
+            });
+
+            synchronized(this) {
+                for(Long id : memberIds) {
+                    if(!changed.contains(id)) {
+                        put(id, found.get(id));
+                    }
+                }
+            }
+        } finally {
+            stopCollecting(changed);
+        }
+    }
+
+    /**
+     * member 테이블 전체를 커서로 새 인덱스에 다시 읽고 바꿔 끼운다.
+     * 읽는 동안 바뀐 member 는 기존 인덱스의 값이 더 새로우므로 바꿔 끼우기 전에 새 인덱스로 옮긴다.
+     */
+    public void rebuild() {
+        synchronized(rebuildLock) {
+            final Set<Long> changed = collectChanges();
+            final Snapshot next = new Snapshot();
+            try {
+                readTransaction.executeWithoutResult(status -> {
+                    final CloseableIterator<Tuple> rows = queryFactory
+                            .select(member.id, member.username)
+                            .from(member)
+                            .setHint(QueryHints.HINT_FETCH_SIZE, LOAD_FETCH_SIZE)
+                            .iterate();
+                    try {
+                        while(rows.hasNext()) {
+                            final Tuple tuple = rows.next();
+                            next.put(tuple.get(member.id), tuple.get(member.username));
+                        }
+                    } finally {
+                        rows.close();
+                    }
+                });
+
+                synchronized(this) {
+                    for(Long id : changed) {
+                        next.put(id, snapshot.usernames.get(id));
+                    }
+                    snapshot = next;
+                }
+            } finally {
+                stopCollecting(changed);
+            }
+            log.info("username index rebuilt, members={} usernames={} grams={}", next.usernames.size(), next.ids.size(), next.grams.size());
+        }
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if(event.getEntity() instanceof Member) {
+            put((Long) event.getId(), ((Member) event.getEntity()).getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if(event.getEntity() instanceof Member) {
+            put((Long) event.getId(), ((Member) event.getEntity()).getUsername());
+        }
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if(event.getEntity() instanceof Member) {
+            put((Long) event.getId(), null);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(final PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(final PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(final PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return Member.class.equals(persister.getMappedClass());
+    }
+
+    /**
+     * @param username null 이면 member 를 인덱스에서 뺀다.
+     */
+    private synchronized void put(final Long id, final String username) {
+        snapshot.put(id, username);
+        for(Set<Long> changed : changeCollectors) {
+            changed.add(id);
+        }
+    }
+
+    private synchronized Set<Long> collectChanges() {
+        final Set<Long> changed = new HashSet<>();
+        changeCollectors.add(changed);
+        return changed;
+    }
+
+    private synchronized void stopCollecting(final Set<Long> changed) {
+        // 내용이 같은 다른 집합을 지우지 않도록 참조로 비교한다.
+        changeCollectors.removeIf(each -> each == changed);
+    }
+
+    private static Set<String> grams(final String value) {
+        final Set<String> results = new HashSet<>();
+        for(int i = 0; i + GRAM <= value.length(); i++) {
+            results.add(value.substring(i, i + GRAM));
+        }
+        return results;
+    }
+
+    /**
+     * id → username, username → id, 3-gram → username 세 인덱스
+     * 현재 인덱스는 UsernameIndex 의 잠금 안에서만 쓰고, rebuild 중인 새 인덱스는 바꿔 끼우기 전까지 rebuild 스레드만 쓴다.
+     */
+    private static class Snapshot {
+
+        private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Set<Long>> ids = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+        void put(final Long id, final String username) {
+            final String previous = username == null ? usernames.remove(id) : usernames.put(id, username);
+            if(Objects.equals(previous, username)) {
+                return;
+            }
+
+            if(previous != null) {
+                final Set<Long> previousIds = ids.get(previous);
+                previousIds.remove(id);
+                if(previousIds.isEmpty()) {
+                    ids.remove(previous);
+                    for(String gram : grams(previous)) {
+                        final Set<String> each = grams.get(gram);
+                        each.remove(previous);
+                        if(each.isEmpty()) {
+                            grams.remove(gram);
+                        }
+                    }
+                }
+            }
+
+            if(username != null) {
+                final boolean added = !ids.containsKey(username);
+                ids.computeIfAbsent(username, key -> ConcurrentHashMap.newKeySet()).add(id);
+                if(added) {
+                    for(String gram : grams(username)) {
+                        grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(username);
+                    }
+                }
+            }
+        }
+
+        Collection<String> smallestCandidates(final String keyword) {
+            Set<String> smallest = null;
+            for(String gram : grams(keyword)) {
+                final Set<String> candidates = grams.get(gram);
+                if(candidates == null) {
+                    return Collections.emptySet();
+                }
+                if(smallest == null || candidates.size() < smallest.size()) {
+                    smallest = candidates;
+                }
+            }
+            return smallest;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * MemberDto, UserDto, MemberResponse 는 querydsl 어노테이션 없이 ProjectionProcessor 가 리플렉션 없는 프로젝션 팩토리를 생성한다.
+ * ex) queryFactory.select(new MemberDtoProjection(member.username, member.age)).from(member)
+ */
+@GenerateProjections({MemberDto.class, UserDto.class, MemberResponse.class})
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.projection.GenerateProjections;
@@ -0,0 +1,135 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 고정 크기 direct 버퍼 하나를 재사용하면서 FileChannel 에 쓴다.
+ * 숫자는 문자열을 만들지 않고 버퍼에 바로 쓰고, 문자열은 재사용하는 CharsetEncoder 로 버퍼에 바로 인코딩한다.
+ */
+final class ChannelOutput implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final byte[] digits = new byte[20];
+    private long bytes;
+
+    ChannelOutput(final Path file, final int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void put(final byte value) throws IOException {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    void putShort(final short value) throws IOException {
+        ensure(2);
+        buffer.putShort(value);
+    }
+
+    void putInt(final int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    void putLong(final long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    void put(final byte[] values, final int offset, final int length) throws IOException {
+        int written = 0;
+        while(written < length) {
+            ensure(1);
+            final int chunk = Math.min(buffer.remaining(), length - written);
+            buffer.put(values, offset + written, chunk);
+            written += chunk;
+        }
+    }
+
+    void put(final ByteBuffer values) throws IOException {
+        while(values.hasRemaining()) {
+            ensure(1);
+            final int limit = values.limit();
+            values.limit(values.position() + Math.min(buffer.remaining(), values.remaining()));
+            buffer.put(values);
+            values.limit(limit);
+        }
+    }
+
+    /**
+     * 10진수 ASCII
+     */
+    void putDecimal(final long value) throws IOException {
+        if(value == Long.MIN_VALUE) {
+            putUtf8(Long.toString(value));
+            return;
+        }
+
+        long remaining = Math.abs(value);
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while(remaining != 0);
+        if(value < 0) {
+            digits[--position] = '-';
+        }
+        put(digits, position, digits.length - position);
+    }
+
+    void putUtf8(final CharSequence value) throws IOException {
+        final CharBuffer chars = CharBuffer.wrap(value);
+        encoder.reset();
+
+        CoderResult result;
+        while((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+            drain();
+        }
+        if(result.isError()) {
+            result.throwException();
+        }
+        while(encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    long getBytes() {
+        return bytes + buffer.position();
+    }
+
+    private void ensure(final int size) throws IOException {
+        if(buffer.remaining() < size) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
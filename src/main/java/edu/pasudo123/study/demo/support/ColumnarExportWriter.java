@@ -0,0 +1,166 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 블록 단위 컬럼 배열 형식 (빅 엔디언)
+ *
+ * 헤더 : "MCOL", 버전(int), 컬럼 수(int), 컬럼마다 타입(byte, TableExport.ColumnType 순서) + 이름 길이(short) + 이름(ASCII)
+ * 블록 : 로우 수(int), 컬럼마다 null 비트맵(ceil(로우 수 / 8) bytes) + 값
+ *        LONG 은 8 bytes, INT 는 4 bytes, STRING 은 길이(int) 배열 뒤에 UTF-8 바이트를 이어 쓴다.
+ * 끝   : 로우 수 0
+ *
+ * 블록 버퍼(컬럼 배열) 는 blockRows 크기로 한 번만 만들고 블록마다 재사용한다.
+ */
+class ColumnarExportWriter implements ExportWriter {
+
+    static final byte[] MAGIC = {'M', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final List<TableExport.Column> columns;
+    private final ChannelOutput output;
+    private final int blockRows;
+
+    private final byte[][] nulls;
+    private final long[][] longs;
+    private final int[][] ints;
+    private final ByteBuffer[] strings;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private int rows;
+
+    ColumnarExportWriter(final TableExport table, final ChannelOutput output, final int blockRows) throws IOException {
+        this.columns = table.getColumns();
+        this.output = output;
+        this.blockRows = blockRows;
+
+        final int size = columns.size();
+        this.nulls = new byte[size][(blockRows + 7) / 8];
+        this.longs = new long[size][];
+        this.ints = new int[size][];
+        this.strings = new ByteBuffer[size];
+
+        output.put(MAGIC, 0, MAGIC.length);
+        output.putInt(VERSION);
+        output.putInt(size);
+        for(int i = 0; i < size; i++) {
+            final TableExport.Column column = columns.get(i);
+            if(column.getType() == TableExport.ColumnType.LONG) {
+                longs[i] = new long[blockRows];
+            } else {
+                // STRING 은 길이를 ints 에 둔다.
+                ints[i] = new int[blockRows];
+            }
+            if(column.getType() == TableExport.ColumnType.STRING) {
+                strings[i] = ByteBuffer.allocate(blockRows * 16);
+            }
+
+            final byte[] name = column.getName().getBytes(StandardCharsets.US_ASCII);
+            output.put((byte) column.getType().ordinal());
+            output.putShort((short) name.length);
+            output.put(name, 0, name.length);
+        }
+    }
+
+    @Override
+    public void write(final ResultSet resultSet) throws SQLException, IOException {
+        for(int i = 0; i < columns.size(); i++) {
+            final TableExport.ColumnType type = columns.get(i).getType();
+            boolean isNull;
+
+            if(type == TableExport.ColumnType.LONG) {
+                longs[i][rows] = resultSet.getLong(i + 1);
+                isNull = resultSet.wasNull();
+            } else if(type == TableExport.ColumnType.INT) {
+                ints[i][rows] = resultSet.getInt(i + 1);
+                isNull = resultSet.wasNull();
+            } else {
+                final String value = resultSet.getString(i + 1);
+                isNull = value == null;
+                ints[i][rows] = isNull ? -1 : encode(i, value);
+            }
+
+            if(isNull) {
+                nulls[i][rows >> 3] |= 1 << (rows & 7);
+            }
+        }
+
+        if(++rows == blockRows) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushBlock();
+        output.putInt(0);
+    }
+
+    /**
+     * @return 인코딩된 바이트 수
+     */
+    private int encode(final int column, final String value) throws CharacterCodingException {
+        final CharBuffer chars = CharBuffer.wrap(value);
+        final int start = strings[column].position();
+        encoder.reset();
+
+        CoderResult result;
+        while((result = encoder.encode(chars, strings[column], true)).isOverflow()) {
+            grow(column);
+        }
+        if(result.isError()) {
+            result.throwException();
+        }
+        while(encoder.flush(strings[column]).isOverflow()) {
+            grow(column);
+        }
+        return strings[column].position() - start;
+    }
+
+    private void grow(final int column) {
+        final ByteBuffer grown = ByteBuffer.allocate(strings[column].capacity() * 2);
+        strings[column].flip();
+        grown.put(strings[column]);
+        strings[column] = grown;
+    }
+
+    private void flushBlock() throws IOException {
+        if(rows == 0) {
+            return;
+        }
+
+        output.putInt(rows);
+        final int bitmapLength = (rows + 7) / 8;
+        for(int i = 0; i < columns.size(); i++) {
+            output.put(nulls[i], 0, bitmapLength);
+            Arrays.fill(nulls[i], 0, bitmapLength, (byte) 0);
+
+            final TableExport.ColumnType type = columns.get(i).getType();
+            if(type == TableExport.ColumnType.LONG) {
+                for(int row = 0; row < rows; row++) {
+                    output.putLong(longs[i][row]);
+                }
+            } else {
+                for(int row = 0; row < rows; row++) {
+                    output.putInt(ints[i][row]);
+                }
+            }
+
+            if(type == TableExport.ColumnType.STRING) {
+                strings[i].flip();
+                output.put(strings[i]);
+                strings[i].clear();
+            }
+        }
+        rows = 0;
+    }
+}
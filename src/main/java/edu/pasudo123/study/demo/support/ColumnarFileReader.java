@@ -0,0 +1,159 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ExportFormat.COLUMNAR 파일을 메모리 매핑해서 블록 단위로 읽는다.
+ * 형식은 ColumnarExportWriter 를 참고한다. 파일 하나는 2GB 를 넘을 수 없다.
+ */
+public class ColumnarFileReader implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<TableExport.Column> columns;
+    private boolean finished;
+
+    public ColumnarFileReader(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        final byte[] magic = new byte[ColumnarExportWriter.MAGIC.length];
+        buffer.get(magic);
+        if(!Arrays.equals(magic, ColumnarExportWriter.MAGIC) || buffer.getInt() != ColumnarExportWriter.VERSION) {
+            channel.close();
+            throw new IllegalArgumentException("not a columnar export file : " + file);
+        }
+
+        final int size = buffer.getInt();
+        final List<TableExport.Column> columns = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            final TableExport.ColumnType type = TableExport.ColumnType.values()[buffer.get()];
+            final byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            columns.add(new TableExport.Column(new String(name, StandardCharsets.US_ASCII), type));
+        }
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public List<TableExport.Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return 다음 블록, 없으면 null
+     */
+    public Block next() {
+        if(finished) {
+            return null;
+        }
+
+        final int rows = buffer.getInt();
+        if(rows == 0) {
+            finished = true;
+            return null;
+        }
+
+        final Block block = new Block(rows);
+        for(int i = 0; i < columns.size(); i++) {
+            final byte[] bitmap = new byte[(rows + 7) / 8];
+            buffer.get(bitmap);
+            block.nulls[i] = BitSet.valueOf(bitmap);
+
+            final TableExport.ColumnType type = columns.get(i).getType();
+            if(type == TableExport.ColumnType.LONG) {
+                final long[] values = new long[rows];
+                buffer.asLongBuffer().get(values);
+                buffer.position(buffer.position() + rows * 8);
+                block.values[i] = values;
+            } else {
+                final int[] values = new int[rows];
+                buffer.asIntBuffer().get(values);
+                buffer.position(buffer.position() + rows * 4);
+                block.values[i] = type == TableExport.ColumnType.INT ? values : strings(values);
+            }
+        }
+        return block;
+    }
+
+    private String[] strings(final int[] lengths) {
+        final String[] values = new String[lengths.length];
+        final ByteBuffer data = buffer.duplicate();
+        for(int row = 0; row < lengths.length; row++) {
+            if(lengths[row] < 0) {
+                continue;
+            }
+            data.limit(data.position() + lengths[row]);
+            values[row] = StandardCharsets.UTF_8.decode(data).toString();
+            data.limit(data.capacity());
+        }
+        buffer.position(data.position());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public class Block {
+
+        private final int rows;
+        private final BitSet[] nulls;
+        private final Object[] values;
+
+        Block(final int rows) {
+            this.rows = rows;
+            this.nulls = new BitSet[columns.size()];
+            this.values = new Object[columns.size()];
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public boolean isNull(final String column, final int row) {
+            return nulls[index(column)].get(row);
+        }
+
+        public long[] getLongs(final String column) {
+            return (long[]) values[index(column, TableExport.ColumnType.LONG)];
+        }
+
+        public int[] getInts(final String column) {
+            return (int[]) values[index(column, TableExport.ColumnType.INT)];
+        }
+
+        public String[] getStrings(final String column) {
+            return (String[]) values[index(column, TableExport.ColumnType.STRING)];
+        }
+
+        private int index(final String column, final TableExport.ColumnType type) {
+            final int index = index(column);
+            if(columns.get(index).getType() != type) {
+                throw new IllegalArgumentException(column + " is " + columns.get(index).getType());
+            }
+            return index;
+        }
+
+        private int index(final String column) {
+            for(int i = 0; i < columns.size(); i++) {
+                if(columns.get(i).getName().equals(column)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("no column : " + column);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.hql.internal.ast.QueryTranslatorImpl;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.hibernate.param.ParameterSpecification;
+import org.hibernate.param.PositionalParameterSpecification;
+import org.hibernate.type.Type;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * querydsl 프로젝션 쿼리를 컬럼 단위 배열(ColumnarResult) 로 읽는다.
+ *
+ * fetch() 는 로우마다 Tuple, Object[], Integer 를 만들지만, 여기서는 JPQL 을 hibernate 가 번역한 SQL 을 직접 실행해서
+ * ResultSet 의 값을 int[] / long[] / double[] 과 사전 인코딩된 문자열 컬럼에 바로 담는다.
+ * 엔티티를 만들지 않으므로 영속성 컨텍스트와 2차 캐시를 거치지 않는다.
+ *
+ * 프로젝션은 정수, 실수, 문자열 타입의 식(경로, 집계 함수) 만 사용할 수 있고, in 절처럼 컬렉션을 바인딩하는 조건은 지원하지 않는다.
+ */
+public final class ColumnarQuery {
+
+    private ColumnarQuery() {
+    }
+
+    public static ColumnarResult fetch(final JPAQuery<?> query, final EntityManager em, final int fetchSize) {
+        final QueryMetadata metadata = query.getMetadata();
+        final List<Expression<?>> columns = columns(metadata.getProjection());
+        if(!metadata.getParams().isEmpty()) {
+            throw new IllegalArgumentException("columnar query does not support param expressions");
+        }
+
+        final JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT, em);
+        serializer.serialize(metadata, false, null);
+        final Object[] constants = constants(serializer.getConstantToLabel());
+
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+        final QueryTranslatorImpl translator = translator(session, serializer.toString());
+
+        // 자동 flush 는 HQL 실행 경로에서만 일어나므로, 같은 트랜잭션에서 바꾼 내용이 보이도록 먼저 flush 한다.
+        if(TransactionSynchronizationManager.isActualTransactionActive() && session.getHibernateFlushMode() == FlushMode.AUTO) {
+            session.flush();
+        }
+
+        final ColumnarResult.Builder builder = new ColumnarResult.Builder(columns);
+        final QueryModifiers modifiers = metadata.getModifiers();
+        final long offset = modifiers.getOffset() == null ? 0 : modifiers.getOffset();
+
+        QueryOrigin.QUERYDSL.execute(() -> {
+            session.doWork(connection -> {
+                try(PreparedStatement statement = connection.prepareStatement(translator.getSQLString())) {
+                    bind(statement, translator.getCollectedParameterSpecifications(), constants, session);
+                    statement.setFetchSize(fetchSize);
+                    if(modifiers.getLimit() != null) {
+                        statement.setMaxRows((int) Math.min(Integer.MAX_VALUE, offset + modifiers.getLimit()));
+                    }
+
+                    try(ResultSet resultSet = statement.executeQuery()) {
+                        long skipped = 0;
+                        while(resultSet.next()) {
+                            if(skipped++ < offset) {
+                                continue;
+                            }
+                            builder.add(resultSet);
+                        }
+                    }
+                }
+            });
+            return null;
+        });
+
+        return builder.build();
+    }
+
+    private static List<Expression<?>> columns(final Expression<?> projection) {
+        if(projection == null) {
+            throw new IllegalArgumentException("columnar query requires a projection");
+        }
+        return projection instanceof FactoryExpression
+                ? ((FactoryExpression<?>) projection).getArgs()
+                : Collections.singletonList(projection);
+    }
+
+    /**
+     * JPQLSerializer 는 상수를 ?1, ?2 ... 라벨로 직렬화한다.
+     */
+    private static Object[] constants(final Map<Object, String> constantToLabel) {
+        final Object[] constants = new Object[constantToLabel.size() + 1];
+        for(Map.Entry<Object, String> entry : constantToLabel.entrySet()) {
+            if(entry.getKey() instanceof Collection) {
+                throw new IllegalArgumentException("columnar query does not support collection parameters : " + entry.getValue());
+            }
+            constants[Integer.parseInt(entry.getValue())] = entry.getKey();
+        }
+        return constants;
+    }
+
+    private static QueryTranslatorImpl translator(final SessionImplementor session, final String jpql) {
+        final HQLQueryPlan plan = session.getFactory().getQueryPlanCache().getHQLQueryPlan(jpql, false, Collections.emptyMap());
+        final QueryTranslator[] translators = plan.getTranslators();
+        if(translators.length != 1 || !(translators[0] instanceof QueryTranslatorImpl)) {
+            throw new IllegalArgumentException("columnar query requires a single sql statement : " + jpql);
+        }
+        return (QueryTranslatorImpl) translators[0];
+    }
+
+    /**
+     * SQL 의 파라미터 순서대로 JPQL 라벨의 상수를 바인딩한다.
+     */
+    private static void bind(final PreparedStatement statement,
+                             final List<ParameterSpecification> specifications,
+                             final Object[] constants,
+                             final SessionImplementor session) throws SQLException {
+        int position = 1;
+        for(ParameterSpecification specification : specifications) {
+            if(!(specification instanceof PositionalParameterSpecification)) {
+                throw new IllegalArgumentException("unsupported parameter : " + specification.renderDisplayInfo());
+            }
+
+            final Object value = constants[((PositionalParameterSpecification) specification).getLabel()];
+            final Type type = specification.getExpectedType();
+            if(type == null) {
+                statement.setObject(position++, value);
+            } else {
+                type.nullSafeSet(statement, value, position, session);
+                position += type.getColumnSpan(session.getFactory());
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.core.types.Expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ColumnarQuery 결과
+ *
+ * 프로젝션 식마다 하나의 컬럼 배열을 가진다. 로우 i 의 값은 각 컬럼의 i 번째 원소다.
+ * 정수(byte, short, int) 는 int[], long 은 long[], 실수는 double[], 문자열은 사전 코드 int[] 로 담고 null 은 BitSet 으로 표시한다.
+ * 집계 함수는 null 인 로우를 건너뛴다.
+ */
+public class ColumnarResult {
+
+    private final int size;
+    private final Map<Expression<?>, Column> columns;
+
+    private ColumnarResult(final int size, final Map<Expression<?>, Column> columns) {
+        this.size = size;
+        this.columns = columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public IntColumn getInts(final Expression<? extends Number> expression) {
+        return column(expression, IntColumn.class);
+    }
+
+    public LongColumn getLongs(final Expression<? extends Number> expression) {
+        return column(expression, LongColumn.class);
+    }
+
+    public DoubleColumn getDoubles(final Expression<? extends Number> expression) {
+        return column(expression, DoubleColumn.class);
+    }
+
+    public StringColumn getStrings(final Expression<String> expression) {
+        return column(expression, StringColumn.class);
+    }
+
+    private <C extends Column> C column(final Expression<?> expression, final Class<C> type) {
+        final Column column = columns.get(expression);
+        if(!type.isInstance(column)) {
+            throw new IllegalArgumentException("no " + type.getSimpleName() + " for " + expression);
+        }
+        return type.cast(column);
+    }
+
+    public abstract static class Column {
+
+        protected int size;
+        protected final BitSet nulls = new BitSet();
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isNull(final int row) {
+            return nulls.get(row);
+        }
+
+        /**
+         * null 이 아닌 로우 수
+         */
+        public int count() {
+            return size - nulls.cardinality();
+        }
+
+        abstract void read(ResultSet resultSet, int index) throws SQLException;
+
+        abstract void trim();
+
+        static int grow(final int capacity) {
+            return Math.max(16, capacity + (capacity >> 1));
+        }
+    }
+
+    public static class IntColumn extends Column {
+
+        private int[] values = new int[16];
+
+        public int get(final int row) {
+            return values[row];
+        }
+
+        /**
+         * 복사하지 않은 원본 배열 (길이 = size)
+         */
+        public int[] values() {
+            return values;
+        }
+
+        public long sum() {
+            long sum = 0;
+            for(int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        public double avg() {
+            final int count = count();
+            return count == 0 ? Double.NaN : (double) sum() / count;
+        }
+
+        /**
+         * null 이 아닌 로우가 없으면 Integer.MAX_VALUE
+         */
+        public int min() {
+            int min = Integer.MAX_VALUE;
+            for(int i = nulls.nextClearBit(0); i < size; i = nulls.nextClearBit(i + 1)) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        }
+
+        public int max() {
+            int max = Integer.MIN_VALUE;
+            for(int i = nulls.nextClearBit(0); i < size; i = nulls.nextClearBit(i + 1)) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        }
+
+        /**
+         * [origin + k * width, origin + (k + 1) * width) 구간 별 로우 수
+         * 구간 밖의 값은 첫 / 마지막 구간에 더한다.
+         */
+        public long[] histogram(final int origin, final int width, final int buckets) {
+            if(width <= 0 || buckets <= 0) {
+                throw new IllegalArgumentException("width and buckets must be positive");
+            }
+
+            final long[] histogram = new long[buckets];
+            for(int i = 0; i < size; i++) {
+                if(nulls.isEmpty() || !nulls.get(i)) {
+                    final int bucket = Math.floorDiv(values[i] - origin, width);
+                    histogram[Math.min(buckets - 1, Math.max(0, bucket))]++;
+                }
+            }
+            return histogram;
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index) throws SQLException {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            // null 은 0 으로 읽히므로 합계에 영향이 없다.
+            values[size] = resultSet.getInt(index);
+            if(resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static class LongColumn extends Column {
+
+        private long[] values = new long[16];
+
+        public long get(final int row) {
+            return values[row];
+        }
+
+        public long[] values() {
+            return values;
+        }
+
+        public long sum() {
+            long sum = 0;
+            for(int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        public double avg() {
+            final int count = count();
+            return count == 0 ? Double.NaN : (double) sum() / count;
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index) throws SQLException {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getLong(index);
+            if(resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static class DoubleColumn extends Column {
+
+        private double[] values = new double[16];
+
+        public double get(final int row) {
+            return values[row];
+        }
+
+        public double[] values() {
+            return values;
+        }
+
+        public double sum() {
+            double sum = 0;
+            for(int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        public double avg() {
+            final int count = count();
+            return count == 0 ? Double.NaN : sum() / count;
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index) throws SQLException {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getDouble(index);
+            if(resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 사전 인코딩된 문자열 컬럼
+     * 같은 문자열은 한 번만 보관하고, 로우마다 사전 코드(등장 순서) 만 가진다. null 은 코드 -1 이다.
+     */
+    public static class StringColumn extends Column {
+
+        private int[] codes = new int[16];
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public String get(final int row) {
+            final int code = codes[row];
+            return code < 0 ? null : values.get(code);
+        }
+
+        public int code(final int row) {
+            return codes[row];
+        }
+
+        public int[] codes() {
+            return codes;
+        }
+
+        public List<String> dictionary() {
+            return values;
+        }
+
+        /**
+         * 사전 코드 별 로우 수
+         */
+        public long[] counts() {
+            final long[] counts = new long[values.size()];
+            for(int i = 0; i < size; i++) {
+                if(codes[i] >= 0) {
+                    counts[codes[i]]++;
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * 사전 코드 별 합계 (group by 이 컬럼, sum(column))
+         */
+        public long[] sumBy(final IntColumn column) {
+            final long[] sums = new long[values.size()];
+            final int[] measures = column.values();
+            for(int i = 0; i < size; i++) {
+                if(codes[i] >= 0 && !column.isNull(i)) {
+                    sums[codes[i]] += measures[i];
+                }
+            }
+            return sums;
+        }
+
+        /**
+         * 사전 코드 별 평균 (group by 이 컬럼, avg(column))
+         */
+        public Map<String, Double> avgBy(final IntColumn column) {
+            final long[] sums = new long[values.size()];
+            final long[] counts = new long[values.size()];
+            final int[] measures = column.values();
+            for(int i = 0; i < size; i++) {
+                if(codes[i] >= 0 && !column.isNull(i)) {
+                    sums[codes[i]] += measures[i];
+                    counts[codes[i]]++;
+                }
+            }
+
+            final Map<String, Double> averages = new LinkedHashMap<>();
+            for(int code = 0; code < sums.length; code++) {
+                if(counts[code] > 0) {
+                    averages.put(values.get(code), (double) sums[code] / counts[code]);
+                }
+            }
+            return averages;
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int index) throws SQLException {
+            if(size == codes.length) {
+                codes = Arrays.copyOf(codes, grow(size));
+            }
+
+            final String value = resultSet.getString(index);
+            if(value == null) {
+                codes[size] = -1;
+                nulls.set(size);
+            } else {
+                Integer code = dictionary.get(value);
+                if(code == null) {
+                    code = values.size();
+                    dictionary.put(value, code);
+                    values.add(value);
+                }
+                codes[size] = code;
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            codes = Arrays.copyOf(codes, size);
+        }
+    }
+
+    static class Builder {
+
+        private final Map<Expression<?>, Column> columns = new LinkedHashMap<>();
+        private final Column[] ordered;
+        private int size;
+
+        Builder(final List<Expression<?>> expressions) {
+            this.ordered = new Column[expressions.size()];
+            for(int i = 0; i < ordered.length; i++) {
+                ordered[i] = column(expressions.get(i));
+                columns.put(expressions.get(i), ordered[i]);
+            }
+        }
+
+        void add(final ResultSet resultSet) throws SQLException {
+            for(int i = 0; i < ordered.length; i++) {
+                ordered[i].read(resultSet, i + 1);
+            }
+            size++;
+        }
+
+        ColumnarResult build() {
+            for(Column column : ordered) {
+                column.trim();
+            }
+            return new ColumnarResult(size, columns);
+        }
+
+        private static Column column(final Expression<?> expression) {
+            final Class<?> type = expression.getType();
+            if(type == Integer.class || type == Short.class || type == Byte.class) {
+                return new IntColumn();
+            }
+            if(type == Long.class || type == BigInteger.class) {
+                return new LongColumn();
+            }
+            if(type == Double.class || type == Float.class || type == BigDecimal.class) {
+                return new DoubleColumn();
+            }
+            if(type == String.class) {
+                return new StringColumn();
+            }
+            throw new IllegalArgumentException("unsupported column type " + type.getName() + " : " + expression);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+class CsvExportWriter implements ExportWriter {
+
+    private final List<TableExport.Column> columns;
+    private final ChannelOutput output;
+
+    CsvExportWriter(final TableExport table, final ChannelOutput output) throws IOException {
+        this.columns = table.getColumns();
+        this.output = output;
+
+        for(int i = 0; i < columns.size(); i++) {
+            if(i > 0) {
+                output.put((byte) ',');
+            }
+            output.putUtf8(columns.get(i).getName());
+        }
+        output.put((byte) '\n');
+    }
+
+    @Override
+    public void write(final ResultSet resultSet) throws SQLException, IOException {
+        for(int i = 0; i < columns.size(); i++) {
+            if(i > 0) {
+                output.put((byte) ',');
+            }
+
+            final TableExport.ColumnType type = columns.get(i).getType();
+            if(type == TableExport.ColumnType.STRING) {
+                string(resultSet.getString(i + 1));
+                continue;
+            }
+
+            final long value = type == TableExport.ColumnType.INT ? resultSet.getInt(i + 1) : resultSet.getLong(i + 1);
+            if(!resultSet.wasNull()) {
+                output.putDecimal(value);
+            }
+        }
+        output.put((byte) '\n');
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    private void string(final String value) throws IOException {
+        if(value == null) {
+            return;
+        }
+        if(!value.isEmpty() && !needsQuote(value)) {
+            output.putUtf8(value);
+            return;
+        }
+
+        output.put((byte) '"');
+        output.putUtf8(value.replace("\"", "\"\""));
+        output.put((byte) '"');
+    }
+
+    private boolean needsQuote(final String value) {
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
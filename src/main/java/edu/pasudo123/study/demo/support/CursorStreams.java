@@ -0,0 +1,89 @@
+package edu.pasudo123.study.demo.support;
+
+import com.mysema.commons.lang.CloseableIterator;
+import org.hibernate.ScrollableResults;
+
+import javax.persistence.EntityManager;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DB 커서(ScrollableResults) 를 Stream 으로 감싼다.
+ *
+ * clearInterval 건마다 영속성 컨텍스트를 비워서, 테이블 크기와 상관없이 1차 캐시에 쌓이는 엔티티 수를 일정하게 유지한다.
+ * 비우기 전에 flush 하므로 앞서 내보낸 엔티티의 변경은 반영되고, 다음 로우는 비운 뒤에 읽으므로 내보내는 엔티티는 항상 영속 상태다.
+ * 내보낸 엔티티는 다음 clearInterval 건을 읽기 시작할 때 분리되므로 그 뒤에는 지연 로딩을 할 수 없다.
+ * 커서는 트랜잭션 안에서만 유효하고, 사용 후에는 반드시 close 해야 한다. (try-with-resources)
+ */
+public final class CursorStreams {
+
+    private CursorStreams() {
+    }
+
+    public static <T> Stream<T> of(final CloseableIterator<T> iterator, final EntityManager em, final int clearInterval) {
+        return StreamSupport.stream(new ClearingSpliterator<T>(em, clearInterval) {
+            @Override
+            protected boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            protected T next() {
+                return iterator.next();
+            }
+        }, false).onClose(iterator::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> of(final ScrollableResults results, final EntityManager em, final int clearInterval) {
+        return StreamSupport.stream(new ClearingSpliterator<T>(em, clearInterval) {
+            @Override
+            protected boolean hasNext() {
+                return results.next();
+            }
+
+            @Override
+            protected T next() {
+                return (T) results.get(0);
+            }
+        }, false).onClose(results::close);
+    }
+
+    private abstract static class ClearingSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final EntityManager em;
+        private final int clearInterval;
+        private long count;
+
+        ClearingSpliterator(final EntityManager em, final int clearInterval) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.em = em;
+            this.clearInterval = clearInterval;
+        }
+
+        protected abstract boolean hasNext();
+
+        protected abstract T next();
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            // hasNext() 가 커서를 옮기면서 다음 로우를 영속성 컨텍스트에 올리므로 그 전에 비운다.
+            // 앞서 내보낸 clearInterval 건은 이미 소비되었으므로 변경을 반영하고 detach 한다.
+            if(clearInterval > 0 && count > 0 && count % clearInterval == 0) {
+                em.flush();
+                em.clear();
+            }
+
+            if(!hasNext()) {
+                return false;
+            }
+
+            action.accept(next());
+            count++;
+            return true;
+        }
+    }
+}
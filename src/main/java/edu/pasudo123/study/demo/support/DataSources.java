@@ -0,0 +1,31 @@
+package edu.pasudo123.study.demo.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 커넥션 풀 크기에 맞춰 스레드 수를 정하는 설정들이 같이 쓰는 DataSource 도우미
+ */
+@Slf4j
+public final class DataSources {
+
+    private DataSources() {
+    }
+
+    /**
+     * @return hikari 커넥션 풀의 최대 크기, 풀 크기를 알 수 없으면 가용 프로세서 수
+     */
+    public static int connectionPoolSize(final DataSource dataSource) {
+        try {
+            if(dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("cannot resolve connection pool size, use available processors", e);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,37 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.IOException;
+
+/**
+ * TableExporter 파일 형식
+ */
+public enum ExportFormat {
+
+    /** 헤더가 있는 RFC 4180 CSV (UTF-8), null 은 빈 필드, 빈 문자열은 "" */
+    CSV("csv") {
+        @Override
+        ExportWriter writer(final TableExport table, final ChannelOutput output, final int blockRows) throws IOException {
+            return new CsvExportWriter(table, output);
+        }
+    },
+
+    /** 블록 단위 컬럼 배열 (ColumnarFileReader 로 읽는다.) */
+    COLUMNAR("mcol") {
+        @Override
+        ExportWriter writer(final TableExport table, final ChannelOutput output, final int blockRows) throws IOException {
+            return new ColumnarExportWriter(table, output, blockRows);
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(final String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract ExportWriter writer(TableExport table, ChannelOutput output, int blockRows) throws IOException;
+}
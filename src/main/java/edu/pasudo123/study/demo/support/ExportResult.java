@@ -0,0 +1,26 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ExportResult {
+
+    private final String table;
+    private final ExportFormat format;
+    /** id 범위 순서의 파트 파일 */
+    private final List<Path> files;
+    private final long rows;
+    private final long bytes;
+    private final long elapsedMillis;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+    }
+}
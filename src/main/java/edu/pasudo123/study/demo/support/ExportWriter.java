@@ -0,0 +1,18 @@
+package edu.pasudo123.study.demo.support;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ResultSet 의 현재 로우를 ChannelOutput 에 쓴다.
+ */
+interface ExportWriter {
+
+    void write(ResultSet resultSet) throws SQLException, IOException;
+
+    /**
+     * 남은 로우와 파일 끝 표시를 쓴다. ChannelOutput 은 호출한 쪽에서 닫는다.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,33 @@
+package edu.pasudo123.study.demo.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 조회할 때 연관관계를 어떻게 함께 가져올지 정하는 fetch plan
+ *
+ * NONE         : 연관관계는 지연 로딩 그대로 둔다. 루트 N 건의 연관관계를 건드리면 N+1 이 된다.
+ * ENTITY_GRAPH : @NamedEntityGraph 로 루트 쿼리에 fetch join 한다. 쿼리는 1 번이지만 컬렉션이면 로우 수가 곱해진다.
+ * BATCH        : 루트 쿼리 후, 초기화되지 않은 연관관계를 batch-size 개씩 IN 절로 가져온다. 쿼리는 1 + N / batch-size 번이다.
+ */
+public enum FetchPlan {
+
+    NONE,
+    ENTITY_GRAPH,
+    BATCH;
+
+    /**
+     * IN 절 크기에 맞춰 나눈다.
+     */
+    public static <T> List<List<T>> partition(final List<T> values, final int batchSize) {
+        if(batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+        }
+
+        final List<List<T>> partitions = new ArrayList<>();
+        for(int from = 0; from < values.size(); from += batchSize) {
+            partitions.add(values.subList(from, Math.min(from + batchSize, values.size())));
+        }
+        return partitions;
+    }
+}
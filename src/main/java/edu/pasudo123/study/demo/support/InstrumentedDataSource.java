@@ -0,0 +1,175 @@
+package edu.pasudo123.study.demo.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * 실행되는 모든 SQL 의 지연시간 / 로우 수를 QueryStatistics 에 남기는 DataSource
+ *
+ * Connection, Statement, ResultSet 을 JDK 동적 프록시로 감싼다.
+ * 지연시간은 execute* 호출 시간이고, select 의 로우 수는 ResultSet 을 닫을 때까지 next() 가 true 였던 횟수다.
+ * PreparedStatement 의 set* 값은 참조만 보관하고, 느린 쿼리일 때만 복사해서 로그로 넘긴다.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final QueryStatistics statistics;
+
+    public InstrumentedDataSource(final DataSource target, final QueryStatistics statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    final Object result = invoke(connection, method, args);
+                    final String name = method.getName();
+
+                    if(result instanceof CallableStatement) {
+                        return statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                    }
+                    if(result instanceof PreparedStatement) {
+                        return statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                    }
+                    if(result instanceof Statement && "createStatement".equals(name)) {
+                        return statement(Statement.class, (Statement) result, null);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement statement(final Class<? extends Statement> type, final Statement statement, final String sql) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, sql));
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private int batchSize;
+        private QueryOrigin batchOrigin;
+
+        StatementHandler(final Statement statement, final String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+
+            if("setNull".equals(name) && args != null && args[0] instanceof Integer) {
+                // setNull(index, sqlType) 의 두번째 인자는 값이 아니라 SQL 타입 코드다.
+                parameter((Integer) args[0], null);
+            } else if(name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameter((Integer) args[0], args[1]);
+            } else if("clearParameters".equals(name)) {
+                parameterCount = 0;
+            } else if("addBatch".equals(name)) {
+                batchSize++;
+                batchOrigin = QueryOrigin.current();
+            } else if(name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return InstrumentedDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(final Method method, final Object[] args) throws Throwable {
+            final String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            final boolean batch = method.getName().startsWith("executeBatch") || method.getName().startsWith("executeLargeBatch");
+            final QueryOrigin origin = batch && batchOrigin != null ? batchOrigin : QueryOrigin.current();
+
+            final long start = System.nanoTime();
+            final Object result = InstrumentedDataSource.invoke(statement, method, args);
+            final long nanos = System.nanoTime() - start;
+
+            if(sql == null) {
+                return result;
+            }
+
+            // 파라미터는 느린 쿼리 로그에만 쓰므로 느린 쿼리일 때만 복사한다.
+            final QueryStatistics.ShapeStatistics shape = statistics.record(origin, sql, nanos, rows(result),
+                    parameterCount == 0 || !statistics.isSlow(nanos) ? null : Arrays.copyOf(parameters, parameterCount));
+            if(batch) {
+                batchSize = 0;
+                batchOrigin = null;
+            }
+
+            if(result instanceof ResultSet) {
+                return resultSet((ResultSet) result, shape);
+            }
+            return result;
+        }
+
+        private long rows(final Object result) {
+            if(result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            if(result instanceof int[]) {
+                return Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            }
+            if(result instanceof long[]) {
+                return Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            }
+            return -1;
+        }
+
+        private void parameter(final int index, final Object value) {
+            if(index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private ResultSet resultSet(final ResultSet resultSet, final QueryStatistics.ShapeStatistics shape) {
+            final long[] rows = new long[1];
+            final boolean[] closed = new boolean[1];
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        final String name = method.getName();
+                        final Object result = InstrumentedDataSource.invoke(resultSet, method, args);
+                        if("next".equals(name) && Boolean.TRUE.equals(result)) {
+                            rows[0]++;
+                        } else if("close".equals(name) && !closed[0]) {
+                            closed[0] = true;
+                            shape.addRows(rows[0]);
+                        }
+                        return result;
+                    });
+        }
+    }
+}
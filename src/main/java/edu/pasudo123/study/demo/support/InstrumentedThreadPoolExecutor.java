@@ -0,0 +1,123 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 스레드 수와 큐 크기가 고정된 ThreadPoolExecutor
+ *
+ * 큐가 차도 스레드를 더 만들지 않고 RejectedExecutionHandler 로 넘긴다. (AbortPolicy : 거절, CallerRunsPolicy : 호출 스레드에서 실행)
+ * 작업마다 큐에서 기다린 시간을 재고, 큐 깊이 / 대기 시간 / 거절 수를 statistics() 로 보여준다.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final CountingRejectedExecutionHandler rejectedHandler;
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public InstrumentedThreadPoolExecutor(final String name,
+                                          final int poolSize,
+                                          final int queueCapacity,
+                                          final RejectedExecutionHandler handler) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(name),
+                new CountingRejectedExecutionHandler(handler));
+        this.rejectedHandler = (CountingRejectedExecutionHandler) getRejectedExecutionHandler();
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        super.execute(new TimedTask(command, System.nanoTime()));
+    }
+
+    public Statistics statistics() {
+        final long count = waited.sum();
+        return new Statistics(
+                getPoolSize(),
+                getActiveCount(),
+                getQueue().size(),
+                getQueue().remainingCapacity(),
+                getCompletedTaskCount(),
+                rejectedHandler.rejected.sum(),
+                count == 0 ? 0 : totalWaitNanos.sum() / count,
+                maxWaitNanos.get());
+    }
+
+    private void recordWait(final long waitNanos) {
+        waited.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+        final AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class TimedTask implements Runnable {
+
+        private final Runnable delegate;
+        private final long enqueuedAt;
+
+        TimedTask(final Runnable delegate, final long enqueuedAt) {
+            this.delegate = delegate;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            recordWait(System.nanoTime() - enqueuedAt);
+            delegate.run();
+        }
+    }
+
+    private static class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+        private final LongAdder rejected = new LongAdder();
+
+        CountingRejectedExecutionHandler(final RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(runnable, executor);
+        }
+    }
+
+    /**
+     * rejected 는 큐가 가득 차서 handler 로 넘어간 수 (CallerRunsPolicy 면 호출 스레드에서 실행된 수)
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Statistics {
+
+        private final int poolSize;
+        private final int activeThreads;
+        private final int queueDepth;
+        private final int queueRemainingCapacity;
+        private final long completedTasks;
+        private final long rejected;
+        private final long averageWaitNanos;
+        private final long maxWaitNanos;
+    }
+}
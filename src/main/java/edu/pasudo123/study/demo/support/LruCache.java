@@ -0,0 +1,80 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 크기 제한이 있는 LRU 캐시
+ * 가장 오래 사용되지 않은 엔트리부터 내보내고, hit / miss / eviction 수를 센다.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(final int maximumSize) {
+        if(maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive : " + maximumSize);
+        }
+
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                final boolean evict = size() > maximumSize;
+                if(evict) {
+                    evictions++;
+                }
+                return evict;
+            }
+        };
+    }
+
+    public synchronized V get(final K key) {
+        final V value = entries.get(key);
+        if(value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(final K key, final V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized Statistics statistics() {
+        return new Statistics(hits, misses, evictions, entries.size());
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Statistics {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        public double getHitRatio() {
+            final long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * querydsl Predicate 를 정규화된 문자열로 바꾼다.
+ *
+ * where(usernameEq(a), ageEq(b)) 와 같은 조건을 담은 BooleanBuilder 처럼 의미가 같은 조건은 같은 문자열이 되도록
+ * and / or 는 평탄화 후 정렬하고, 상수는 타입과 값을 함께 적는다. 조건이 없으면 빈 문자열이다.
+ * 상수 값은 길이를 앞에 붙여서(c[String:3:abc]) 값 안의 ',' ']' 'c[' 가 다른 조건이나 in 절 원소의 경계로 읽히지 않게 한다.
+ */
+public final class PredicateCanonicalizer implements Visitor<String, Void> {
+
+    private static final PredicateCanonicalizer INSTANCE = new PredicateCanonicalizer();
+
+    private PredicateCanonicalizer() {
+    }
+
+    public static String canonicalize(final Predicate predicate) {
+        if(predicate == null) {
+            return "";
+        }
+
+        final String canonical = predicate.accept(INSTANCE, null);
+        return canonical == null ? "" : canonical;
+    }
+
+    @Override
+    public String visit(final Constant<?> expr, final Void context) {
+        final Object constant = expr.getConstant();
+        if(constant instanceof Collection) {
+            // in (...) 의 값 순서는 의미가 없다.
+            final List<String> values = new ArrayList<>();
+            for(Object value : (Collection<?>) constant) {
+                values.add(value == null ? "null" : value.getClass().getSimpleName() + ":" + encode(value));
+            }
+            Collections.sort(values);
+            return "c[" + expr.getType().getSimpleName() + ":" + values.size() + ":" + String.join("", values) + "]";
+        }
+        return "c[" + expr.getType().getSimpleName() + ":" + encode(constant) + "]";
+    }
+
+    @Override
+    public String visit(final FactoryExpression<?> expr, final Void context) {
+        return "f[" + expr.getType().getName() + ":" + join(expr.getArgs()) + "]";
+    }
+
+    @Override
+    public String visit(final Operation<?> expr, final Void context) {
+        final Operator operator = expr.getOperator();
+
+        if(operator == Ops.AND || operator == Ops.OR) {
+            final List<String> operands = new ArrayList<>();
+            flatten(expr, operator, operands);
+            Collections.sort(operands);
+            return operator + operands.toString();
+        }
+
+        if(operator == Ops.EQ || operator == Ops.NE) {
+            final List<String> operands = args(expr.getArgs());
+            Collections.sort(operands);
+            return operator + operands.toString();
+        }
+
+        return operator + "(" + join(expr.getArgs()) + ")";
+    }
+
+    @Override
+    public String visit(final ParamExpression<?> expr, final Void context) {
+        return "p[" + expr.getName() + "]";
+    }
+
+    @Override
+    public String visit(final Path<?> expr, final Void context) {
+        return expr.toString();
+    }
+
+    @Override
+    public String visit(final SubQueryExpression<?> expr, final Void context) {
+        return "sq[" + metadata(expr.getMetadata()) + "]";
+    }
+
+    @Override
+    public String visit(final TemplateExpression<?> expr, final Void context) {
+        final List<String> args = new ArrayList<>();
+        for(Object arg : expr.getArgs()) {
+            args.add(arg instanceof Expression ? accept((Expression<?>) arg) : encode(arg));
+        }
+        return "t[" + expr.getTemplate() + ":" + String.join(",", args) + "]";
+    }
+
+    private String metadata(final QueryMetadata metadata) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("select ").append(metadata.isDistinct() ? "distinct " : "").append(accept(metadata.getProjection()));
+        for(JoinExpression join : metadata.getJoins()) {
+            builder.append(' ').append(join.getType()).append(' ').append(accept(join.getTarget()))
+                    .append(" on ").append(accept(join.getCondition()));
+        }
+        builder.append(" where ").append(accept(metadata.getWhere()));
+        builder.append(" group by ").append(join(metadata.getGroupBy()));
+        builder.append(" having ").append(accept(metadata.getHaving()));
+        for(OrderSpecifier<?> order : metadata.getOrderBy()) {
+            builder.append(" order by ").append(accept(order.getTarget())).append(' ').append(order.getOrder())
+                    .append(' ').append(order.getNullHandling());
+        }
+        builder.append(" limit ").append(metadata.getModifiers().getLimit())
+                .append(" offset ").append(metadata.getModifiers().getOffset());
+        return builder.toString();
+    }
+
+    private void flatten(final Operation<?> operation, final Operator operator, final List<String> operands) {
+        for(Expression<?> each : operation.getArgs()) {
+            // where(builder, ...) 처럼 BooleanBuilder 가 섞여있으면 감싸고 있는 조건을 꺼내서 함께 평탄화한다.
+            final Expression<?> arg = each instanceof BooleanBuilder ? ((BooleanBuilder) each).getValue() : each;
+            if(arg == null) {
+                continue;
+            }
+
+            if(arg instanceof Operation && ((Operation<?>) arg).getOperator() == operator) {
+                flatten((Operation<?>) arg, operator, operands);
+            } else {
+                operands.add(accept(arg));
+            }
+        }
+    }
+
+    private List<String> args(final List<? extends Expression<?>> args) {
+        final List<String> results = new ArrayList<>(args.size());
+        for(Expression<?> arg : args) {
+            results.add(accept(arg));
+        }
+        return results;
+    }
+
+    private String join(final List<? extends Expression<?>> args) {
+        return String.join(",", args(args));
+    }
+
+    /**
+     * 값 앞에 길이를 붙인다. (3:abc)
+     */
+    private static String encode(final Object value) {
+        final String text = String.valueOf(value);
+        return text.length() + ":" + text;
+    }
+
+    private String accept(final Expression<?> expr) {
+        return expr == null ? "" : expr.accept(this, null);
+    }
+}
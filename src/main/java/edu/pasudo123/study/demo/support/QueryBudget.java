@@ -0,0 +1,50 @@
+package edu.pasudo123.study.demo.support;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 테스트에서 SQL 수 상한과 N+1 여부를 검증한다.
+ * ex) QueryBudget.assertMaxStatements(1, () -> queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch());
+ *
+ * work 안에서 실행된 SQL 만 센다. 반환된 엔티티의 지연 로딩은 work 밖에서 일어나면 세지 않으므로, 연관관계 접근까지 work 에 넣는다.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static <T> T assertMaxStatements(final int maxStatements, final Supplier<T> work) {
+        return assertWithin(new SqlBudget(maxStatements, 0, false), work);
+    }
+
+    public static void assertMaxStatements(final int maxStatements, final Runnable work) {
+        assertWithin(new SqlBudget(maxStatements, 0, false), () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * 같은 연관관계가 SQL 과 함께 threshold 번 이상 지연 로딩되면 실패한다.
+     */
+    public static <T> T assertNoRepeatedLazyLoads(final int threshold, final Supplier<T> work) {
+        return assertWithin(new SqlBudget(0, threshold, false), work);
+    }
+
+    public static <T> T assertWithin(final SqlBudget budget, final Supplier<T> work) {
+        final T result;
+        final SqlScope scope = SqlCounter.open("query budget");
+        try {
+            result = work.get();
+        } finally {
+            scope.close();
+        }
+
+        final List<String> violations = budget.violations(scope);
+        if(!violations.isEmpty()) {
+            throw new AssertionError("sql budget exceeded. " + scope + " : " + String.join(", ", violations));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package edu.pasudo123.study.demo.support;
+
+import java.util.function.Supplier;
+
+/**
+ * SQL 을 실행하게 만든 API
+ * JDBC 에서는 구분할 수 없으므로 실행하는 동안 스레드에 표시해 둔다. 표시가 없으면 JPA (JPQL, find, flush, native) 로 본다.
+ */
+public enum QueryOrigin {
+
+    QUERYDSL,
+    SPRING_DATA,
+    JPA;
+
+    private static final ThreadLocal<QueryOrigin> CURRENT = new ThreadLocal<>();
+
+    public static QueryOrigin current() {
+        final QueryOrigin origin = CURRENT.get();
+        return origin == null ? JPA : origin;
+    }
+
+    /**
+     * 바깥에 이미 표시된 origin 이 있으면 바깥 것을 유지한다. (Spring Data 메서드 안에서 실행한 querydsl 은 Spring Data 로 센다.)
+     */
+    public <T> T execute(final Supplier<T> work) {
+        if(CURRENT.get() != null) {
+            return work.get();
+        }
+
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.JPQLSerializer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * querydsl 쿼리 모양(shape) 별 JPQL 캐시
+ *
+ * 상수 값만 다르고 구조가 같은 쿼리는 같은 JPQL(?1, ?2 ... 파라미터) 로 직렬화된다.
+ * 쿼리 트리를 한 번 훑어서 상수를 뺀 지문(fingerprint) 을 만들고, 같은 지문이면 직렬화를 건너뛰고 캐시된 JPQL 에 새 상수만 바인딩한다.
+ * JPQL 문자열이 같으므로 hibernate 의 query plan cache 도 같은 plan 을 재사용한다.
+ *
+ * case 문처럼 상수를 JPQL 에 리터럴로 직접 쓰거나, like / equalsIgnoreCase 처럼 상수를 변형해서 바인딩하는 쿼리는 캐시하지 않는다.
+ */
+public class QueryShapeCache {
+
+    /**
+     * 상수를 JPQL 리터럴로 쓰거나(case), 템플릿이 상수를 변형해서 바인딩하는(소문자 변환, like 이스케이프, regexToLike) 연산자
+     * 처음 본 상수가 우연히 변형되지 않아도 다음 상수는 변형될 수 있으므로 값과 상관없이 캐시하지 않는다.
+     */
+    private static final Set<Ops> UNCACHEABLE_OPERATORS = EnumSet.of(
+            Ops.CASE_WHEN, Ops.CASE_ELSE, Ops.CASE_EQ_WHEN, Ops.CASE_EQ_ELSE,
+            Ops.EQ_IGNORE_CASE,
+            Ops.LIKE, Ops.LIKE_IC, Ops.LIKE_ESCAPE, Ops.LIKE_ESCAPE_IC,
+            Ops.MATCHES, Ops.MATCHES_IC,
+            Ops.STARTS_WITH, Ops.STARTS_WITH_IC,
+            Ops.ENDS_WITH, Ops.ENDS_WITH_IC,
+            Ops.STRING_CONTAINS, Ops.STRING_CONTAINS_IC);
+
+    private static final Shape UNCACHEABLE = new Shape(null, null);
+
+    private final LruCache<String, Shape> shapes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder hitNanos = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+
+    public QueryShapeCache(final int maximumSize) {
+        this.shapes = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * @param serializerFactory 빈 JPQLSerializer 를 만든다.
+     * @return 직렬화가 끝난 serializer (JPQL 문자열 + 상수 라벨)
+     */
+    public JPQLSerializer serialize(final QueryMetadata metadata, final boolean forCountRow, final Supplier<JPQLSerializer> serializerFactory) {
+        final long start = System.nanoTime();
+
+        final Fingerprint fingerprint = new Fingerprint();
+        fingerprint.metadata(metadata, forCountRow);
+
+        final Shape shape = fingerprint.cacheable ? shapes.get(fingerprint.toString()) : UNCACHEABLE;
+
+        if(shape == UNCACHEABLE) {
+            bypasses.increment();
+            return serialize(metadata, forCountRow, serializerFactory.get());
+        }
+
+        if(shape != null) {
+            final JPQLSerializer serializer = serializerFactory.get();
+            serializer.append(shape.jpql);
+            final Map<Object, String> constantToLabel = serializer.getConstantToLabel();
+            for(int i = 0; i < shape.labels.length; i++) {
+                constantToLabel.put(fingerprint.constants.get(i), shape.labels[i]);
+            }
+
+            hits.increment();
+            hitNanos.add(System.nanoTime() - start);
+            return serializer;
+        }
+
+        final JPQLSerializer serializer = serialize(metadata, forCountRow, serializerFactory.get());
+        final String[] labels = labels(fingerprint.constants, serializer.getConstantToLabel());
+        shapes.put(fingerprint.toString(), labels == null ? UNCACHEABLE : new Shape(serializer.toString(), labels));
+
+        misses.increment();
+        missNanos.add(System.nanoTime() - start);
+        return serializer;
+    }
+
+    public Statistics statistics() {
+        return new Statistics(hits.sum(), misses.sum(), bypasses.sum(), shapes.size(), hitNanos.sum(), missNanos.sum());
+    }
+
+    private JPQLSerializer serialize(final QueryMetadata metadata, final boolean forCountRow, final JPQLSerializer serializer) {
+        serializer.serialize(metadata, forCountRow, null);
+        return serializer;
+    }
+
+    /**
+     * 트리에서 꺼낸 상수가 모두 그대로 바인딩 파라미터가 되었을 때만 상수 순서별 라벨을 돌려준다.
+     */
+    private String[] labels(final List<Object> constants, final Map<Object, String> constantToLabel) {
+        if(new HashSet<>(constants).size() != constantToLabel.size()) {
+            return null;
+        }
+
+        final String[] labels = new String[constants.size()];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = constantToLabel.get(constants.get(i));
+            if(labels[i] == null) {
+                return null;
+            }
+        }
+        return labels;
+    }
+
+    @RequiredArgsConstructor
+    private static class Shape {
+        private final String jpql;
+        private final String[] labels;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Statistics {
+
+        private final long hits;
+        private final long misses;
+        private final long bypasses;
+        private final int size;
+        private final long hitNanos;
+        private final long missNanos;
+
+        public double getHitRatio() {
+            final long requests = hits + misses + bypasses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        /**
+         * 캐시 hit 한 번에 아낀 평균 CPU 시간 (직렬화 평균 - 지문 생성 평균)
+         */
+        public long getSavedNanosPerHit() {
+            if(hits == 0 || misses == 0) {
+                return 0;
+            }
+            return Math.max(0, missNanos / misses - hitNanos / hits);
+        }
+    }
+
+    /**
+     * 상수 값을 제외한 쿼리 구조 문자열
+     * 같은 값을 가진 상수는 하나의 파라미터로 직렬화되므로, 상수 자리에는 처음 등장한 같은 값의 위치를 적는다.
+     */
+    private static class Fingerprint implements Visitor<Void, Void> {
+
+        private final StringBuilder key = new StringBuilder();
+        private final List<Object> constants = new ArrayList<>();
+        private boolean cacheable = true;
+
+        @Override
+        public Void visit(final Constant<?> expr, final Void context) {
+            final Object constant = expr.getConstant();
+            final int first = constants.indexOf(constant);
+            constants.add(constant);
+
+            key.append('?').append(first < 0 ? constants.size() - 1 : first)
+                    .append(':').append(constant.getClass().getName());
+            if(constant instanceof Collection && ((Collection<?>) constant).size() <= 1) {
+                // 빈 in 절은 1 = 2 로, 원소가 하나인 in 절은 = 로 직렬화된다.
+                key.append('[').append(((Collection<?>) constant).size()).append(']');
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(final FactoryExpression<?> expr, final Void context) {
+            key.append("new ").append(expr.getType().getName());
+            args(expr.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(final Operation<?> expr, final Void context) {
+            final Operator operator = expr.getOperator();
+            if(operator instanceof Ops && UNCACHEABLE_OPERATORS.contains(operator)) {
+                cacheable = false;
+            }
+
+            key.append(operator);
+            args(expr.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(final ParamExpression<?> expr, final Void context) {
+            cacheable = false;
+            return null;
+        }
+
+        @Override
+        public Void visit(final Path<?> expr, final Void context) {
+            key.append(expr.getType().getName()).append(':').append(expr);
+            return null;
+        }
+
+        @Override
+        public Void visit(final SubQueryExpression<?> expr, final Void context) {
+            key.append('(');
+            metadata(expr.getMetadata(), false);
+            key.append(')');
+            return null;
+        }
+
+        @Override
+        public Void visit(final TemplateExpression<?> expr, final Void context) {
+            key.append(expr.getTemplate()).append('(');
+            for(Object arg : expr.getArgs()) {
+                if(arg instanceof Expression) {
+                    accept((Expression<?>) arg);
+                } else {
+                    key.append(arg);
+                }
+                key.append(',');
+            }
+            key.append(')');
+            return null;
+        }
+
+        void metadata(final QueryMetadata metadata, final boolean forCountRow) {
+            key.append(forCountRow ? "count " : "select ").append(metadata.isDistinct() ? "distinct " : "");
+            accept(metadata.getProjection());
+
+            for(JoinExpression join : metadata.getJoins()) {
+                key.append(' ').append(join.getType()).append(' ');
+                for(JoinFlag flag : join.getFlags()) {
+                    key.append(flag.getPosition()).append(':');
+                    accept(flag.getFlag());
+                }
+                accept(join.getTarget());
+                key.append(" on ");
+                accept(join.getCondition());
+            }
+
+            key.append(" where ");
+            accept(metadata.getWhere());
+            key.append(" group by");
+            args(metadata.getGroupBy());
+            key.append(" having ");
+            accept(metadata.getHaving());
+
+            key.append(" order by");
+            for(OrderSpecifier<?> order : metadata.getOrderBy()) {
+                accept(order.getTarget());
+                key.append(' ').append(order.getOrder()).append(' ').append(order.getNullHandling()).append(',');
+            }
+
+            for(QueryFlag flag : metadata.getFlags()) {
+                key.append(" flag ").append(flag.getPosition()).append(':');
+                accept(flag.getFlag());
+            }
+        }
+
+        private void args(final List<? extends Expression<?>> args) {
+            key.append('(');
+            for(Expression<?> arg : args) {
+                accept(arg);
+                key.append(',');
+            }
+            key.append(')');
+        }
+
+        private void accept(final Expression<?> expr) {
+            if(expr != null) {
+                expr.accept(this, null);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return key.toString();
+        }
+    }
+}
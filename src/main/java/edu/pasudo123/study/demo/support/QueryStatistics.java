@@ -0,0 +1,232 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 쿼리 모양(정규화된 SQL) + origin 별 실행 수, 로우 수, 지연시간 히스토그램과 느린 쿼리 로그
+ *
+ * 정규화는 공백을 하나로 줄이고, 리터럴과 in 절 파라미터 목록을 ? 하나로 바꾼다. 같은 SQL 문자열은 정규화 결과를 재사용한다.
+ * 모양 수 제한은 정규화된 모양으로 세므로 리터럴만 다른 SQL 은 제한을 하나만 쓴다.
+ * 모양 수가 maximumShapes 를 넘으면 새 모양은 reset 전까지 하나의 "(other)" 로 모은다.
+ * 느린 쿼리는 바인딩 파라미터와 함께 경고 로그를 남기고, 최근 slowQueryHistory 건을 보관한다.
+ */
+@Slf4j
+public class QueryStatistics {
+
+    static final String OTHER_SHAPE = "(other)";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final long slowQueryThresholdNanos;
+    private final int maximumShapes;
+    private final int slowQueryHistory;
+    private final int maximumParameterLength;
+
+    /** SQL 문자열 → 정규화된 모양 캐시, 가득 차면 더 넣지 않고 매번 정규화한다. */
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+    private final Map<Key, ShapeStatistics> statistics = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final LongAdder slowQueryCount = new LongAdder();
+
+    public QueryStatistics(final Duration slowQueryThreshold, final int maximumShapes, final int slowQueryHistory, final int maximumParameterLength) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.maximumShapes = maximumShapes;
+        this.slowQueryHistory = slowQueryHistory;
+        this.maximumParameterLength = maximumParameterLength;
+    }
+
+    /**
+     * @param parameters 바인딩 파라미터, 느린 쿼리 로그에만 쓰므로 느린 쿼리가 아니면 null 이어도 된다.
+     * @return 실행된 모양의 통계. 읽은 로우 수는 ResultSet 을 닫을 때 여기에 더한다.
+     */
+    public ShapeStatistics record(final QueryOrigin origin, final String sql, final long nanos, final long rows, final Object[] parameters) {
+        final String shape = shape(sql);
+        final ShapeStatistics shapeStatistics = statistics.computeIfAbsent(new Key(origin, shape), key -> new ShapeStatistics());
+        shapeStatistics.histogram.record(nanos);
+        if(rows > 0) {
+            shapeStatistics.rows.add(rows);
+        }
+
+        if(isSlow(nanos)) {
+            slowQuery(origin, sql, nanos, rows, parameters);
+        }
+        return shapeStatistics;
+    }
+
+    public boolean isSlow(final long nanos) {
+        return nanos >= slowQueryThresholdNanos;
+    }
+
+    public List<Snapshot> snapshot() {
+        return statistics.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(Snapshot::getTotalMillis).reversed()
+                        .thenComparing(Comparator.comparingLong(Snapshot::getExecutions).reversed()))
+                .collect(Collectors.toList());
+    }
+
+    public List<SlowQuery> slowQueries() {
+        synchronized(slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public long getSlowQueryCount() {
+        return slowQueryCount.sum();
+    }
+
+    public void reset() {
+        shapes.clear();
+        statistics.clear();
+        slowQueryCount.reset();
+        synchronized(slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    String shape(final String sql) {
+        String shape = normalized.get(sql);
+        if(shape == null) {
+            shape = normalize(sql);
+            if(normalized.size() < maximumShapes) {
+                normalized.put(sql, shape);
+            }
+        }
+
+        if(shapes.contains(shape)) {
+            return shape;
+        }
+        synchronized(shapes) {
+            if(!shapes.contains(shape) && shapes.size() >= maximumShapes) {
+                return OTHER_SHAPE;
+            }
+            shapes.add(shape);
+        }
+        return shape;
+    }
+
+    static String normalize(final String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    private void slowQuery(final QueryOrigin origin, final String sql, final long nanos, final long rows, final Object[] parameters) {
+        final List<String> values = new ArrayList<>();
+        if(parameters != null) {
+            for(Object parameter : parameters) {
+                values.add(abbreviate(parameter));
+            }
+        }
+
+        final SlowQuery slowQuery = new SlowQuery(Instant.now(), origin, TimeUnit.NANOSECONDS.toMicros(nanos), rows, sql, values);
+        slowQueryCount.increment();
+        synchronized(slowQueries) {
+            slowQueries.addLast(slowQuery);
+            while(slowQueries.size() > slowQueryHistory) {
+                slowQueries.removeFirst();
+            }
+        }
+        log.warn("slow query {}ms origin={} rows={} sql=[{}] parameters={}",
+                TimeUnit.NANOSECONDS.toMillis(nanos), origin, rows < 0 ? "-" : rows, sql, values);
+    }
+
+    private String abbreviate(final Object parameter) {
+        final String value = String.valueOf(parameter);
+        return value.length() <= maximumParameterLength ? value : value.substring(0, maximumParameterLength) + "...";
+    }
+
+    @RequiredArgsConstructor
+    private static class Key {
+        private final QueryOrigin origin;
+        private final String shape;
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return origin == key.origin && shape.equals(key.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(origin, shape);
+        }
+    }
+
+    public static class ShapeStatistics {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+
+        public void addRows(final long count) {
+            rows.add(count);
+        }
+
+        private Snapshot snapshot(final Key key) {
+            return new Snapshot(key.origin, key.shape, histogram.getCount(), rows.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(histogram.getTotalNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.percentile(0.5)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.percentile(0.99)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getMaxNanos()));
+        }
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Snapshot {
+
+        private final QueryOrigin origin;
+        private final String shape;
+        private final long executions;
+        private final long rows;
+        private final long totalMillis;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class SlowQuery {
+
+        private final Instant executedAt;
+        private final QueryOrigin origin;
+        private final long elapsedMicros;
+        /** select 는 실행 시점에 로우 수를 알 수 없으므로 -1 */
+        private final long rows;
+        private final String sql;
+        private final List<String> parameters;
+    }
+}
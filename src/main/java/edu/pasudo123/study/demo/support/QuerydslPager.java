@@ -0,0 +1,174 @@
+package edu.pasudo123.study.demo.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * content + count 페이징 헬퍼
+ *
+ * count 쿼리는 아래 순서로 피한다.
+ * 1. 조회한 content 가 페이지 크기보다 작으면 마지막 페이지이므로 offset + content 크기가 전체 건수다.
+ * 2. 같은 조건의 count 가 countCacheTtl 안에 조회된 적이 있으면 그 값을 쓴다. (근사값)
+ * 3. 그래도 필요하면 content 쿼리 다음에 같은 커넥션에서 count 쿼리를 실행한다.
+ *
+ * count 를 다른 스레드(커넥션) 에서 동시에 실행하면, 커넥션을 쥔 호출 스레드들이 풀을 다 쓴 상태에서 count 가 커넥션을 기다리며 멈출 수 있으므로 하지 않는다.
+ * 캐시한 count 는 다른 트랜잭션에서도 쓰이므로 트랜잭션이 없거나 읽기 전용일 때만 캐시하고,
+ * member / team 을 변경하는 SQL 이 실행되면 (MemberWriteInspector) 그 때와 트랜잭션이 끝날 때 비운다.
+ * 정렬은 호출자가 query 에 지정하고, 여기서는 offset / limit 만 건다. (fetch join, group by 쿼리는 count 가 맞지 않으므로 사용하지 않는다.)
+ */
+public class QuerydslPager {
+
+    private static final String WRITE_RESOURCE_KEY = QuerydslPager.class.getName() + ".WRITE";
+
+    private final Cache<String, Long> countCache;
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder inferredCounts = new LongAdder();
+    private final LongAdder cachedCounts = new LongAdder();
+    private final LongAdder executedCounts = new LongAdder();
+
+    /**
+     * @param countCacheTtl 0 이면 count 를 캐시하지 않는다.
+     */
+    public QuerydslPager(final Duration countCacheTtl, final int countCacheMaximumSize) {
+        this.countCache = countCacheTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(countCacheMaximumSize)
+                .expireAfterWrite(countCacheTtl)
+                .build();
+    }
+
+    public <T> Page<T> fetchPage(final JPAQuery<T> query, final Pageable pageable) {
+        pages.increment();
+
+        if(pageable.isUnpaged()) {
+            final List<T> content = query.fetch();
+            inferredCounts.increment();
+            return new PageImpl<>(content, pageable, content.size());
+        }
+
+        final boolean detached = !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        final String key = detached && countCache != null ? key(query.getMetadata()) : null;
+
+        final Long cached = key == null ? null : countCache.getIfPresent(key);
+
+        final List<T> content = query.clone()
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        if(isLastPage(content, pageable)) {
+            inferredCounts.increment();
+            return page(content, pageable, pageable.getOffset() + content.size(), key);
+        }
+
+        if(cached != null) {
+            cachedCounts.increment();
+            // content 가 근사 count 를 넘어서면 적어도 content 끝까지는 있다.
+            return new PageImpl<>(content, pageable, Math.max(cached, pageable.getOffset() + content.size()));
+        }
+
+        executedCounts.increment();
+        return page(content, pageable, query.fetchCount(), key);
+    }
+
+    public Statistics statistics() {
+        return new Statistics(pages.sum(), inferredCounts.sum(), cachedCounts.sum(), executedCounts.sum(),
+                countCache == null ? 0 : countCache.estimatedSize());
+    }
+
+    public void invalidateCounts() {
+        if(countCache != null) {
+            countCache.invalidateAll();
+        }
+    }
+
+    /**
+     * count 에 영향을 주는 테이블을 변경하는 SQL 이 실행될 때 호출된다.
+     * 커밋 전에 다른 트랜잭션이 이전 count 를 다시 캐시할 수 있으므로 트랜잭션이 끝날 때 한 번 더 비운다.
+     */
+    public void onWrite() {
+        invalidateCounts();
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(WRITE_RESOURCE_KEY)) {
+            TransactionSynchronizationManager.bindResource(WRITE_RESOURCE_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_RESOURCE_KEY);
+                    invalidateCounts();
+                }
+            });
+        }
+    }
+
+    /**
+     * content 가 페이지 크기보다 작으면 마지막 페이지다.
+     * 단, 비어 있는 페이지는 offset 이 전체 건수를 넘어선 것일 수 있으므로 첫 페이지일 때만 마지막으로 본다.
+     */
+    private boolean isLastPage(final List<?> content, final Pageable pageable) {
+        return content.size() < pageable.getPageSize()
+                && (pageable.getOffset() == 0 || !content.isEmpty());
+    }
+
+    private <T> Page<T> page(final List<T> content, final Pageable pageable, final long total, final String key) {
+        if(key != null) {
+            countCache.put(key, total);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * from / join 대상과 정규화된 조건이 같으면 같은 count 다.
+     */
+    private String key(final QueryMetadata metadata) {
+        final StringBuilder key = new StringBuilder(metadata.isDistinct() ? "distinct " : "");
+        for(JoinExpression join : metadata.getJoins()) {
+            key.append(join.getType()).append(' ').append(join.getTarget())
+                    .append(" on ").append(PredicateCanonicalizer.canonicalize(join.getCondition())).append(' ');
+        }
+        return key.append("where ").append(PredicateCanonicalizer.canonicalize(metadata.getWhere())).toString();
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Statistics {
+
+        private final long pages;
+        /** content 크기로 전체 건수를 알아낸 페이지 수 */
+        private final long inferredCounts;
+        /** 캐시된 근사 count 를 쓴 페이지 수 */
+        private final long cachedCounts;
+        /** 실제로 DB 에 보낸 count 쿼리 수 */
+        private final long executedCounts;
+        private final long cachedCountSize;
+
+        /**
+         * 실행하지 않은 count 쿼리 수
+         */
+        public long getAvoidedCounts() {
+            return Math.max(0, pages - executedCounts);
+        }
+
+        public double getAvoidedRatio() {
+            return pages == 0 ? 0.0 : (double) getAvoidedCounts() / pages;
+        }
+    }
+}
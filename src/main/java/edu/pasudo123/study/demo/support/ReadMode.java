@@ -0,0 +1,18 @@
+package edu.pasudo123.study.demo.support;
+
+/**
+ * 조회한 엔티티를 영속성 컨텍스트에서 어떻게 관리할지 정하는 읽기 모드
+ *
+ * MANAGED   : 보통의 영속 엔티티. 로딩할 때 dirty checking 용 스냅샷(loadedState) 을 만들고, 이후 쿼리마다 auto flush 검사 대상이 된다.
+ * READ_ONLY : 읽기 전용 힌트 + flush mode COMMIT. 엔티티는 영속성 컨텍스트에 올라가지만 스냅샷을 만들지 않고 dirty checking, flush 에서 빠진다.
+ * STATELESS : StatelessSession 으로 읽는다. 영속성 컨텍스트와 2차 캐시를 거치지 않는 준영속 엔티티를 반환하므로 지연 로딩을 할 수 없다.
+ *
+ * 트랜잭션 전체가 읽기 전용이면 @Transactional(readOnly = true) 를 쓴다. 세션 기본값이 읽기 전용, flush mode 가 MANUAL 이 된다.
+ * (demo.datasource.routing 을 켜면 레플리카로 라우팅된다.)
+ */
+public enum ReadMode {
+
+    MANAGED,
+    READ_ONLY,
+    STATELESS
+}
@@ -0,0 +1,50 @@
+package edu.pasudo123.study.demo.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션을 보낼 레플리카를 고른다.
+ */
+public enum ReplicaBalancer {
+
+    /** 레플리카를 돌아가며 사용한다. */
+    ROUND_ROBIN {
+        @Override
+        int choose(final List<HikariDataSource> replicas, final AtomicInteger sequence) {
+            return Math.floorMod(sequence.getAndIncrement(), replicas.size());
+        }
+    },
+
+    /** 사용 중인 커넥션이 가장 적은 레플리카를 사용한다. 같으면 앞의 레플리카를 사용한다. */
+    LEAST_CONNECTIONS {
+        @Override
+        int choose(final List<HikariDataSource> replicas, final AtomicInteger sequence) {
+            int chosen = 0;
+            int least = Integer.MAX_VALUE;
+            for(int i = 0; i < replicas.size(); i++) {
+                final int active = activeConnections(replicas.get(i));
+                if(active < least) {
+                    chosen = i;
+                    least = active;
+                }
+            }
+            return chosen;
+        }
+    };
+
+    /**
+     * @param replicas 비어있지 않은 후보 목록
+     * @return 후보 목록의 index
+     */
+    abstract int choose(List<HikariDataSource> replicas, AtomicInteger sequence);
+
+    private static int activeConnections(final HikariDataSource dataSource) {
+        // 아직 커넥션을 한 번도 꺼내지 않은 풀은 시작 전이다.
+        final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
@@ -0,0 +1,93 @@
+package edu.pasudo123.study.demo.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 읽기 전용 트랜잭션은 레플리카로, 나머지는 primary 로 보내는 DataSource
+ *
+ * 트랜잭션의 readOnly 여부는 트랜잭션이 시작된 뒤에 정해지므로 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 SQL 을 실행할 때 커넥션을 가져오도록 해야 한다.
+ * 복제 지연이 maxReplicationLag 를 넘었거나 알 수 없는 레플리카는 제외하고, 남은 레플리카가 없으면 primary 를 사용한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaBalancer balancer;
+    private final ReplicationLagMonitor lagMonitor;
+    private final Duration maxReplicationLag;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(final DataSource primary,
+                                    final List<HikariDataSource> replicas,
+                                    final ReplicaBalancer balancer,
+                                    final ReplicationLagMonitor lagMonitor,
+                                    final Duration maxReplicationLag) {
+        this.replicas = replicas;
+        this.balancer = balancer;
+        this.lagMonitor = lagMonitor;
+        this.maxReplicationLag = maxReplicationLag;
+
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for(int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+            lagMonitor.watch(replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static String replicaKey(final int index) {
+        return "replica-" + index;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+
+        final List<HikariDataSource> candidates = new ArrayList<>(replicas.size());
+        for(HikariDataSource replica : replicas) {
+            final Duration lag = lagMonitor.lag(replica);
+            if(lag != null && lag.compareTo(maxReplicationLag) <= 0) {
+                candidates.add(replica);
+            }
+        }
+
+        if(candidates.isEmpty()) {
+            fallbacks.increment();
+            return PRIMARY;
+        }
+
+        return replicaKey(replicas.indexOf(candidates.get(balancer.choose(candidates, sequence))));
+    }
+
+    /**
+     * @return 읽기 전용 트랜잭션이 레플리카 지연으로 primary 를 사용한 수
+     */
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public void close() {
+        lagMonitor.close();
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,152 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * heartbeat 테이블로 레플리카의 복제 지연을 잰다.
+ *
+ * primary 의 replication_heartbeat 에 heartbeatInterval 마다 현재 시각을 쓰고,
+ * 레플리카에 복제된 마지막 시각과 현재 시각의 차이를 복제 지연으로 본다.
+ * 레플리카 조회는 checkInterval 마다 백그라운드에서 하고, lag() 는 마지막 조회 결과만 읽으므로 라우팅 중에 레플리카로 SQL 을 보내지 않는다.
+ * 마지막 조회 이후 흐른 시간은 지연에 더하므로, 조회가 밀리거나 멈추면 지연이 커져서 그 레플리카는 제외된다.
+ * 조회에 실패하면 (테이블이 아직 없는 경우 포함) 지연을 알 수 없음(null) 으로 본다.
+ */
+@Slf4j
+public class ReplicationLagMonitor implements AutoCloseable {
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)";
+
+    private final DataSource primary;
+    private final Duration heartbeatInterval;
+    private final Duration checkInterval;
+    private final Set<DataSource> replicas = new CopyOnWriteArraySet<>();
+    private final Map<DataSource, Sample> samples = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public ReplicationLagMonitor(final DataSource primary, final Duration heartbeatInterval, final Duration checkInterval) {
+        this.primary = primary;
+        this.heartbeatInterval = heartbeatInterval;
+        this.checkInterval = checkInterval;
+    }
+
+    public void start() {
+        execute(primary, CREATE_TABLE);
+        beat();
+
+        // 느린 레플리카 조회가 heartbeat 를 밀어내지 않도록 스레드를 나눈다.
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            final Thread thread = new Thread(runnable, "replication-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::beat,
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::check,
+                checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 복제 지연을 잴 레플리카를 등록하고 바로 한 번 조회한다.
+     */
+    public void watch(final DataSource replica) {
+        replicas.add(replica);
+        check(replica);
+    }
+
+    /**
+     * 등록된 레플리카의 복제 지연을 다시 읽는다.
+     */
+    public void check() {
+        replicas.forEach(this::check);
+    }
+
+    private void check(final DataSource replica) {
+        final long now = System.currentTimeMillis();
+        samples.put(replica, new Sample(now, readLag(replica, now)));
+    }
+
+    /**
+     * @return 마지막으로 읽은 복제 지연 + 그 뒤로 흐른 시간, 알 수 없으면 null
+     */
+    public Duration lag(final DataSource replica) {
+        final Sample sample = samples.get(replica);
+        if(sample == null || sample.lag == null) {
+            return null;
+        }
+        return sample.lag.plusMillis(Math.max(0, System.currentTimeMillis() - sample.checkedAt));
+    }
+
+    private Duration readLag(final DataSource replica, final long now) {
+        try(Connection connection = replica.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT MAX(beat_at) FROM replication_heartbeat")) {
+
+            final Timestamp beatAt = resultSet.next() ? resultSet.getTimestamp(1) : null;
+            return beatAt == null ? null : Duration.ofMillis(Math.max(0, now - beatAt.getTime()));
+        } catch (SQLException e) {
+            log.debug("cannot read replication heartbeat", e);
+            return null;
+        }
+    }
+
+    private void beat() {
+        try(Connection connection = primary.getConnection()) {
+            final Timestamp now = new Timestamp(System.currentTimeMillis());
+            try(PreparedStatement update = connection.prepareStatement("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1")) {
+                update.setTimestamp(1, now);
+                if(update.executeUpdate() > 0) {
+                    return;
+                }
+            }
+            try(PreparedStatement insert = connection.prepareStatement("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)")) {
+                insert.setTimestamp(1, now);
+                insert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            log.warn("cannot write replication heartbeat", e);
+        }
+    }
+
+    private void execute(final DataSource dataSource, final String sql) {
+        try(Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("cannot execute : " + sql, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if(scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static class Sample {
+        private final long checkedAt;
+        private final Duration lag;
+
+        Sample(final long checkedAt, final Duration lag) {
+            this.checkedAt = checkedAt;
+            this.lag = lag;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.pasudo123.study.demo.support;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * JPQL 직렬화를 QueryShapeCache 에 맡기는 JPAQuery
+ * 실행하는 동안에는 QueryOrigin.QUERYDSL 로 표시해서 SQL 통계에서 querydsl 쿼리를 구분한다.
+ */
+public class ShapeCachingJPAQuery<T> extends JPAQuery<T> {
+
+    private final QueryShapeCache shapeCache;
+
+    public ShapeCachingJPAQuery(final EntityManager em, final JPQLTemplates templates, final QueryShapeCache shapeCache) {
+        super(em, templates);
+        this.shapeCache = shapeCache;
+    }
+
+    protected ShapeCachingJPAQuery(final EntityManager em, final JPQLTemplates templates, final QueryMetadata metadata, final QueryShapeCache shapeCache) {
+        super(em, templates, metadata);
+        this.shapeCache = shapeCache;
+    }
+
+    @Override
+    protected JPQLSerializer serialize(final boolean forCountRow) {
+        return shapeCache.serialize(getMetadata(), forCountRow, this::createSerializer);
+    }
+
+    @Override
+    public List<T> fetch() {
+        return QueryOrigin.QUERYDSL.execute(super::fetch);
+    }
+
+    @Override
+    public T fetchOne() {
+        return QueryOrigin.QUERYDSL.execute(super::fetchOne);
+    }
+
+    @Override
+    public QueryResults<T> fetchResults() {
+        return QueryOrigin.QUERYDSL.execute(super::fetchResults);
+    }
+
+    @Override
+    public long fetchCount() {
+        return QueryOrigin.QUERYDSL.execute(super::fetchCount);
+    }
+
+    /**
+     * 커서로 읽는 동안 나가는 SQL 은 첫 실행만 querydsl 로 센다.
+     */
+    @Override
+    public CloseableIterator<T> iterate() {
+        return QueryOrigin.QUERYDSL.execute(super::iterate);
+    }
+
+    @Override
+    public ShapeCachingJPAQuery<T> clone(final EntityManager entityManager, final JPQLTemplates templates) {
+        final ShapeCachingJPAQuery<T> query = new ShapeCachingJPAQuery<>(entityManager, templates, getMetadata().clone(), shapeCache);
+        query.clone(this);
+        return query;
+    }
+}
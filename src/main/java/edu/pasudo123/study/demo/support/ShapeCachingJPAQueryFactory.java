@@ -0,0 +1,31 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select / selectFrom 으로 만든 쿼리가 QueryShapeCache 를 사용하도록 하는 JPAQueryFactory
+ * update / delete / insert 절은 기존과 같다.
+ */
+public class ShapeCachingJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+    private final JPQLTemplates templates;
+    private final QueryShapeCache shapeCache;
+
+    public ShapeCachingJPAQueryFactory(final EntityManager em, final QueryShapeCache shapeCache) {
+        super(HQLTemplates.DEFAULT, em);
+        this.em = em;
+        this.templates = HQLTemplates.DEFAULT;
+        this.shapeCache = shapeCache;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new ShapeCachingJPAQuery<Void>(em, templates, shapeCache);
+    }
+}
@@ -0,0 +1,48 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SqlScope 하나에 허용하는 SQL 수와 같은 연관관계 지연 로딩 횟수
+ * 0 이하는 제한하지 않는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlBudget {
+
+    private final int maxStatements;
+    private final int repeatedLazyLoadThreshold;
+    private final boolean failOnExceed;
+
+    /**
+     * 예산을 넘었으면 경고 로그를 남기거나 SqlBudgetExceededException 을 던진다.
+     */
+    public void check(final SqlScope scope) {
+        final List<String> violations = violations(scope);
+        if(violations.isEmpty()) {
+            return;
+        }
+
+        final String message = scope.getName() + " : " + String.join(", ", violations);
+        if(failOnExceed) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn("sql budget exceeded. {}", message);
+    }
+
+    public List<String> violations(final SqlScope scope) {
+        final List<String> violations = new ArrayList<>();
+        if(maxStatements > 0 && scope.getStatements() > maxStatements) {
+            violations.add("statements " + scope.getStatements() + " > " + maxStatements);
+        }
+        if(repeatedLazyLoadThreshold > 0) {
+            scope.getRepeatedLazyLoads(repeatedLazyLoadThreshold).forEach((role, count) ->
+                    violations.add("N+1 suspected : " + role + " lazy loaded " + count + " times"));
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,11 @@
+package edu.pasudo123.study.demo.support;
+
+/**
+ * 요청 / 트랜잭션이 SQL 예산을 넘었을 때 (demo.sql-budget.mode: fail)
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,85 @@
+package edu.pasudo123.study.demo.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 스레드별로 열린 SqlScope 에 SQL 수, 지연 로딩 수를 센다.
+ *
+ * SQL 은 hibernate StatementInspector 가, 지연 로딩은 hibernate load / init-collection 이벤트 리스너가 알려준다.
+ * 지연 로딩 전후로 SQL 수를 비교해서, 1차 캐시나 2차 캐시에서 바로 가져온 로딩(SQL 없음) 은 세지 않는다.
+ */
+public final class SqlCounter {
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private SqlCounter() {
+    }
+
+    public static SqlScope open(final String name) {
+        final SqlScope scope = new SqlScope(name);
+        CONTEXT.get().scopes.add(scope);
+        return scope;
+    }
+
+    static void close(final SqlScope scope) {
+        final Context context = CONTEXT.get();
+        context.scopes.remove(scope);
+        if(context.scopes.isEmpty()) {
+            context.pendingLoads.clear();
+        }
+    }
+
+    /**
+     * @return 현재 스레드에 열린 범위 (먼저 연 순서)
+     */
+    public static List<SqlScope> scopes() {
+        return new ArrayList<>(CONTEXT.get().scopes);
+    }
+
+    public static void statement() {
+        final Context context = CONTEXT.get();
+        context.statements++;
+        for(SqlScope scope : context.scopes) {
+            if(!scope.isSuspended()) {
+                scope.statement();
+            }
+        }
+    }
+
+    public static void beforeLazyLoad() {
+        final Context context = CONTEXT.get();
+        if(!context.scopes.isEmpty()) {
+            context.pendingLoads.push(context.statements);
+        }
+    }
+
+    /**
+     * @param role 지연 로딩된 엔티티 이름 또는 컬렉션 role
+     */
+    public static void afterLazyLoad(final String role) {
+        final Context context = CONTEXT.get();
+        if(context.pendingLoads.isEmpty()) {
+            return;
+        }
+
+        final long statementsBefore = context.pendingLoads.pop();
+        if(context.statements == statementsBefore) {
+            return;
+        }
+
+        for(SqlScope scope : context.scopes) {
+            if(!scope.isSuspended()) {
+                scope.lazyLoad(role);
+            }
+        }
+    }
+
+    private static class Context {
+        private final List<SqlScope> scopes = new ArrayList<>();
+        private final Deque<Long> pendingLoads = new ArrayDeque<>();
+        private long statements;
+    }
+}
@@ -0,0 +1,72 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL 수와 SQL 을 실행시킨 지연 로딩 수를 세는 범위 (HTTP 요청, 트랜잭션, 테스트 assertion)
+ *
+ * SqlCounter.open 으로 열고 close 로 닫는다. 한 스레드에 열린 범위가 여러 개면 실행된 SQL 은 모든 범위에 센다.
+ * 지연 로딩은 연관관계(엔티티 이름 / 컬렉션 role) 별로 세므로, 같은 연관관계가 반복해서 로딩되면 N+1 을 의심할 수 있다.
+ */
+@Getter
+public class SqlScope implements AutoCloseable {
+
+    private final String name;
+    private int statements;
+    private final Map<String, Integer> lazyLoads = new LinkedHashMap<>();
+    private boolean suspended;
+
+    SqlScope(final String name) {
+        this.name = name;
+    }
+
+    void statement() {
+        statements++;
+    }
+
+    void lazyLoad(final String role) {
+        lazyLoads.merge(role, 1, Integer::sum);
+    }
+
+    public Map<String, Integer> getLazyLoads() {
+        return Collections.unmodifiableMap(lazyLoads);
+    }
+
+    /**
+     * @return threshold 번 이상 지연 로딩된 연관관계와 횟수
+     */
+    public Map<String, Integer> getRepeatedLazyLoads(final int threshold) {
+        final Map<String, Integer> repeated = new LinkedHashMap<>();
+        lazyLoads.forEach((role, count) -> {
+            if(count >= threshold) {
+                repeated.put(role, count);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * 트랜잭션이 REQUIRES_NEW 등으로 잠시 중단된 동안에는 세지 않는다.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    public void resume() {
+        suspended = false;
+    }
+
+    @Override
+    public void close() {
+        SqlCounter.close(this);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (statements=" + statements + ", lazyLoads=" + lazyLoads + ")";
+    }
+}
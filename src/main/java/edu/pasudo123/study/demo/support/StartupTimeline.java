@@ -0,0 +1,100 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 애플리케이션 기동 단계 별 소요 시간
+ *
+ * 단계(phase) 는 기동 이벤트 사이의 구간이고, 하위 단계는 상위 단계 안에서 특정 빈 생성이나 작업에 쓴 시간을 합한 것이다.
+ * 빈 별 시간은 그 빈을 만드는 동안 함께 만든 다른 빈의 시간을 뺀 값(exclusive) 이다.
+ */
+public class StartupTimeline {
+
+    public static final String JPA_BOOTSTRAP = "jpa bootstrap";
+    public static final String SCHEMA_GENERATION = "schema generation";
+    public static final String REPOSITORIES = "repositories";
+
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, LongAdder> accumulated = new ConcurrentHashMap<>();
+    private final Map<String, Long> beans = new ConcurrentHashMap<>();
+
+    public synchronized void phase(final String name, final int depth, final long nanos) {
+        phases.add(new Phase(name, depth, TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    /**
+     * 하위 단계에 시간을 더한다. (여러 빈, 여러 번의 작업에 걸친 시간)
+     */
+    public void accumulate(final String name, final long nanos) {
+        accumulated.computeIfAbsent(name, key -> new LongAdder()).add(nanos);
+    }
+
+    public long accumulated(final String name) {
+        final LongAdder adder = accumulated.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public void bean(final String name, final long nanos) {
+        beans.merge(name, nanos, Long::sum);
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    public List<BeanTiming> slowestBeans(final int limit) {
+        return beans.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> new BeanTiming(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    public String report(final int slowestBeans) {
+        final StringBuilder report = new StringBuilder("startup timeline");
+        for(Phase phase : getPhases()) {
+            final String indent = phase.depth == 0 ? "" : "  - ";
+            report.append(String.format("%n  %-30s%8d ms", indent + phase.name, phase.millis));
+        }
+
+        final List<BeanTiming> timings = slowestBeans(slowestBeans);
+        if(!timings.isEmpty()) {
+            report.append(String.format("%n  slowest beans"));
+            for(BeanTiming timing : timings) {
+                report.append(String.format("%n    %-60s%8d ms", timing.name, timing.millis));
+            }
+        }
+        return report.toString();
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Phase {
+
+        private final String name;
+        /** 0 : 기동 단계, 1 : 상위 단계 안의 하위 단계 */
+        private final int depth;
+        private final long millis;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class BeanTiming {
+
+        private final String name;
+        private final long millis;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.pasudo123.study.demo.support;
+
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.hibernate.HibernateQuery;
+import com.querydsl.jpa.hibernate.StatelessSessionHolder;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * querydsl 엔티티 쿼리를 StatelessSession 으로 실행한다. (ReadMode.STATELESS)
+ *
+ * 결과 엔티티는 영속성 컨텍스트에 등록되지 않으므로 스냅샷, EntityEntry 를 만들지 않고 flush, dirty checking 대상도 아니다.
+ * 2차 캐시도 읽거나 쓰지 않는다.
+ * StatelessSession 은 EntityManager 의 현재 커넥션을 그대로 사용하므로 같은 트랜잭션 안에서 읽는다.
+ *
+ * 지연 로딩을 할 수 없으므로 필요한 ToOne 연관관계는 쿼리에서 fetch join 하고, 컬렉션은 건드리지 않는다.
+ */
+public final class StatelessQuery {
+
+    private StatelessQuery() {
+    }
+
+    public static <T> List<T> fetch(final JPAQuery<T> query, final EntityManager em, final int fetchSize) {
+        final Session session = em.unwrap(Session.class);
+        final SessionFactory sessionFactory = session.getSessionFactory();
+
+        // StatelessSession 은 영속성 컨텍스트를 보지 않으므로, 같은 트랜잭션에서 바꾼 내용이 보이도록 먼저 flush 한다.
+        if(TransactionSynchronizationManager.isActualTransactionActive() && session.getHibernateFlushMode() == FlushMode.AUTO) {
+            session.flush();
+        }
+
+        return QueryOrigin.QUERYDSL.execute(() -> session.doReturningWork(connection -> {
+            final StatelessSession statelessSession = sessionFactory.openStatelessSession(connection);
+            try {
+                return new HibernateQuery<T>(new StatelessSessionHolder(statelessSession), HQLTemplates.DEFAULT, query.getMetadata().clone())
+                        .setFetchSize(fetchSize)
+                        .fetch();
+            } finally {
+                statelessSession.close();
+            }
+        }));
+    }
+}
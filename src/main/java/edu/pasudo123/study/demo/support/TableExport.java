@@ -0,0 +1,72 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 내보낼 테이블과 컬럼
+ * 첫 번째 컬럼은 long 타입의 id 여야 하고, id 범위로 나눠서 병렬로 내보낸다.
+ */
+@Getter
+@ToString
+public class TableExport {
+
+    public enum ColumnType {
+        LONG,
+        INT,
+        STRING
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Column {
+        private final String name;
+        private final ColumnType type;
+    }
+
+    private final String table;
+    private final List<Column> columns;
+
+    private TableExport(final String table, final List<Column> columns) {
+        this.table = table;
+        this.columns = columns;
+    }
+
+    public static TableExport of(final String table, final Column... columns) {
+        if(columns.length == 0 || columns[0].getType() != ColumnType.LONG) {
+            throw new IllegalArgumentException("first column must be a long id : " + table);
+        }
+        return new TableExport(table, Collections.unmodifiableList(Arrays.asList(columns)));
+    }
+
+    public static Column longs(final String name) {
+        return new Column(name, ColumnType.LONG);
+    }
+
+    public static Column ints(final String name) {
+        return new Column(name, ColumnType.INT);
+    }
+
+    public static Column strings(final String name) {
+        return new Column(name, ColumnType.STRING);
+    }
+
+    String rangeSql() {
+        final String id = columns.get(0).getName();
+        return "SELECT MIN(" + id + "), MAX(" + id + ") FROM " + table;
+    }
+
+    String selectSql() {
+        final String id = columns.get(0).getName();
+        return "SELECT " + columns.stream().map(Column::getName).collect(Collectors.joining(", "))
+                + " FROM " + table
+                + " WHERE " + id + " BETWEEN ? AND ? ORDER BY " + id;
+    }
+}
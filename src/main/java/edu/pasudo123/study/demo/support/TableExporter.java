@@ -0,0 +1,211 @@
+package edu.pasudo123.study.demo.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 테이블을 JDBC 커서에서 바로 파일로 내보낸다.
+ *
+ * [min(id), max(id)] 를 parallelism 개의 범위로 나눠서 범위마다 커넥션 하나로 읽고, 파트 파일 하나(table-000.csv ...) 에 쓴다.
+ * 엔티티나 로우 객체를 만들지 않고, 파트마다 bufferSize 의 direct 버퍼 하나를 재사용해서 FileChannel 로 쓴다.
+ * 파트는 같은 디렉토리의 고유한 임시 파일에 쓰고 모든 파트가 성공하면 이름을 바꾸므로,
+ * 실패한 내보내기나 같은 디렉토리로 동시에 실행된 내보내기가 서로의 파트를 덮어쓰지 않는다.
+ *
+ * 범위마다 커넥션을 하나씩 쓰므로 parallelism 은 커넥션 풀 크기보다 작게 둔다.
+ * 범위마다 별도의 트랜잭션으로 읽으므로 파트 파일들은 하나의 일관된 스냅샷이 아니다.
+ * 내보내는 동안 커밋된 변경은 이미 읽은 범위에는 빠지고 아직 읽지 않은 범위에는 들어가며,
+ * 범위 사이에서 id 가 바뀌지는 않으므로 로우가 중복되지는 않지만 max(id) 이후에 추가된 로우는 빠진다.
+ * 일관된 스냅샷이 필요하면 쓰기를 막은 상태에서 내보내거나 parallelism 을 1 로 둔다.
+ */
+@Slf4j
+public class TableExporter implements AutoCloseable {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int bufferSize;
+    private final int fetchSize;
+    private final int blockRows;
+    private final InstrumentedThreadPoolExecutor executor;
+
+    public TableExporter(final DataSource dataSource, final int parallelism, final int bufferSize, final int fetchSize, final int blockRows) {
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+        this.fetchSize = fetchSize;
+        this.blockRows = blockRows;
+        // 큐가 차면 호출 스레드도 파트를 내보낸다.
+        this.executor = new InstrumentedThreadPoolExecutor("export", parallelism, parallelism * 4, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public ExportResult export(final TableExport table, final ExportFormat format, final Path directory) {
+        final long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final List<CompletableFuture<Part>> futures = new ArrayList<>();
+        final List<long[]> ranges = ranges(table);
+        for(int i = 0; i < ranges.size(); i++) {
+            final Path file = directory.resolve(String.format("%s-%03d.%s", table.getTable(), i, format.getExtension()));
+            final long[] range = ranges.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> exportPart(table, format, file, range[0], range[1]), executor));
+        }
+
+        final List<Part> parts;
+        try {
+            parts = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.thenAccept(Part::discard));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        for(Part part : parts) {
+            part.commit();
+        }
+
+        final ExportResult result = new ExportResult(table.getTable(), format,
+                parts.stream().map(part -> part.file).collect(Collectors.toList()),
+                parts.stream().mapToLong(part -> part.rows).sum(),
+                parts.stream().mapToLong(part -> part.bytes).sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("export table={} format={} parts={} rows={} bytes={} elapsed={}ms rows/s={}",
+                result.getTable(), format, parts.size(), result.getRows(), result.getBytes(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * 빈 테이블도 헤더만 있는 파트 하나를 만든다.
+     */
+    private List<long[]> ranges(final TableExport table) {
+        final long minId;
+        final long maxId;
+        try(Connection connection = dataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(table.rangeSql());
+            ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            minId = resultSet.getLong(1);
+            if(resultSet.wasNull()) {
+                return singleEmptyRange();
+            }
+            maxId = resultSet.getLong(2);
+        } catch (SQLException e) {
+            throw new IllegalStateException("cannot read id range : " + table.getTable(), e);
+        }
+
+        final List<long[]> ranges = new ArrayList<>();
+        final long step = (maxId - minId) / parallelism + 1;
+        for(long from = minId; from <= maxId; from += step) {
+            ranges.add(new long[]{from, Math.min(maxId, from + step - 1)});
+        }
+        return ranges;
+    }
+
+    private List<long[]> singleEmptyRange() {
+        final List<long[]> ranges = new ArrayList<>();
+        ranges.add(new long[]{1, 0});
+        return ranges;
+    }
+
+    private Part exportPart(final TableExport table, final ExportFormat format, final Path file, final long fromId, final long toId) {
+        final Path temporary;
+        try {
+            temporary = Files.createTempFile(file.getParent(), file.getFileName() + ".", TEMPORARY_SUFFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long rows = 0;
+
+        try(Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            // 드라이버에 따라(postgresql 등) autocommit 이 꺼져 있어야 fetchSize 만큼씩 커서로 읽는다.
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try(PreparedStatement statement = connection.prepareStatement(table.selectSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ChannelOutput output = new ChannelOutput(temporary, bufferSize)) {
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, fromId);
+                statement.setLong(2, toId);
+
+                final ExportWriter writer = format.writer(table, output, blockRows);
+                try(ResultSet resultSet = statement.executeQuery()) {
+                    while(resultSet.next()) {
+                        writer.write(resultSet);
+                        rows++;
+                    }
+                }
+                writer.finish();
+                return new Part(file, temporary, rows, output.getBytes());
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            deleteQuietly(temporary);
+            throw new IllegalStateException("export failed : " + table.getTable() + " [" + fromId + ", " + toId + "]", e);
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("cannot delete {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class Part {
+        private final Path file;
+        private final Path temporary;
+        private final long rows;
+        private final long bytes;
+
+        Part(final Path file, final Path temporary, final long rows, final long bytes) {
+            this.file = file;
+            this.temporary = temporary;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        void commit() {
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void discard() {
+            deleteQuietly(temporary);
+        }
+    }
+}
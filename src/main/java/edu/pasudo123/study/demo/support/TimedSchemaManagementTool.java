@@ -0,0 +1,85 @@
+package edu.pasudo123.study.demo.support;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.tool.schema.internal.HibernateSchemaManagementTool;
+import org.hibernate.tool.schema.internal.exec.GenerationTarget;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaCreator;
+import org.hibernate.tool.schema.spi.SchemaDropper;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaMigrator;
+import org.hibernate.tool.schema.spi.SchemaValidator;
+import org.hibernate.tool.schema.spi.SourceDescriptor;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+
+import java.util.Map;
+
+/**
+ * hibernate 스키마 생성(drop, create, update, validate) 에 걸린 시간을 StartupTimeline 에 더하는 SchemaManagementTool
+ * 실제 작업은 기본 구현(HibernateSchemaManagementTool) 에 맡긴다.
+ */
+public class TimedSchemaManagementTool implements SchemaManagementTool, ServiceRegistryAwareService {
+
+    private final HibernateSchemaManagementTool delegate;
+    private final StartupTimeline timeline;
+
+    public TimedSchemaManagementTool(final HibernateSchemaManagementTool delegate, final StartupTimeline timeline) {
+        this.delegate = delegate;
+        this.timeline = timeline;
+    }
+
+    @Override
+    public void injectServices(final ServiceRegistryImplementor serviceRegistry) {
+        delegate.injectServices(serviceRegistry);
+    }
+
+    @Override
+    public SchemaCreator getSchemaCreator(final Map options) {
+        final SchemaCreator creator = delegate.getSchemaCreator(options);
+        return (metadata, executionOptions, source, target) -> time(() -> creator.doCreation(metadata, executionOptions, source, target));
+    }
+
+    @Override
+    public SchemaDropper getSchemaDropper(final Map options) {
+        final SchemaDropper dropper = delegate.getSchemaDropper(options);
+        return new SchemaDropper() {
+            @Override
+            public void doDrop(final Metadata metadata, final ExecutionOptions executionOptions, final SourceDescriptor source, final TargetDescriptor target) {
+                time(() -> dropper.doDrop(metadata, executionOptions, source, target));
+            }
+
+            @Override
+            public DelayedDropAction buildDelayedAction(final Metadata metadata, final ExecutionOptions executionOptions, final SourceDescriptor source) {
+                return dropper.buildDelayedAction(metadata, executionOptions, source);
+            }
+        };
+    }
+
+    @Override
+    public SchemaMigrator getSchemaMigrator(final Map options) {
+        final SchemaMigrator migrator = delegate.getSchemaMigrator(options);
+        return (metadata, executionOptions, target) -> time(() -> migrator.doMigration(metadata, executionOptions, target));
+    }
+
+    @Override
+    public SchemaValidator getSchemaValidator(final Map options) {
+        final SchemaValidator validator = delegate.getSchemaValidator(options);
+        return (metadata, executionOptions) -> time(() -> validator.doValidation(metadata, executionOptions));
+    }
+
+    public void setCustomDatabaseGenerationTarget(final GenerationTarget generationTarget) {
+        delegate.setCustomDatabaseGenerationTarget(generationTarget);
+    }
+
+    private void time(final Runnable work) {
+        final long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            timeline.accumulate(StartupTimeline.SCHEMA_GENERATION, System.nanoTime() - start);
+        }
+    }
+}
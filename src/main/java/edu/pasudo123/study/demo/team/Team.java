@@ -2,26 +2,36 @@ package edu.pasudo123.study.demo.team;
 
 import edu.pasudo123.study.demo.member.Member;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+@NamedEntityGraph(name = Team.WITH_MEMBERS, attributeNodes = @NamedAttributeNode("members"))
 @Table(name = "Team")
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class Team {
 
+    public static final String WITH_MEMBERS = "Team.withMembers";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 insert 시점에 id 를 받아와야 해서 JDBC batch insert 가 비활성화된다.
+    // pooled 시퀀스로 allocationSize 만큼 id 를 미리 할당 받아 batch insert 가 가능하도록 한다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
     private String name;
 
     @OneToMany(mappedBy = "team", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
     @ToString.Exclude
     List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,119 @@
+package edu.pasudo123.study.demo.team;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+
+@Repository
+public class TeamJpaRepository {
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final int fetchBatchSize;
+
+    public TeamJpaRepository(final EntityManager em,
+                             final JPAQueryFactory queryFactory,
+                             @Value("${demo.fetch-plan.batch-size:100}") final int fetchBatchSize) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.fetchBatchSize = fetchBatchSize;
+    }
+
+    public Team save(final Team team) {
+        if(team.getId() == null) {
+            em.persist(team);
+            return team;
+        } else {
+            return em.merge(team);
+        }
+    }
+
+    /**
+     * 대량 저장
+     * batchSize 건마다 flush(JDBC batch insert) 후 clear 한다.
+     */
+    public List<Team> saveAll(final List<Team> teams) {
+        return saveAll(teams, DEFAULT_BATCH_SIZE);
+    }
+
+    public List<Team> saveAll(final List<Team> teams, final int batchSize) {
+        for(int i = 0; i < teams.size(); i++) {
+            em.persist(teams.get(i));
+
+            if((i + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+
+        em.flush();
+        em.clear();
+        return teams;
+    }
+
+    public Optional<Team> findById(final Long id) {
+        return Optional.ofNullable(em.find(Team.class, id));
+    }
+
+    /**
+     * fetch plan 에 따라 team.members 를 함께 가져온다. (id 순)
+     *
+     * ENTITY_GRAPH 는 컬렉션 fetch join 이므로 팀 로우가 멤버 수만큼 늘어난다. (distinct 는 애플리케이션에서만 적용한다.)
+     * 페이징이 필요하면 limit 이 메모리에서 처리되므로 BATCH 를 사용한다.
+     */
+    public List<Team> findBy(final Predicate predicate, final FetchPlan plan) {
+        final JPAQuery<Team> query = queryFactory
+                .selectFrom(team)
+                .where(predicate)
+                .orderBy(team.id.asc());
+
+        if(plan == FetchPlan.ENTITY_GRAPH) {
+            query.distinct()
+                    .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                    .setHint(QueryHints.HINT_FETCHGRAPH, em.getEntityGraph(Team.WITH_MEMBERS));
+        }
+
+        final List<Team> teams = query.fetch();
+
+        if(plan == FetchPlan.BATCH) {
+            fetchMembers(teams);
+        }
+        return teams;
+    }
+
+    /**
+     * 초기화되지 않은 team.members 를 가진 팀을 batch-size 개씩 IN 절 fetch join 으로 다시 조회한다.
+     * 이미 영속성 컨텍스트에 있는 팀이어도 hibernate 가 결과 로우로 그 팀의 컬렉션을 초기화한다.
+     */
+    private void fetchMembers(final List<Team> teams) {
+        final List<Long> teamIds = teams.stream()
+                .filter(each -> !Hibernate.isInitialized(each.getMembers()))
+                .map(Team::getId)
+                .collect(Collectors.toList());
+
+        for(List<Long> ids : FetchPlan.partition(teamIds, fetchBatchSize)) {
+            queryFactory
+                    .selectFrom(team)
+                    .distinct()
+                    .leftJoin(team.members, member).fetchJoin()
+                    .where(team.id.in(ids))
+                    .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                    .fetch();
+        }
+    }
+}
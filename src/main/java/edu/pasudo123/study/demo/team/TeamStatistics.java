@@ -0,0 +1,47 @@
+package edu.pasudo123.study.demo.team;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 팀 별 member 집계 (member 수, 나이 합, 최소 / 최대 나이)
+ *
+ * member 테이블을 group by 하지 않고 팀 수만큼만 읽도록 미리 집계해 둔 테이블이다.
+ * 값은 TeamStatisticsListener 와 TeamStatisticsService 가 JDBC 로 갱신하므로 JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "team_statistics")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStatistics {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    @Column(name = "age_sum", nullable = false)
+    private long ageSum;
+
+    @Column(name = "min_age")
+    private Integer minAge;
+
+    @Column(name = "max_age")
+    private Integer maxAge;
+
+    public Double getAverageAge() {
+        return memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
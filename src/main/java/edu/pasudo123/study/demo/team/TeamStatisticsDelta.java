@@ -0,0 +1,150 @@
+package edu.pasudo123.study.demo.team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 한 트랜잭션 동안 쌓인 팀 별 집계 변화량
+ *
+ * member 가 추가되면 최소 / 최대 나이를 바로 넓힐 수 있지만, 빠지면 남은 member 에서 다시 구해야 하므로 팀에 표시만 해둔다.
+ * 같은 팀의 변화는 하나로 합쳐서 커밋 직전에 팀마다 한 번씩만 반영한다.
+ *
+ * 집계 행이 없는 팀은 변화량이 아니라 member 에서 구한 집계로 행을 만든다. (이번 트랜잭션의 변경은 flush 되어 있으므로 포함된다.)
+ * 다른 트랜잭션이 먼저 행을 만들어서 insert 가 중복 키로 실패하면, 그 행은 이번 변경을 볼 수 없었으므로 변화량을 다시 더한다.
+ */
+class TeamStatisticsDelta {
+
+    static final String APPLY = "UPDATE team_statistics SET member_count = member_count + ?, age_sum = age_sum + ?, "
+            + "min_age = CASE WHEN min_age IS NULL OR ? < min_age THEN ? ELSE min_age END, "
+            + "max_age = CASE WHEN max_age IS NULL OR ? > max_age THEN ? ELSE max_age END "
+            + "WHERE team_id = ?";
+
+    static final String SEED = "INSERT INTO team_statistics (team_id, member_count, age_sum, min_age, max_age) "
+            + "SELECT ?, COUNT(m.id), COALESCE(SUM(m.age), 0), MIN(m.age), MAX(m.age) FROM member m WHERE m.team_id = ? "
+            + "HAVING COUNT(m.id) > 0";
+
+    private static final String DUPLICATE_KEY = "23505";
+
+    static final String REFRESH_BOUNDS = "UPDATE team_statistics SET "
+            + "min_age = (SELECT MIN(m.age) FROM member m WHERE m.team_id = ?), "
+            + "max_age = (SELECT MAX(m.age) FROM member m WHERE m.team_id = ?) "
+            + "WHERE team_id = ?";
+
+    private final Map<Long, Change> changes = new HashMap<>();
+
+    void add(final Long teamId, final int age) {
+        if(teamId != null) {
+            changes.computeIfAbsent(teamId, key -> new Change()).add(age);
+        }
+    }
+
+    void remove(final Long teamId, final int age) {
+        if(teamId != null) {
+            changes.computeIfAbsent(teamId, key -> new Change()).remove(age);
+        }
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    void apply(final Connection connection) throws SQLException {
+        try(PreparedStatement apply = connection.prepareStatement(APPLY);
+            PreparedStatement seed = connection.prepareStatement(SEED);
+            PreparedStatement refreshBounds = connection.prepareStatement(REFRESH_BOUNDS)) {
+
+            for(Map.Entry<Long, Change> entry : changes.entrySet()) {
+                final Long teamId = entry.getKey();
+                final Change change = entry.getValue();
+                if(change.count == 0 && change.ageSum == 0 && !change.removed) {
+                    continue;
+                }
+
+                if(apply(apply, teamId, change) == 0) {
+                    if(seed(connection, seed, teamId)) {
+                        // member 에서 구한 집계이므로 최소 / 최대 나이도 맞다.
+                        continue;
+                    }
+                    apply(apply, teamId, change);
+                }
+
+                if(change.removed) {
+                    refreshBounds.setLong(1, teamId);
+                    refreshBounds.setLong(2, teamId);
+                    refreshBounds.setLong(3, teamId);
+                    refreshBounds.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private int apply(final PreparedStatement apply, final Long teamId, final Change change) throws SQLException {
+        apply.setLong(1, change.count);
+        apply.setLong(2, change.ageSum);
+        // 추가된 member 가 없으면(null) 비교가 거짓이 되어 기존 값을 유지한다.
+        setInteger(apply, 3, change.minAge);
+        setInteger(apply, 4, change.minAge);
+        setInteger(apply, 5, change.maxAge);
+        setInteger(apply, 6, change.maxAge);
+        apply.setLong(7, teamId);
+        return apply.executeUpdate();
+    }
+
+    /**
+     * 집계 행이 없는 팀의 행을 member 에서 구한 집계로 만든다. (member 가 없으면 만들지 않는다.)
+     * 중복 키로 실패해도 트랜잭션이 깨지지 않도록 savepoint 로 되돌린다.
+     *
+     * @return 다른 트랜잭션이 먼저 행을 만들었으면 false
+     */
+    static boolean seed(final Connection connection, final PreparedStatement seed, final Long teamId) throws SQLException {
+        final Savepoint savepoint = connection.setSavepoint();
+        try {
+            seed.setLong(1, teamId);
+            seed.setLong(2, teamId);
+            seed.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+            return true;
+        } catch (SQLException e) {
+            if(!(e instanceof SQLIntegrityConstraintViolationException) && !DUPLICATE_KEY.equals(e.getSQLState())) {
+                throw e;
+            }
+            connection.rollback(savepoint);
+            return false;
+        }
+    }
+
+    private static void setInteger(final PreparedStatement statement, final int index, final Integer value) throws SQLException {
+        if(value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static class Change {
+        private long count;
+        private long ageSum;
+        private Integer minAge;
+        private Integer maxAge;
+        private boolean removed;
+
+        void add(final int age) {
+            count++;
+            ageSum += age;
+            minAge = minAge == null ? age : Math.min(minAge, age);
+            maxAge = maxAge == null ? age : Math.max(maxAge, age);
+        }
+
+        void remove(final int age) {
+            count--;
+            ageSum -= age;
+            removed = true;
+        }
+    }
+}
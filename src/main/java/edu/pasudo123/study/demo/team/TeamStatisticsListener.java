@@ -0,0 +1,116 @@
+package edu.pasudo123.study.demo.team;
+
+import edu.pasudo123.study.demo.member.Member;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member 의 persist / remove / changeTeam / 나이 변경을 team_statistics 에 반영한다.
+ *
+ * flush 중에는 변화량만 세션 별로 모으고, 커밋 직전(BeforeTransactionCompletionProcess) 에 같은 커넥션으로 한 번에 반영한다.
+ * 집계가 member 변경과 같은 트랜잭션에서 커밋되므로 롤백되면 함께 버려진다.
+ * querydsl 벌크 update / delete 는 엔티티 이벤트가 없으므로 TeamStatisticsService#refresh 로 맞춘다.
+ */
+public class TeamStatisticsListener implements PostInsertEventListener, PostDeleteEventListener, PostUpdateEventListener {
+
+    private final Map<SharedSessionContractImplementor, TeamStatisticsDelta> deltas = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if(event.getEntity() instanceof Member) {
+            final Member member = (Member) event.getEntity();
+            delta(event.getSession()).add(teamId(member.getTeam()), member.getAge());
+        }
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if(event.getEntity() instanceof Member) {
+            final Object[] state = event.getDeletedState();
+            final EntityPersister persister = event.getPersister();
+            delta(event.getSession()).remove(teamId(team(persister, state)), age(persister, state));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if(!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        final Member member = (Member) event.getEntity();
+        final Object[] oldState = event.getOldState();
+        if(oldState == null) {
+            // 이전 상태를 모르는 update (준영속 엔티티 update 등) 는 재집계에서 맞춘다.
+            return;
+        }
+
+        final EntityPersister persister = event.getPersister();
+        final Long oldTeamId = teamId(team(persister, oldState));
+        final int oldAge = age(persister, oldState);
+        final Long newTeamId = teamId(member.getTeam());
+
+        if(Objects.equals(oldTeamId, newTeamId) && oldAge == member.getAge()) {
+            return;
+        }
+
+        final TeamStatisticsDelta delta = delta(event.getSession());
+        delta.remove(oldTeamId, oldAge);
+        delta.add(newTeamId, member.getAge());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 세션에서 처음 변화가 생기면 커밋 직전 반영과 완료 후 정리 작업을 등록한다.
+     */
+    private TeamStatisticsDelta delta(final SessionImplementor session) {
+        return deltas.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> deltas.remove(completed));
+            return new TeamStatisticsDelta();
+        });
+    }
+
+    private void apply(final SessionImplementor session) {
+        final TeamStatisticsDelta delta = deltas.remove(session);
+        if(delta != null && !delta.isEmpty()) {
+            session.doWork(delta::apply);
+        }
+    }
+
+    private static Object team(final EntityPersister persister, final Object[] state) {
+        return state[persister.getEntityMetamodel().getPropertyIndex("team")];
+    }
+
+    private static int age(final EntityPersister persister, final Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private static Long teamId(final Object team) {
+        if(team == null) {
+            return null;
+        }
+        if(team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
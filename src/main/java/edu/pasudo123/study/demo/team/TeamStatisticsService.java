@@ -0,0 +1,275 @@
+package edu.pasudo123.study.demo.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static edu.pasudo123.study.demo.team.QTeamStatistics.teamStatistics;
+
+/**
+ * 팀 별 member 집계 조회 / 재집계
+ *
+ * 평소에는 TeamStatisticsListener 가 member 변경을 증분으로 반영한다.
+ * 엔티티 이벤트를 거치지 않는 벌크 연산은 refresh 로 바뀐 팀만 다시 집계하고,
+ * 그래도 어긋난 집계(drift) 는 기동할 때와 rebuildInterval 마다 전체 재집계로 바로잡는다.
+ *
+ * 다시 집계할 때는 집계 행을 먼저 잠그고(select for update) member 에서 구한 값을 DB 안에서 바로 쓴다.
+ * 그 사이에 커밋되는 다른 트랜잭션의 변화량은 잠금이 풀린 뒤에 더해지므로 덮어써지지 않는다.
+ */
+@Slf4j
+@Service
+public class TeamStatisticsService {
+
+    private static final NumberExpression<Long> MEMBER_COUNT = member.count();
+    // sum(int) 은 hibernate 가 Long 으로 돌려주므로 타입을 맞춘다.
+    private static final NumberExpression<Long> AGE_SUM = member.age.sum().longValue();
+    private static final NumberExpression<Integer> MIN_AGE = member.age.min();
+    private static final NumberExpression<Integer> MAX_AGE = member.age.max();
+
+    private static final String LOCK = "SELECT team_id FROM team_statistics WHERE team_id = ? FOR UPDATE";
+    private static final String UPDATE = "UPDATE team_statistics SET "
+            + "member_count = (SELECT COUNT(m.id) FROM member m WHERE m.team_id = ?), "
+            + "age_sum = (SELECT COALESCE(SUM(m.age), 0) FROM member m WHERE m.team_id = ?), "
+            + "min_age = (SELECT MIN(m.age) FROM member m WHERE m.team_id = ?), "
+            + "max_age = (SELECT MAX(m.age) FROM member m WHERE m.team_id = ?) "
+            + "WHERE team_id = ?";
+    private static final String DELETE_EMPTY = "DELETE FROM team_statistics WHERE team_id = ? AND member_count = 0";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate rebuildTransaction;
+    private final Duration rebuildInterval;
+    private final boolean rebuildOnStartup;
+
+    private ScheduledExecutorService scheduler;
+
+    public TeamStatisticsService(final EntityManager em,
+                                 final JPAQueryFactory queryFactory,
+                                 final PlatformTransactionManager transactionManager,
+                                 @Value("${demo.team-statistics.rebuild-interval:1h}") final Duration rebuildInterval,
+                                 @Value("${demo.team-statistics.rebuild-on-startup:true}") final boolean rebuildOnStartup) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildInterval = rebuildInterval;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * 기동할 때의 재집계는 기동을 막지 않도록 스케줄러 스레드에서 바로 시작한다.
+     */
+    @PostConstruct
+    public void start() {
+        if(rebuildInterval.isZero() && !rebuildOnStartup) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "team-statistics-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if(rebuildOnStartup) {
+            scheduler.execute(this::scheduledRebuild);
+        }
+        if(!rebuildInterval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::scheduledRebuild,
+                    rebuildInterval.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if(scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public List<TeamStatistics> findAll() {
+        return queryFactory
+                .selectFrom(teamStatistics)
+                .where(teamStatistics.memberCount.gt(0))
+                .orderBy(teamStatistics.teamId.asc())
+                .fetch();
+    }
+
+    /**
+     * select team.name, avg(member.age) from member join team group by team.name 과 같은 결과를
+     * member 를 읽지 않고 팀 수만큼의 집계 행으로 구한다. (team.name 순)
+     */
+    public Map<String, Double> findAverageAgeByTeamName() {
+        final List<Tuple> tuples = queryFactory
+                .select(team.name, teamStatistics.ageSum.sum(), teamStatistics.memberCount.sum())
+                .from(teamStatistics, team)
+                .where(team.id.eq(teamStatistics.teamId), teamStatistics.memberCount.gt(0))
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch();
+
+        final Map<String, Double> averages = new LinkedHashMap<>();
+        for(Tuple tuple : tuples) {
+            averages.put(tuple.get(team.name),
+                    (double) tuple.get(teamStatistics.ageSum.sum()) / tuple.get(teamStatistics.memberCount.sum()));
+        }
+        return averages;
+    }
+
+    /**
+     * 주어진 팀만 member 에서 다시 집계한다. 호출자의 트랜잭션 안에서 실행한다.
+     * 벌크 update / delete 처럼 엔티티 이벤트가 없는 변경 후에 바뀐 팀(변경 전, 후 팀 모두) 을 넘긴다.
+     */
+    public void refresh(final Collection<Long> teamIds) {
+        // 여러 트랜잭션이 같은 팀들을 잠글 때 교착되지 않도록 id 순으로 잠근다.
+        final List<Long> ids = teamIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        if(ids.isEmpty()) {
+            return;
+        }
+
+        // native query 의 executeUpdate 는 영향받는 테이블을 모르면 2차 캐시 전체를 비우므로 JDBC 로 직접 쓴다.
+        em.flush();
+        em.unwrap(Session.class).doWork(connection -> {
+            try(PreparedStatement lock = connection.prepareStatement(LOCK);
+                PreparedStatement update = connection.prepareStatement(UPDATE);
+                PreparedStatement deleteEmpty = connection.prepareStatement(DELETE_EMPTY);
+                PreparedStatement seed = connection.prepareStatement(TeamStatisticsDelta.SEED)) {
+
+                for(Long teamId : ids) {
+                    if(!lock(lock, teamId)) {
+                        // 집계 행이 없으면 member 에서 구한 집계로 만든다.
+                        if(TeamStatisticsDelta.seed(connection, seed, teamId)) {
+                            continue;
+                        }
+                        // 다른 트랜잭션이 먼저 만들었다면 그 트랜잭션이 끝날 때까지 기다려서 잠그고 다시 구한다.
+                        lock(lock, teamId);
+                    }
+
+                    for(int i = 1; i <= 4; i++) {
+                        update.setLong(i, teamId);
+                    }
+                    update.setLong(5, teamId);
+                    update.executeUpdate();
+
+                    // member 가 없는 팀은 집계 행을 지운다.
+                    deleteEmpty.setLong(1, teamId);
+                    deleteEmpty.executeUpdate();
+                }
+            }
+        });
+    }
+
+    /**
+     * 전체 재집계
+     * 현재 집계와 member 에서 구한 집계를 잠그지 않고 비교해서 어긋난 팀을 찾고, 그 팀만 refresh 로 잠그고 다시 집계한다.
+     *
+     * @return 바로잡은 팀 수
+     */
+    public int rebuild() {
+        return rebuildTransaction.execute(status -> {
+            final Map<Long, TeamStatistics> current = queryFactory
+                    .selectFrom(teamStatistics)
+                    .fetch()
+                    .stream()
+                    .collect(Collectors.toMap(TeamStatistics::getTeamId, each -> each));
+            final Map<Long, Tuple> actual = aggregate();
+
+            final List<Long> corrections = new ArrayList<>();
+            int drifted = 0;
+            for(Map.Entry<Long, Tuple> entry : actual.entrySet()) {
+                final TeamStatistics statistics = current.remove(entry.getKey());
+                if(statistics == null || !matches(statistics, entry.getValue())) {
+                    corrections.add(entry.getKey());
+                    drifted++;
+                }
+            }
+
+            // member 가 하나도 없는 팀
+            for(TeamStatistics statistics : current.values()) {
+                corrections.add(statistics.getTeamId());
+                if(statistics.getMemberCount() != 0) {
+                    drifted++;
+                }
+            }
+
+            refresh(corrections);
+            return drifted;
+        });
+    }
+
+    private void scheduledRebuild() {
+        try {
+            final int drifted = rebuild();
+            if(drifted > 0) {
+                log.warn("team statistics rebuilt, drifted teams={}", drifted);
+            }
+        } catch (RuntimeException e) {
+            log.error("team statistics rebuild failed", e);
+        }
+    }
+
+    private Map<Long, Tuple> aggregate() {
+        final List<Tuple> tuples = queryFactory
+                .select(member.team.id, MEMBER_COUNT, AGE_SUM, MIN_AGE, MAX_AGE)
+                .from(member)
+                .where(member.team.id.isNotNull())
+                .groupBy(member.team.id)
+                .fetch();
+
+        final Map<Long, Tuple> aggregates = new HashMap<>();
+        for(Tuple tuple : tuples) {
+            aggregates.put(tuple.get(member.team.id), tuple);
+        }
+        return aggregates;
+    }
+
+    private boolean matches(final TeamStatistics statistics, final Tuple aggregate) {
+        return statistics.getMemberCount() == aggregate.get(MEMBER_COUNT)
+                && statistics.getAgeSum() == aggregate.get(AGE_SUM)
+                && Objects.equals(statistics.getMinAge(), aggregate.get(MIN_AGE))
+                && Objects.equals(statistics.getMaxAge(), aggregate.get(MAX_AGE));
+    }
+
+    /**
+     * 팀의 집계 행을 트랜잭션이 끝날 때까지 잠근다.
+     *
+     * @return 집계 행이 있으면 true
+     */
+    private boolean lock(final PreparedStatement lock, final Long teamId) throws SQLException {
+        lock.setLong(1, teamId);
+        try(ResultSet resultSet = lock.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+-- faststart 프로필에서 hibernate 스키마 생성(ddl-auto) 대신 실행하는 미리 만든 스키마
+-- 엔티티(Member, Team, TeamStatistics, MemberImportCheckpoint) 를 바꾸면 같이 고친다. (FastStartProfileTest 가 ddl-auto: validate 로 확인한다.)
+
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists team_seq start with 1 increment by 50;
+
+create table if not exists team (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists member (
+    id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (id),
+    constraint fk_member_team foreign key (team_id) references team
+);
+
+create index if not exists idx_member_username_id on member (username, id);
+create index if not exists idx_member_age_id on member (age, id);
+create index if not exists idx_member_team_id_age on member (team_id, age);
+
+create table if not exists team_statistics (
+    team_id bigint not null,
+    age_sum bigint not null,
+    max_age integer,
+    member_count bigint not null,
+    min_age integer,
+    primary key (team_id)
+);
+
+create table if not exists member_import_checkpoint (
+    id varchar(255) not null,
+    committed_offset bigint not null,
+    end_offset bigint not null,
+    import_id varchar(255) not null,
+    imported_rows bigint not null,
+    rejected_rows bigint not null,
+    segment integer not null,
+    start_offset bigint not null,
+    primary key (id)
+);
+
+create index if not exists idx_member_import_checkpoint_import_id on member_import_checkpoint (import_id);
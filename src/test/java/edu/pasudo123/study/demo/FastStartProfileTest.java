@@ -0,0 +1,103 @@
+package edu.pasudo123.study.demo;
+
+import edu.pasudo123.study.demo.config.StartupTimelineEndpoint;
+import edu.pasudo123.study.demo.config.StartupTimelineListener;
+import edu.pasudo123.study.demo.member.Member;
+import edu.pasudo123.study.demo.support.StartupTimeline;
+import edu.pasudo123.study.demo.team.Team;
+import edu.pasudo123.study.demo.team.TeamStatistics;
+import edu.pasudo123.study.demo.team.TeamStatisticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 미리 만든 스키마(db/schema-h2.sql) 가 엔티티와 맞는지 ddl-auto: validate 로 확인한다.
+ * 다른 테스트의 스키마와 섞이지 않도록 별도의 in-memory db 를 사용하므로 데이터를 정리하지 않는다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststart",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@DisplayName("faststart 프로필 테스트 클래스는")
+@ActiveProfiles({"test", "faststart"})
+public class FastStartProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TeamStatisticsService teamStatisticsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("main 과 같이 리스너를 붙여서 띄우면 기동 단계와 하위 단계 시간을 기록한다.")
+    public void timelineTest() {
+        final SpringApplication application = new SpringApplication(DemoApplication.class);
+        application.addListeners(new StartupTimelineListener());
+
+        try(ConfigurableApplicationContext timelineContext = application.run(
+                "--spring.profiles.active=test,faststart",
+                "--spring.datasource.url=jdbc:h2:mem:timeline",
+                "--server.port=0")) {
+            final StartupTimeline startupTimeline = timelineContext.getBean(StartupTimeline.class);
+
+            assertThat(startupTimeline.getPhases())
+                    .extracting(StartupTimeline.Phase::getName)
+                    .containsSubsequence("environment", "context prepare", "context refresh",
+                            StartupTimeline.JPA_BOOTSTRAP, StartupTimeline.SCHEMA_GENERATION, StartupTimeline.REPOSITORIES);
+            assertThat(startupTimeline.slowestBeans(10)).isNotEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("리스너 없이 뜬 컨텍스트는 빈 타임라인으로 기동한다.")
+    public void withoutTimelineTest() {
+        assertThat(context.getBeanNamesForType(StartupTimeline.class)).isEmpty();
+        assertThat(context.getBean(StartupTimelineEndpoint.class).startup()).containsKeys("phases", "slowestBeans");
+    }
+
+    @Test
+    @DisplayName("빈은 처음 사용할 때 만들고, 기동할 때 필요한 빈은 바로 만든다.")
+    public void lazyInitializationTest() {
+        final ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        assertThat(beanFactory.getBeanDefinition("memberExportService").isLazyInit()).isTrue();
+        assertThat(beanFactory.containsSingleton("memberExportService")).isFalse();
+        assertThat(beanFactory.getBeanDefinition("teamStatisticsService").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("teamStatisticsListenerRegistrar").isLazyInit()).isFalse();
+    }
+
+    @Test
+    @DisplayName("미리 만든 스키마에서도 member 변경이 team_statistics 에 반영된다.")
+    public void teamStatisticsTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            final Team fastTeam = Team.builder().name("FAST TEAM").build();
+            em.persist(Member.builder().username("FAST PARK").age(29).team(fastTeam).build());
+            em.persist(Member.builder().username("FAST SON").age(31).team(fastTeam).build());
+        });
+
+        final List<TeamStatistics> statistics = teamStatisticsService.findAll();
+
+        assertThat(statistics).hasSize(1);
+        assertThat(statistics.get(0).getMemberCount()).isEqualTo(2);
+        assertThat(statistics.get(0).getAverageAge()).isEqualTo(30.0);
+    }
+}
@@ -177,4 +177,28 @@ public class MemberAdvancedTest {
 
         accountDtos.forEach(System.out::println);
     }
+
+    @Test
+    @DisplayName("querydsl 이용, 생성된 프로젝션 팩토리 이용을 한다.")
+    public void findDtoByGeneratedProjection() {
+        /**
+         * package-info.java 의 @GenerateProjections 로 MemberDtoProjection, UserDtoProjection 을 생성한다.
+         * Dto 에는 querydsl 어노테이션이 필요없고, 로우마다 리플렉션 없이 생성자를 직접 호출한다.
+         * 생성자 파라미터와 타입이 맞지 않으면 @QueryProjection 처럼 컴파일 에러가 발생한다.
+         * **/
+        final List<MemberDto> memberDtos = queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+        final List<UserDto> userDtos = queryFactory
+                .select(new UserDtoProjection(member.username, member.age))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(memberDtos).extracting("username").containsExactly("ABA", "CHA", "PARK SUNG DONG", "SON");
+        assertThat(memberDtos).extracting("age").containsExactly(51, 51, 29, 29);
+        assertThat(userDtos).extracting("name").containsExactly("ABA", "CHA", "PARK SUNG DONG", "SON");
+    }
 }
@@ -0,0 +1,110 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.InstrumentedThreadPoolExecutor;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 비동기 리포지토리는 executor 스레드에서 자기 트랜잭션으로 실행되므로 테스트를 @Transactional 로 묶지 않는다.
+ */
+@SpringBootTest
+@DisplayName("Member 비동기 리포지토리 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberAsyncRepositoryTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberAsyncRepository memberAsyncRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void clean() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'ASYNC%'").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'ASYNC%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("저장과 조회를 전용 executor 에서 수행한다.")
+    public void saveAndFindTest() throws Exception {
+        final List<Member> saved = memberAsyncRepository.saveAll(Arrays.asList(
+                Member.builder().username("ASYNC PARK").age(29).team(Team.builder().name("ASYNC TEAM").build()).build(),
+                Member.builder().username("ASYNC SON").age(31).build())).get(5, TimeUnit.SECONDS);
+
+        final Long id = saved.get(0).getId();
+        final CompletableFuture<String> username = memberAsyncRepository.findById(id)
+                .thenApply(found -> found.map(Member::getUsername).orElse(null));
+        final CompletableFuture<List<Member>> withTeam = memberAsyncRepository.findBy(member.username.eq("ASYNC PARK"), FetchPlan.ENTITY_GRAPH);
+        final CompletableFuture<List<Member>> searched = memberAsyncRepository.search(
+                MemberSearchCondition.builder().age(31).build(), 0, 10);
+
+        assertThat(username.get(5, TimeUnit.SECONDS)).isEqualTo("ASYNC PARK");
+        assertThat(withTeam.get(5, TimeUnit.SECONDS).get(0).getTeam().getName()).isEqualTo("ASYNC TEAM");
+        assertThat(searched.get(5, TimeUnit.SECONDS)).extracting("username").contains("ASYNC SON");
+        assertThat(memberAsyncRepository.statistics().getCompletedTasks()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 스레드를 늘리지 않고 거절한다.")
+    public void rejectWhenQueueFullTest() throws Exception {
+        final InstrumentedThreadPoolExecutor executor =
+                new InstrumentedThreadPoolExecutor("test-async", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            final CompletableFuture<Void> running = CompletableFuture.runAsync(() -> await(release), executor);
+            final CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> { }, executor);
+
+            assertThatThrownBy(() -> CompletableFuture.runAsync(() -> { }, executor))
+                    .isInstanceOf(RejectedExecutionException.class);
+
+            final InstrumentedThreadPoolExecutor.Statistics statistics = executor.statistics();
+            assertThat(statistics.getPoolSize()).isEqualTo(1);
+            assertThat(statistics.getQueueDepth()).isEqualTo(1);
+            assertThat(statistics.getRejected()).isEqualTo(1);
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+
+            assertThat(executor.statistics().getMaxWaitNanos()).isPositive();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
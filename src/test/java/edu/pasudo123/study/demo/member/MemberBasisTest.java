@@ -2,6 +2,7 @@ package edu.pasudo123.study.demo.member;
 
 import com.querydsl.core.Tuple;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryBudget;
 import edu.pasudo123.study.demo.team.Team;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -196,11 +197,11 @@ class MemberBasisTest {
     public void querydslJoinTest() {
 
         // given
-        final List<Member> members = queryFactory
+        final List<Member> members = QueryBudget.assertMaxStatements(1, () -> queryFactory
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(team.name.eq("YES TEAM"))
-                .fetch();
+                .fetch());
 
         // when
         assertThat(members)
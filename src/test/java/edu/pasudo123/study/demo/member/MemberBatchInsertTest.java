@@ -0,0 +1,100 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("Member 대량 저장 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberBatchInsertTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void init() {
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Test
+    @DisplayName("batch 경계를 넘어서 같은 팀을 공유하는 회원도 저장된다.")
+    public void saveAllTest() {
+
+        // given
+        final List<Team> teams = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            teams.add(Team.builder().name("BATCH TEAM " + i).build());
+        }
+
+        // when
+        memberJpaRepository.saveAll(members("BATCH", 120, teams), 50);
+
+        // then
+        assertThat(queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("BATCH"))
+                .fetchCount()).isEqualTo(120);
+        assertThat(queryFactory
+                .selectFrom(team)
+                .where(team.name.startsWith("BATCH TEAM"))
+                .fetchCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("batch 경계를 넘어도 넘겨받은 회원의 팀은 바꾸지 않는다.")
+    public void saveAllKeepsTeamTest() {
+
+        // given
+        final List<Team> teams = teams("KEEP", 3);
+        final List<Member> members = members("KEEP", 120, teams);
+
+        // when
+        memberJpaRepository.saveAll(members, 50);
+
+        // then
+        for(int i = 0; i < members.size(); i++) {
+            assertThat(members.get(i).getTeam()).isSameAs(teams.get(i % teams.size()));
+        }
+    }
+
+    private List<Team> teams(final String prefix, final int count) {
+        final List<Team> teams = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            teams.add(Team.builder().name(prefix + " TEAM " + i).build());
+        }
+        return teams;
+    }
+
+    private List<Member> members(final String prefix, final int count, final List<Team> teams) {
+        final List<Member> members = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            members.add(Member.builder()
+                    .username(prefix + i)
+                    .age(i % 100)
+                    .team(teams.get(i % teams.size()))
+                    .build());
+        }
+        return members;
+    }
+}
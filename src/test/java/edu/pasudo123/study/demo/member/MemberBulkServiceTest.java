@@ -0,0 +1,115 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 청크마다 별도 트랜잭션으로 커밋되므로 테스트 전체를 @Transactional 로 묶지 않고, 직접 정리한다.
+ */
+@SpringBootTest
+@DisplayName("Member 청크 벌크 연산 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberBulkServiceTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberBulkService memberBulkService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    JPAQueryFactory queryFactory;
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        queryFactory = new JPAQueryFactory(em);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team newTeam = Team.builder().name("CHUNK NEW TEAM").build();
+            em.persist(Member.builder().username("CHUNK PARK").age(29).team(newTeam).build());
+            em.persist(Member.builder().username("CHUNK SON").age(29).team(Team.builder().name("CHUNK YES TEAM").build()).build());
+            em.persist(Member.builder().username("CHUNK CHA").age(51).team(newTeam).build());
+            em.persist(Member.builder().username("CHUNK ABA").age(51).team(newTeam).build());
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'CHUNK%'").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'CHUNK%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("id 범위 청크로 나누어 업데이트하고 진행상황을 알린다.")
+    public void chunkUpdateTest() {
+        final List<BulkMutationProgress> progresses = new ArrayList<>();
+
+        final long count = memberBulkService.update(
+                member.username.startsWith("CHUNK"),
+                clause -> clause.set(member.age, member.age.add(1)),
+                2,
+                progresses::add);
+
+        assertThat(count).isEqualTo(4L);
+        assertThat(progresses).isNotEmpty();
+        assertThat(progresses.get(progresses.size() - 1).getTotalRows()).isEqualTo(4L);
+        assertThat(progresses.get(progresses.size() - 1).getProgressRate()).isEqualTo(1.0);
+        assertThat(queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.username.startsWith("CHUNK"))
+                .fetch()).containsOnly(30, 52);
+    }
+
+    @Test
+    @DisplayName("이미 조회해둔 엔티티는 청크 커밋 후 영속성 컨텍스트에서 분리되어 다시 조회하면 최신 값이 보인다.")
+    public void staleEntityEvictionTest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            final Member loaded = queryFactory
+                    .selectFrom(member)
+                    .where(member.username.eq("CHUNK PARK"))
+                    .fetchOne();
+
+            memberBulkService.update(
+                    member.username.eq("CHUNK PARK"),
+                    clause -> clause.set(member.username, "CHUNK NEW NAME"),
+                    2,
+                    progress -> { });
+
+            assertThat(em.contains(loaded)).isFalse();
+            assertThat(em.find(Member.class, loaded.getId()).getUsername()).isEqualTo("CHUNK NEW NAME");
+        });
+    }
+
+    @Test
+    @DisplayName("청크 단위로 삭제한다.")
+    public void chunkDeleteTest() {
+        final long count = memberBulkService.delete(member.age.eq(51).and(member.username.startsWith("CHUNK")), 1, progress -> { });
+
+        assertThat(count).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.ColumnarQuery;
+import edu.pasudo123.study.demo.support.ColumnarResult;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@DisplayName("Member 컬럼 배열 조회 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberColumnarTest {
+
+    private static final MemberSearchCondition CONDITION = MemberSearchCondition.builder().ageGoe(2000).build();
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        final Team teamA = Team.builder().name("COLUMNAR A").build();
+        final Team teamB = Team.builder().name("COLUMNAR B").build();
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(Member.builder().username("COLUMNAR 1").age(2010).team(teamA).build());
+        em.persist(Member.builder().username("COLUMNAR 2").age(2020).team(teamA).build());
+        em.persist(Member.builder().username("COLUMNAR 3").age(2030).team(teamB).build());
+        em.persist(Member.builder().username("COLUMNAR 4").age(2045).build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("Tuple 조회와 같은 값을 컬럼 배열로 읽는다.")
+    public void sameAsTupleTest() {
+        final List<Tuple> tuples = queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .where(member.age.goe(2000))
+                .orderBy(member.age.asc())
+                .fetch();
+
+        final ColumnarResult result = ColumnarQuery.fetch(queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .where(member.age.goe(2000))
+                .orderBy(member.age.asc()), em, 100);
+
+        assertThat(result.size()).isEqualTo(tuples.size());
+        for(int i = 0; i < tuples.size(); i++) {
+            assertThat(result.getStrings(member.username).get(i)).isEqualTo(tuples.get(i).get(member.username));
+            assertThat(result.getInts(member.age).get(i)).isEqualTo(tuples.get(i).get(member.age));
+        }
+    }
+
+    @Test
+    @DisplayName("정수 컬럼의 합계, 평균, 구간 별 로우 수를 구한다.")
+    public void aggregateTest() {
+        final ColumnarResult result = memberJpaRepository.fetchColumns(CONDITION, member.age);
+        final ColumnarResult.IntColumn ages = result.getInts(member.age);
+
+        assertThat(result.size()).isEqualTo(4);
+        assertThat(ages.values()).hasSize(4);
+        assertThat(ages.sum()).isEqualTo(8105);
+        assertThat(ages.avg()).isCloseTo(2026.25, within(0.001));
+        assertThat(ages.min()).isEqualTo(2010);
+        assertThat(ages.max()).isEqualTo(2045);
+        assertThat(ages.histogram(2000, 20, 3)).containsExactly(1, 2, 1);
+    }
+
+    @Test
+    @DisplayName("문자열 컬럼은 사전 인코딩하고, 사전 코드 별로 집계한다.")
+    public void dictionaryTest() {
+        final ColumnarResult result = memberJpaRepository.fetchColumns(CONDITION, team.name, member.age);
+        final ColumnarResult.StringColumn teamNames = result.getStrings(team.name);
+        final ColumnarResult.IntColumn ages = result.getInts(member.age);
+
+        assertThat(teamNames.dictionary()).containsExactlyInAnyOrder("COLUMNAR A", "COLUMNAR B");
+        assertThat(teamNames.count()).isEqualTo(3);
+        assertThat(teamNames.avgBy(ages))
+                .containsEntry("COLUMNAR A", 2015.0)
+                .containsEntry("COLUMNAR B", 2030.0)
+                .hasSize(2);
+
+        final long[] counts = teamNames.counts();
+        assertThat(counts[teamNames.dictionary().indexOf("COLUMNAR A")]).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("정수, 실수, 문자열이 아닌 프로젝션은 컬럼으로 읽을 수 없다.")
+    public void unsupportedTypeTest() {
+        assertThatThrownBy(() -> memberJpaRepository.fetchColumns(CONDITION, member.team))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
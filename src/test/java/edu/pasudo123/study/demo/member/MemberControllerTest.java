@@ -0,0 +1,135 @@
+package edu.pasudo123.study.demo.member;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 스트리밍은 요청 트랜잭션 밖(비동기 디스패치) 에서 실행되므로 데이터를 커밋한 뒤에 호출한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Member 검색 API 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team newTeam = Team.builder().name("API NEW TEAM").build();
+            final Team yesTeam = Team.builder().name("API YES TEAM").build();
+            em.persist(newTeam);
+            em.persist(yesTeam);
+
+            em.persist(Member.builder().username("API PARK").age(29).team(newTeam).build());
+            em.persist(Member.builder().username("API SON").age(31).team(newTeam).build());
+            em.persist(Member.builder().username("API KIM").age(35).team(newTeam).build());
+            em.persist(Member.builder().username("API CHA").age(40).team(yesTeam).build());
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'API%'").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'API%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("팀 이름과 나이 범위로 검색한 결과를 한 줄에 하나씩 id 순으로 내보낸다.")
+    public void searchTest() throws Exception {
+        final List<JsonNode> rows = stream(get("/members")
+                .param("teamName", "API NEW TEAM")
+                .param("ageGoe", "30")
+                .param("ageLoe", "39"));
+
+        assertThat(rows).extracting(row -> row.get("username").asText()).containsExactly("API SON", "API KIM");
+        assertThat(rows).extracting(row -> row.get("teamName").asText()).containsOnly("API NEW TEAM");
+    }
+
+    @Test
+    @DisplayName("마지막 줄의 cursor 를 after 로 넘기면 다음 회원부터 이어서 받는다.")
+    public void continuationTest() throws Exception {
+        final List<JsonNode> first = stream(get("/members")
+                .param("teamName", "API NEW TEAM")
+                .param("limit", "2"));
+        final List<JsonNode> rest = stream(get("/members")
+                .param("teamName", "API NEW TEAM")
+                .param("after", first.get(first.size() - 1).get("cursor").asText()));
+
+        assertThat(first).extracting(row -> row.get("username").asText()).containsExactly("API PARK", "API SON");
+        assertThat(rest).extracting(row -> row.get("username").asText()).containsExactly("API KIM");
+    }
+
+    @Test
+    @DisplayName("잘못된 이어받기 토큰은 400 으로 응답한다.")
+    public void invalidTokenTest() throws Exception {
+        mockMvc.perform(get("/members").param("after", "bm90LWEtdG9rZW4"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> stream(final MockHttpServletRequestBuilder builder) throws Exception {
+        final MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        final String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MemberController.APPLICATION_NDJSON_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        final List<JsonNode> rows = new ArrayList<>();
+        for(String line : body.split("\n")) {
+            if(!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+}
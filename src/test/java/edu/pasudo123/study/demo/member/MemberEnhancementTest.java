@@ -0,0 +1,95 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryBudget;
+import edu.pasudo123.study.demo.team.Team;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+@DisplayName("바이트코드 향상 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberEnhancementTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    private Long otherTeamId;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // ./gradlew test -Penhance=false 로 향상을 끄면 건너뛴다.
+        assumeTrue(SelfDirtinessTracker.class.isAssignableFrom(Member.class), "entities are not enhanced");
+
+        // given
+        final Team enhanceTeam = Team.builder().name("ENHANCE TEAM").build();
+        em.persist(Member.builder().username("ENHANCE PARK").age(29).team(enhanceTeam).build());
+        em.persist(Member.builder().username("ENHANCE SON").age(31).team(enhanceTeam).build());
+
+        final Team otherTeam = Team.builder().name("ENHANCE OTHER TEAM").build();
+        em.persist(otherTeam);
+        otherTeamId = otherTeam.getId();
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("향상된 엔티티는 바뀐 필드만 기록하고, flush 는 바뀐 엔티티만 update 한다.")
+    public void dirtyTrackingTest() {
+        final List<Member> members = findEnhanceMembers();
+        final Member park = members.get(0);
+
+        assertThat(members).noneMatch(each -> ((SelfDirtinessTracker) each).$$_hibernate_hasDirtyAttributes());
+        QueryBudget.assertMaxStatements(0, () -> em.flush());
+
+        park.referTeam(em.getReference(Team.class, otherTeamId));
+
+        assertThat(((SelfDirtinessTracker) park).$$_hibernate_getDirtyAttributes()).containsExactly("team");
+        QueryBudget.assertMaxStatements(1, () -> em.flush());
+        assertThat(((SelfDirtinessTracker) park).$$_hibernate_hasDirtyAttributes()).isFalse();
+
+        em.clear();
+        assertThat(findEnhanceMembers()).extracting(each -> each.getTeam().getName()).containsExactly("ENHANCE OTHER TEAM", "ENHANCE TEAM");
+    }
+
+    @Test
+    @DisplayName("향상된 엔티티도 Q 클래스로 조회하고, member.team 은 프록시로 지연 로딩한다.")
+    public void querydslTest() {
+        final List<Member> members = queryFactory
+                .selectFrom(member)
+                .where(member.team.name.eq("ENHANCE TEAM"), member.age.goe(30))
+                .fetch();
+
+        assertThat(members).extracting("username").containsExactly("ENHANCE SON");
+        assertThat(Hibernate.isInitialized(members.get(0).getTeam())).isFalse();
+        assertThat(members.get(0).getTeam().getName()).isEqualTo("ENHANCE TEAM");
+    }
+
+    private List<Member> findEnhanceMembers() {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("ENHANCE"))
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+}
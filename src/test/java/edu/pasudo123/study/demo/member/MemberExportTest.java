@@ -0,0 +1,143 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.support.ColumnarFileReader;
+import edu.pasudo123.study.demo.support.ExportFormat;
+import edu.pasudo123.study.demo.support.ExportResult;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내보내기는 별도 커넥션으로 읽으므로 데이터를 커밋한 뒤에 내보낸다.
+ */
+@SpringBootTest
+@DisplayName("member, team 내보내기 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberExportTest {
+
+    private static final int MEMBER_COUNT = 300;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberExportService exportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    @DisplayName("Team, Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team team = Team.builder().name("EXPORT \"QUOTED\", TEAM").build();
+            em.persist(team);
+            for(int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(Member.builder().username("EXPORT " + i).age(i).team(i % 2 == 0 ? team : null).build());
+            }
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'EXPORT%'").executeUpdate();
+            em.createNativeQuery("DELETE FROM team_statistics WHERE team_id IN (SELECT id FROM team WHERE name LIKE 'EXPORT%')").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'EXPORT%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("id 범위별 파트 파일로 CSV 를 내보낸다.")
+    public void csvTest() throws IOException {
+        final List<ExportResult> results = exportService.exportAll(directory, ExportFormat.CSV);
+        final ExportResult members = results.get(1);
+
+        final List<String> lines = new ArrayList<>();
+        for(Path file : members.getFiles()) {
+            final List<String> partLines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertThat(partLines.get(0)).isEqualTo("id,username,age,team_id");
+            lines.addAll(partLines.subList(1, partLines.size()));
+        }
+
+        final List<String> exported = lines.stream().filter(line -> line.contains(",EXPORT ")).collect(Collectors.toList());
+        assertThat(exported).hasSize(MEMBER_COUNT);
+        assertThat(exported).anyMatch(line -> line.endsWith(",EXPORT 1,1,"));
+        assertThat(members.getRows()).isEqualTo(lines.size());
+        assertThat(members.getBytes()).isEqualTo(members.getFiles().stream().mapToLong(this::size).sum());
+
+        final List<String> teamLines = Files.readAllLines(results.get(0).getFiles().get(0), StandardCharsets.UTF_8);
+        assertThat(teamLines).anyMatch(line -> line.endsWith(",\"EXPORT \"\"QUOTED\"\", TEAM\""));
+        assertThat(directory.toFile().list()).allMatch(name -> !name.endsWith(".tmp"));
+    }
+
+    @Test
+    @DisplayName("COLUMNAR 형식은 블록 단위 컬럼 배열로 읽을 수 있다.")
+    public void columnarTest() throws IOException {
+        final ExportResult members = exportService.exportMembers(directory, ExportFormat.COLUMNAR);
+
+        long rows = 0;
+        long exported = 0;
+        long ageSum = 0;
+        long withoutTeam = 0;
+        for(Path file : members.getFiles()) {
+            try(ColumnarFileReader reader = new ColumnarFileReader(file)) {
+                assertThat(reader.getColumns()).extracting("name").containsExactly("id", "username", "age", "team_id");
+
+                ColumnarFileReader.Block block;
+                while((block = reader.next()) != null) {
+                    final String[] usernames = block.getStrings("username");
+                    final int[] ages = block.getInts("age");
+                    for(int row = 0; row < block.getRows(); row++) {
+                        if(usernames[row] != null && usernames[row].startsWith("EXPORT ")) {
+                            exported++;
+                            ageSum += ages[row];
+                            withoutTeam += block.isNull("team_id", row) ? 1 : 0;
+                        }
+                    }
+                    rows += block.getRows();
+                }
+            }
+        }
+
+        assertThat(rows).isEqualTo(members.getRows());
+        assertThat(exported).isEqualTo(MEMBER_COUNT);
+        assertThat(ageSum).isEqualTo((long) MEMBER_COUNT * (MEMBER_COUNT - 1) / 2);
+        assertThat(withoutTeam).isEqualTo(MEMBER_COUNT / 2);
+    }
+
+    private long size(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
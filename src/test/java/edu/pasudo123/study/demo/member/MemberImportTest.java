@@ -0,0 +1,151 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.team.Team;
+import edu.pasudo123.study.demo.team.TeamStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 가져오기는 청크마다 별도 트랜잭션으로 커밋하므로 테스트도 커밋된 데이터로 확인한다.
+ * 세그먼트와 청크가 여러 개 생기도록 parallelism 과 chunk-size 를 작게 둔다.
+ */
+@SpringBootTest(properties = {"demo.member-import.parallelism=3", "demo.member-import.chunk-size=7", "demo.member-import.batch-size=3"})
+@DisplayName("member CSV 가져오기 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberImportTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberImportService importService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path directory;
+
+    Long existingTeamId;
+
+    @BeforeEach
+    @DisplayName("가져올 파일이 참조하는 팀 하나를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        existingTeamId = transactionTemplate.execute(status -> {
+            final Team team = Team.builder().name("IMPORT EXISTING").build();
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'IMPORT%'").executeUpdate();
+            em.createNativeQuery("DELETE FROM team_statistics WHERE team_id IN (SELECT id FROM team WHERE name LIKE 'IMPORT%')").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'IMPORT%'").executeUpdate();
+            em.createNativeQuery("DELETE FROM member_import_checkpoint").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("여러 세그먼트를 병렬로 파싱하고, 팀 이름을 id 로 바꿔서 넣는다.")
+    public void importTest() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("username,age,team");
+        for(int i = 0; i < 100; i++) {
+            final String team = i % 3 == 0 ? "IMPORT EXISTING" : i % 3 == 1 ? "\"IMPORT NEW, \"\"QUOTED\"\"\"" : "";
+            lines.add("IMPORT " + i + "," + i + "," + team);
+        }
+        lines.add(50, "IMPORT BAD,not-a-number,");
+        lines.add(70, "IMPORT BIG,1234567890,");
+        lines.add("");
+        final Path file = write("members.csv", lines);
+
+        final MemberImportResult result = importService.importFile(file);
+
+        assertThat(result.isResumed()).isFalse();
+        assertThat(result.getImportedRows()).isEqualTo(100);
+        assertThat(result.getRejectedRows()).isEqualTo(2);
+        assertThat(result.getCreatedTeams()).isEqualTo(1);
+
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.username LIKE 'IMPORT%'")).isEqualTo(100);
+        assertThat(count("SELECT COUNT(DISTINCT m.id) FROM Member m WHERE m.username LIKE 'IMPORT%'")).isEqualTo(100);
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.team.id = " + existingTeamId)).isEqualTo(34);
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.team.name = 'IMPORT NEW, \"QUOTED\"'")).isEqualTo(33);
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.username LIKE 'IMPORT%' AND m.team IS NULL")).isEqualTo(33);
+
+        final TeamStatistics statistics = transactionTemplate.execute(status -> em.find(TeamStatistics.class, existingTeamId));
+        assertThat(statistics.getMemberCount()).isEqualTo(34);
+
+        // 같은 파일을 다시 가져오면 모든 세그먼트가 끝났으므로 아무것도 넣지 않는다.
+        final MemberImportResult again = importService.importFile(file);
+        assertThat(again.isResumed()).isTrue();
+        assertThat(again.getImportedRows()).isZero();
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.username LIKE 'IMPORT%'")).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("실패한 청크만 롤백되고, 다시 호출하면 마지막 체크포인트부터 이어서 넣는다.")
+    public void resumeTest() throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("username,age,team");
+        for(int i = 0; i < 10; i++) {
+            lines.add("IMPORT " + i + "," + i + ",IMPORT EXISTING");
+        }
+        // 마지막 세그먼트의 username 이 컬럼 길이(255) 를 넘는다.
+        lines.add("IMPORT " + String.join("", Collections.nCopies(300, "X")) + ",1,");
+        final Path file = write("resume.csv", lines);
+
+        assertThatThrownBy(() -> importService.importFile(file, "resume"))
+                .isInstanceOf(RuntimeException.class);
+        final long imported = count("SELECT COUNT(m) FROM Member m WHERE m.username LIKE 'IMPORT%'");
+        assertThat(imported).isLessThan(11);
+
+        // 마지막 줄만 같은 길이로 고친다. (빈 줄은 건너뛴다.)
+        final String fixed = "IMPORT LAST,1,";
+        final int padding = lines.get(lines.size() - 1).length() - fixed.length();
+        lines.set(lines.size() - 1, fixed + String.join("", Collections.nCopies(padding, "\n")));
+        write("resume.csv", lines);
+
+        final MemberImportResult result = importService.importFile(file, "resume");
+
+        assertThat(result.isResumed()).isTrue();
+        assertThat(result.getImportedRows()).isEqualTo(11 - imported);
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.username LIKE 'IMPORT%'")).isEqualTo(11);
+        assertThat(count("SELECT COUNT(m) FROM Member m WHERE m.username = 'IMPORT LAST'")).isEqualTo(1);
+    }
+
+    private Path write(final String name, final List<String> lines) throws IOException {
+        return Files.write(directory.resolve(name), String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long count(final String jpql) {
+        return transactionTemplate.execute(status -> em.createQuery(jpql, Long.class).getSingleResult());
+    }
+}
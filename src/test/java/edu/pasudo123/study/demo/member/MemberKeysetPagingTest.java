@@ -0,0 +1,104 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DisplayName("Member keyset 페이징 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberKeysetPagingTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        em.persist(Member.builder()
+                .username("PARK")
+                .age(29)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("SON")
+                .age(29)
+                .team(Team.builder().name("YES TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("CHA")
+                .age(51)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("ABA")
+                .age(51)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("(username, id) 커서로 다음 페이지를 이어서 조회한다.")
+    public void usernameKeysetTest() {
+        final List<Member> firstPage = memberJpaRepository.findPageOrderByUsername(null, 3);
+        final List<Member> secondPage = memberJpaRepository.findPageOrderByUsername(
+                MemberCursor.afterUsername(firstPage.get(firstPage.size() - 1)), 3);
+
+        assertThat(firstPage)
+                .extracting("username")
+                .containsExactly("ABA", "CHA", "PARK");
+        assertThat(secondPage)
+                .extracting("username")
+                .containsExactly("SON");
+    }
+
+    @Test
+    @DisplayName("정렬 키가 같으면 id 로 다음 로우를 구분한다.")
+    public void ageKeysetTest() {
+        final List<Member> results = new ArrayList<>();
+
+        MemberCursor cursor = null;
+        List<Member> page;
+        do {
+            page = memberJpaRepository.findPageOrderByAge(cursor, 1);
+            results.addAll(page);
+            cursor = page.isEmpty() ? null : MemberCursor.afterAge(page.get(0));
+        } while(!page.isEmpty());
+
+        assertThat(results).hasSize(4);
+        assertThat(results)
+                .extracting("age")
+                .containsExactly(29, 29, 51, 51);
+    }
+
+    @Test
+    @DisplayName("정렬 키가 다른 커서를 넘기면 IllegalArgumentException 을 던진다.")
+    public void cursorMismatchTest() {
+        final Member first = memberJpaRepository.findPageOrderByAge(null, 1).get(0);
+
+        assertThatThrownBy(() -> memberJpaRepository.findPageOrderByUsername(MemberCursor.afterAge(first), 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberJpaRepository.findPageOrderByAge(MemberCursor.afterUsername(first), 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.support.QueryBudget;
+import edu.pasudo123.study.demo.support.QuerydslPager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * count 캐시는 트랜잭션이 없거나 읽기 전용일 때만 쓰므로 데이터를 커밋한 뒤에 조회한다.
+ */
+@SpringBootTest
+@DisplayName("Member 페이징 count 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberPagingTest {
+
+    private static final MemberSearchCondition CONDITION = MemberSearchCondition.builder().ageGoe(1000).build();
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private QuerydslPager pager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+    TransactionTemplate readTransactionTemplate;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readTransactionTemplate = new TransactionTemplate(transactionManager);
+        readTransactionTemplate.setReadOnly(true);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            for(int i = 0; i < 5; i++) {
+                em.persist(Member.builder().username("PAGE " + i).age(1000 + i).build());
+            }
+        });
+        pager.invalidateCounts();
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'PAGE%'").executeUpdate());
+    }
+
+    @Test
+    @DisplayName("페이지 크기보다 적게 조회되면 count 쿼리 없이 전체 건수를 구한다.")
+    public void inferTotalTest() {
+        final long avoided = pager.statistics().getAvoidedCounts();
+
+        final Page<MemberDto> first = transactionTemplate.execute(status -> QueryBudget.assertMaxStatements(1,
+                () -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(0, 10))));
+        final Page<MemberDto> last = transactionTemplate.execute(status -> QueryBudget.assertMaxStatements(1,
+                () -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(1, 3))));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).extracting("username").containsExactly("PAGE 0", "PAGE 1", "PAGE 2", "PAGE 3", "PAGE 4");
+        assertThat(last.getTotalElements()).isEqualTo(5);
+        assertThat(last.getContent()).extracting("username").containsExactly("PAGE 3", "PAGE 4");
+        assertThat(pager.statistics().getAvoidedCounts()).isEqualTo(avoided + 2);
+    }
+
+    @Test
+    @DisplayName("비어 있는 페이지는 offset 이 전체 건수를 넘은 것일 수 있으므로 count 쿼리를 실행한다.")
+    public void emptyPageTest() {
+        final Page<MemberDto> page = transactionTemplate.execute(status -> QueryBudget.assertMaxStatements(2,
+                () -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(5, 2))));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션에서는 같은 조건의 count 를 캐시에서 가져온다.")
+    public void cachedCountTest() {
+        final QuerydslPager.Statistics before = pager.statistics();
+
+        final Page<MemberDto> first = readTransactionTemplate.execute(status -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(0, 2)));
+        final Page<MemberDto> second = readTransactionTemplate.execute(status -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(1, 2)));
+
+        final QuerydslPager.Statistics after = pager.statistics();
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.getContent()).extracting("username").containsExactly("PAGE 2", "PAGE 3");
+        assertThat(after.getExecutedCounts()).isEqualTo(before.getExecutedCounts() + 1);
+        assertThat(after.getCachedCounts()).isEqualTo(before.getCachedCounts() + 1);
+    }
+
+    @Test
+    @DisplayName("member 를 저장하거나 벌크로 지우면 캐시된 count 를 비운다.")
+    public void invalidateCountTest() {
+        readTransactionTemplate.execute(status -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(0, 2)));
+
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.save(Member.builder().username("PAGE 5").age(1005).build()));
+        final Page<MemberDto> saved = readTransactionTemplate.execute(status -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(1, 2)));
+
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("DELETE FROM Member m WHERE m.username IN ('PAGE 4', 'PAGE 5')").executeUpdate());
+        final Page<MemberDto> deleted = readTransactionTemplate.execute(status -> memberJpaRepository.searchPage(CONDITION, PageRequest.of(0, 2)));
+
+        assertThat(saved.getTotalElements()).isEqualTo(6);
+        assertThat(deleted.getTotalElements()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryShapeCache;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("querydsl 쿼리 모양 캐시 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberQueryShapeCacheTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private QueryShapeCache queryShapeCache;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        em.persist(Member.builder().username("SHAPE PARK").age(29).team(Team.builder().name("SHAPE NEW TEAM").build()).build());
+        em.persist(Member.builder().username("SHAPE SON").age(31).team(Team.builder().name("SHAPE YES TEAM").build()).build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("상수만 다른 쿼리는 캐시된 JPQL 에 새 상수를 바인딩한다.")
+    public void sameShapeHitTest() {
+        final long hits = queryShapeCache.statistics().getHits();
+
+        final List<Member> first = findByUsernameAndAge("SHAPE PARK", 29);
+        final List<Member> second = findByUsernameAndAge("SHAPE SON", 31);
+        final List<Member> none = findByUsernameAndAge("SHAPE SON", 29);
+
+        assertThat(first).extracting("username").containsExactly("SHAPE PARK");
+        assertThat(second).extracting("username").containsExactly("SHAPE SON");
+        assertThat(none).isEmpty();
+        assertThat(queryShapeCache.statistics().getHits()).isGreaterThanOrEqualTo(hits + 2);
+    }
+
+    @Test
+    @DisplayName("같은 값의 상수가 여러 번 나와도 올바르게 바인딩한다.")
+    public void repeatedConstantTest() {
+        final List<Member> same = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(29), member.age.loe(29), member.username.startsWith("SHAPE"))
+                .fetch();
+        final List<Member> range = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(29), member.age.loe(31), member.username.startsWith("SHAPE"))
+                .fetch();
+
+        assertThat(same).extracting("username").containsExactly("SHAPE PARK");
+        assertThat(range).extracting("username").containsExactlyInAnyOrder("SHAPE PARK", "SHAPE SON");
+    }
+
+    @Test
+    @DisplayName("case 문처럼 상수를 리터럴로 쓰는 쿼리는 캐시하지 않는다.")
+    public void bypassTest() {
+        final long bypasses = queryShapeCache.statistics().getBypasses();
+
+        final List<String> results = queryFactory
+                .select(new CaseBuilder()
+                        .when(member.age.lt(30)).then("YOUNG")
+                        .otherwise("OLD"))
+                .from(member)
+                .where(member.username.in("SHAPE PARK", "SHAPE SON"))
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(results).containsExactly("YOUNG", "OLD");
+        assertThat(queryShapeCache.statistics().getBypasses()).isEqualTo(bypasses + 1);
+    }
+
+    @Test
+    @DisplayName("equalsIgnoreCase 처럼 상수를 변형해서 바인딩하는 쿼리는 값과 상관없이 캐시하지 않는다.")
+    public void transformedConstantTest() {
+        final long bypasses = queryShapeCache.statistics().getBypasses();
+
+        // 처음 값은 이미 소문자라서 변형되지 않지만, 다음 값은 소문자로 바꿔서 바인딩해야 한다.
+        final List<Member> lower = queryFactory
+                .selectFrom(member)
+                .where(member.username.equalsIgnoreCase("shape park"))
+                .fetch();
+        final List<Member> mixed = queryFactory
+                .selectFrom(member)
+                .where(member.username.equalsIgnoreCase("Shape Park"))
+                .fetch();
+
+        assertThat(lower).extracting("username").containsExactly("SHAPE PARK");
+        assertThat(mixed).extracting("username").containsExactly("SHAPE PARK");
+        assertThat(queryShapeCache.statistics().getBypasses()).isEqualTo(bypasses + 2);
+    }
+
+    private List<Member> findByUsernameAndAge(final String username, final int age) {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(username), member.age.eq(age))
+                .fetch();
+    }
+}
@@ -0,0 +1,140 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryOrigin;
+import edu.pasudo123.study.demo.support.QueryStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 느린 쿼리 기준을 0 으로 두고 모든 SQL 을 느린 쿼리로 남긴다.
+ */
+@SpringBootTest(properties = "demo.query-statistics.slow-query-threshold=0ms")
+@DisplayName("SQL 모양 별 통계 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberQueryStatisticsTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        em.persist(Member.builder().username("STAT PARK").age(29).build());
+        em.persist(Member.builder().username("STAT SON").age(31).build());
+
+        em.flush();
+        em.clear();
+        queryStatistics.reset();
+    }
+
+    @Test
+    @DisplayName("상수만 다른 querydsl 쿼리는 하나의 모양으로 실행 수와 로우 수를 합친다.")
+    public void querydslShapeTest() {
+        findByUsernameAndAge("STAT PARK", 29);
+        findByUsernameAndAge("STAT SON", 31);
+        findByUsernameAndAge("STAT SON", 29);
+
+        final QueryStatistics.Snapshot snapshot = find(QueryOrigin.QUERYDSL, "from member").orElseThrow(AssertionError::new);
+
+        assertThat(snapshot.getExecutions()).isEqualTo(3);
+        assertThat(snapshot.getRows()).isEqualTo(2);
+        assertThat(snapshot.getMaxMicros()).isGreaterThanOrEqualTo(snapshot.getP50Micros());
+    }
+
+    @Test
+    @DisplayName("JPQL 과 Spring Data 리포지토리에서 실행된 SQL 은 origin 을 나눠서 센다.")
+    public void originTest() {
+        final List<Member> members = em.createQuery("SELECT m FROM Member m WHERE m.username LIKE 'STAT%'", Member.class)
+                .getResultList();
+        final List<Member> all = memberRepository.findAll();
+
+        assertThat(members).hasSize(2);
+        assertThat(find(QueryOrigin.JPA, "from member").map(QueryStatistics.Snapshot::getRows)).contains(2L);
+        assertThat(find(QueryOrigin.SPRING_DATA, "from member").map(QueryStatistics.Snapshot::getRows)).contains((long) all.size());
+        assertThat(find(QueryOrigin.QUERYDSL, "from member")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("느린 쿼리는 바인딩 파라미터와 함께 남긴다.")
+    public void slowQueryTest() {
+        findByUsernameAndAge("STAT PARK", 29);
+
+        assertThat(queryStatistics.getSlowQueryCount()).isGreaterThanOrEqualTo(1);
+        assertThat(queryStatistics.slowQueries())
+                .filteredOn(slowQuery -> slowQuery.getOrigin() == QueryOrigin.QUERYDSL)
+                .extracting("parameters")
+                .contains(Arrays.asList("STAT PARK", "29"));
+    }
+
+    @Test
+    @DisplayName("null 로 바인딩한 파라미터는 SQL 타입 코드가 아니라 null 로 남긴다.")
+    public void nullParameterTest() {
+        em.persist(Member.builder().username("STAT NULL").age(40).build());
+        em.flush();
+
+        assertThat(queryStatistics.slowQueries())
+                .filteredOn(slowQuery -> slowQuery.getSql().startsWith("insert into member"))
+                .extracting("parameters")
+                .hasSize(1)
+                .allSatisfy(parameters -> assertThat((List<?>) parameters)
+                        .contains("null", "STAT NULL")
+                        .doesNotContain(String.valueOf(Types.BIGINT)));
+    }
+
+    @Test
+    @DisplayName("모양 수 제한은 리터럴만 다른 SQL 을 하나로 센다.")
+    public void shapeLimitTest() {
+        final QueryStatistics statistics = new QueryStatistics(Duration.ofSeconds(1), 2, 10, 100);
+
+        for(int i = 0; i < 10; i++) {
+            statistics.record(QueryOrigin.JPA, "select * from member where age = " + i, 1, 0, null);
+        }
+        statistics.record(QueryOrigin.JPA, "select * from team where id = 1", 1, 0, null);
+        statistics.record(QueryOrigin.JPA, "select * from team_statistics where team_id = 1", 1, 0, null);
+
+        assertThat(statistics.snapshot())
+                .extracting(QueryStatistics.Snapshot::getShape)
+                .containsExactlyInAnyOrder("select * from member where age = ?", "select * from team where id = ?", "(other)");
+    }
+
+    private Optional<QueryStatistics.Snapshot> find(final QueryOrigin origin, final String fragment) {
+        return queryStatistics.snapshot().stream()
+                .filter(snapshot -> snapshot.getOrigin() == origin)
+                .filter(snapshot -> snapshot.getShape().startsWith("select") && snapshot.getShape().contains(fragment))
+                .findFirst();
+    }
+
+    private List<Member> findByUsernameAndAge(final String username, final int age) {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(username), member.age.eq(age))
+                .fetch();
+    }
+}
@@ -0,0 +1,96 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.QueryBudget;
+import edu.pasudo123.study.demo.support.ReadMode;
+import edu.pasudo123.study.demo.team.Team;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("읽기 모드 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberReadModeTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        final Team readTeam = Team.builder().name("READ TEAM").build();
+        em.persist(Member.builder().username("READ PARK").age(29).team(readTeam).build());
+        em.persist(Member.builder().username("READ SON").age(31).team(readTeam).build());
+        em.persist(Member.builder().username("READ KIM").age(33).team(Team.builder().name("READ OTHER TEAM").build()).build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("MANAGED 는 dirty checking 용 스냅샷을 만든다.")
+    public void managedTest() {
+        final List<Member> members = memberJpaRepository.findBy(member.username.startsWith("READ"), FetchPlan.NONE, ReadMode.MANAGED);
+
+        assertThat(members).hasSize(3);
+        assertThat(members).allMatch(each -> entry(each).getLoadedState() != null);
+    }
+
+    @Test
+    @DisplayName("READ_ONLY 는 fetch join 한 연관 엔티티까지 스냅샷 없이 읽기 전용으로 올린다.")
+    public void readOnlyTest() {
+        final List<Member> members = memberJpaRepository.findBy(member.username.startsWith("READ"), FetchPlan.ENTITY_GRAPH, ReadMode.READ_ONLY);
+        final SessionImplementor session = em.unwrap(SessionImplementor.class);
+
+        assertThat(members).extracting("username").containsExactly("READ PARK", "READ SON", "READ KIM");
+        assertThat(members).allMatch(each -> session.isReadOnly(each) && entry(each).getLoadedState() == null);
+        assertThat(members).allMatch(each -> session.isReadOnly(each.getTeam()) && entry(each.getTeam()).getLoadedState() == null);
+    }
+
+    @Test
+    @DisplayName("READ_ONLY 는 쿼리 전에 auto flush 하지 않는다.")
+    public void readOnlyFlushTest() {
+        em.persist(Member.builder().username("READ LEE").age(35).build());
+
+        final List<Member> readOnly = memberJpaRepository.findBy(member.username.startsWith("READ"), FetchPlan.NONE, ReadMode.READ_ONLY);
+        final List<Member> managed = memberJpaRepository.findBy(member.username.startsWith("READ"), FetchPlan.NONE, ReadMode.MANAGED);
+
+        assertThat(readOnly).hasSize(3);
+        assertThat(managed).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("STATELESS 는 쿼리 한 번으로 team 까지 준영속 엔티티로 가져온다.")
+    public void statelessTest() {
+        final List<Member> members = QueryBudget.assertMaxStatements(1,
+                () -> memberJpaRepository.findBy(member.username.startsWith("READ"), FetchPlan.NONE, ReadMode.STATELESS));
+
+        assertThat(members).extracting("username").containsExactly("READ PARK", "READ SON", "READ KIM");
+        assertThat(members).noneMatch(em::contains);
+        assertThat(members).allMatch(each -> Hibernate.isInitialized(each.getTeam()));
+        assertThat(members).extracting(each -> each.getTeam().getName()).containsExactly("READ TEAM", "READ TEAM", "READ OTHER TEAM");
+    }
+
+    private EntityEntry entry(final Object entity) {
+        return em.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(entity);
+    }
+}
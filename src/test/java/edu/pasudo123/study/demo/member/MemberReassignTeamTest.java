@@ -0,0 +1,120 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryBudget;
+import edu.pasudo123.study.demo.team.Team;
+import edu.pasudo123.study.demo.team.TeamStatistics;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 청크마다 별도 트랜잭션으로 커밋되므로 테스트 전체를 @Transactional 로 묶지 않고, 직접 정리한다.
+ */
+@SpringBootTest
+@DisplayName("Member 팀 일괄 이동 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberReassignTeamTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private MemberBulkService memberBulkService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    Long fromTeamId;
+    Long toTeamId;
+
+    @BeforeEach
+    @DisplayName("두 팀에 Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team fromTeam = Team.builder().name("MOVE FROM TEAM").build();
+            final Team toTeam = Team.builder().name("MOVE TO TEAM").build();
+            for(int i = 0; i < 3; i++) {
+                em.persist(Member.builder().username("MOVE FROM " + i).age(20 + i).team(fromTeam).build());
+                em.persist(Member.builder().username("MOVE TO " + i).age(30 + i).team(toTeam).build());
+            }
+
+            fromTeamId = fromTeam.getId();
+            toTeamId = toTeam.getId();
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'MOVE%'").executeUpdate();
+            em.createNativeQuery("DELETE FROM team_statistics WHERE team_id IN (?1, ?2)")
+                    .setParameter(1, fromTeamId)
+                    .setParameter(2, toTeamId)
+                    .executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'MOVE%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("조건에 해당하는 member 를 set 기반 update 로 옮기고 팀 집계를 맞춘다.")
+    public void reassignByPredicateTest() {
+        final long rows = memberBulkService.reassignTeam(member.team.id.eq(fromTeamId), toTeamId);
+
+        assertThat(rows).isEqualTo(3L);
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(queryFactory.selectFrom(member).where(member.team.id.eq(toTeamId)).fetchCount()).isEqualTo(6L);
+            assertThat(em.find(TeamStatistics.class, toTeamId).getMemberCount()).isEqualTo(6L);
+            assertThat(em.find(TeamStatistics.class, fromTeamId)).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("영속성 컨텍스트의 member 는 새 팀을 가리키고, 새 팀의 members 는 초기화되지 않으며, flush 때 update 가 다시 나가지 않는다.")
+    public void syncManagedMembersTest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team toTeam = em.find(Team.class, toTeamId);
+            final List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .where(member.team.id.eq(fromTeamId))
+                    .fetch();
+
+            memberBulkService.reassignTeam(members.stream().map(Member::getId).collect(Collectors.toList()), toTeamId);
+
+            assertThat(members).extracting(each -> each.getTeam().getId()).containsOnly(toTeamId);
+            assertThat(members).extracting(Member::getTeam).containsOnly(toTeam);
+            assertThat(Hibernate.isInitialized(toTeam.getMembers())).isFalse();
+            QueryBudget.assertMaxStatements(0, () -> em.flush());
+        });
+    }
+
+    @Test
+    @DisplayName("없는 팀으로는 옮기지 않는다.")
+    public void unknownTeamTest() {
+        assertThatThrownBy(() -> memberBulkService.reassignTeam(member.team.id.eq(fromTeamId), -1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
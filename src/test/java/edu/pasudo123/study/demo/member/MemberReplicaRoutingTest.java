@@ -0,0 +1,118 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import edu.pasudo123.study.demo.support.ReplicaRoutingDataSource;
+import edu.pasudo123.study.demo.support.ReplicationLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 두 개의 in-memory h2 를 primary / 레플리카로 사용한다.
+ * 복제가 없으므로 primary 의 스키마를 레플리카에 복사하고, 같은 id 의 member 를 서로 다른 이름으로 넣어서 어느 쪽을 읽었는지 확인한다.
+ * 복제 지연은 백그라운드 주기를 기다리지 않고 heartbeat 를 바꿀 때마다 직접 다시 읽는다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "demo.datasource.routing.enabled=true",
+        "demo.datasource.routing.lag-check-interval=1h",
+        "demo.datasource.routing.replicas[0].url=" + MemberReplicaRoutingTest.REPLICA_URL,
+        "demo.datasource.routing.replicas[0].username=sa",
+        "demo.datasource.routing.replicas[0].password="
+})
+@DisplayName("읽기 / 쓰기 DataSource 라우팅 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final long MEMBER_ID = 900_000_001L;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private ReplicationLagMonitor replicationLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    @DisplayName("primary 와 레플리카에 같은 id 의 member 를 다른 이름으로 삽입한다.")
+    public void init() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+        replica.execute("DROP ALL OBJECTS");
+        for(String sql : primary.queryForList("SCRIPT NODATA", String.class)) {
+            if(!sql.startsWith("--")) {
+                replica.execute(sql);
+            }
+        }
+
+        primary.update("INSERT INTO member (id, username, age) VALUES (?, 'ROUTING PRIMARY', 10)", MEMBER_ID);
+        replica.update("INSERT INTO member (id, username, age) VALUES (?, 'ROUTING REPLICA', 10)", MEMBER_ID);
+        heartbeat(System.currentTimeMillis());
+    }
+
+    @AfterEach
+    public void clean() {
+        primary.update("DELETE FROM member WHERE id = ?", MEMBER_ID);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 레플리카로, 나머지는 primary 로 간다.")
+    public void routeByReadOnlyTest() {
+        assertThat(findUsername(true)).isEqualTo("ROUTING REPLICA");
+        assertThat(findUsername(false)).isEqualTo("ROUTING PRIMARY");
+    }
+
+    @Test
+    @DisplayName("레플리카의 복제 지연이 크면 읽기 전용 트랜잭션도 primary 로 간다.")
+    public void replicationLagFallbackTest() {
+        final long fallbacks = replicaRoutingDataSource.fallbacks();
+
+        heartbeat(System.currentTimeMillis() - 60_000);
+
+        assertThat(findUsername(true)).isEqualTo("ROUTING PRIMARY");
+        assertThat(replicaRoutingDataSource.fallbacks()).isEqualTo(fallbacks + 1);
+    }
+
+    private String findUsername(final boolean readOnly) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> queryFactory
+                .select(member.username)
+                .from(member)
+                .where(member.id.eq(MEMBER_ID))
+                .fetchOne());
+    }
+
+    private void heartbeat(final long beatAt) {
+        replica.update("MERGE INTO replication_heartbeat KEY(id) VALUES (1, ?)", new Timestamp(beatAt));
+        replicationLagMonitor.check();
+    }
+}
@@ -0,0 +1,119 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ExpressionUtils;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * member 를 변경한 트랜잭션 안에서는 검색 캐시를 사용하지 않으므로, 데이터를 커밋한 뒤에 검색한다.
+ */
+@SpringBootTest
+@DisplayName("Member 검색 캐시 테스트 클래스는")
+@ActiveProfiles("test")
+public class MemberSearchCacheTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private MemberSearchCache memberSearchCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(Member.builder().username("CACHE PARK").age(29).team(Team.builder().name("CACHE NEW TEAM").build()).build());
+            em.persist(Member.builder().username("CACHE SON").age(29).team(Team.builder().name("CACHE YES TEAM").build()).build());
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'CACHE%'").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'CACHE%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("BooleanBuilder 와 where 다중 파라미터는 같은 캐시 키를 가진다.")
+    public void canonicalKeyTest() {
+        final BooleanBuilder builder = new BooleanBuilder();
+        builder.and(member.username.eq("CACHE PARK"));
+        builder.and(member.age.eq(29));
+
+        final String builderKey = MemberSearchCache.key(builder, 0, 10);
+        final String paramsKey = MemberSearchCache.key(ExpressionUtils.allOf(member.age.eq(29), member.username.eq("CACHE PARK")), 0, 10);
+
+        assertThat(builderKey).isEqualTo(paramsKey);
+        assertThat(builderKey).isNotEqualTo(MemberSearchCache.key(builder, 10, 10));
+    }
+
+    @Test
+    @DisplayName("상수 값에 구분자가 섞여 있어도 다른 조건과 캐시 키가 겹치지 않는다.")
+    public void collidingKeyTest() {
+        // 값을 이어 붙이기만 하면 둘 다 [a, b, c] 가 된다.
+        final String first = MemberSearchCache.key(member.username.in("a, b", "c"), 0, 10);
+        final String second = MemberSearchCache.key(member.username.in("a", "b, c"), 0, 10);
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("같은 조건의 두 번째 검색은 캐시에서 가져온다.")
+    public void cacheHitTest() {
+        final BooleanBuilder builder = new BooleanBuilder();
+        builder.and(member.username.eq("CACHE PARK"));
+        builder.and(member.age.eq(29));
+
+        final long hits = memberSearchCache.statistics().getHits();
+
+        final List<Member> first = transactionTemplate.execute(status -> memberJpaRepository.search(builder, 0, 10));
+        final List<Member> second = transactionTemplate.execute(status -> memberJpaRepository.search(
+                MemberSearchCondition.builder().username("CACHE PARK").age(29).build(), 0, 10));
+
+        assertThat(first).extracting("username").containsExactly("CACHE PARK");
+        assertThat(second).extracting("username").containsExactly("CACHE PARK");
+        assertThat(memberSearchCache.statistics().getHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("member 테이블이 변경되면 캐시가 비워진다.")
+    public void invalidationTest() {
+        final MemberSearchCondition condition = MemberSearchCondition.builder().age(29).build();
+
+        transactionTemplate.execute(status -> memberJpaRepository.search(condition, 0, 10));
+        transactionTemplate.executeWithoutResult(status ->
+                em.persist(Member.builder().username("CACHE CHA").age(29).build()));
+
+        final List<Member> results = transactionTemplate.execute(status -> memberJpaRepository.search(condition, 0, 10));
+
+        assertThat(results).extracting("username").contains("CACHE CHA");
+    }
+}
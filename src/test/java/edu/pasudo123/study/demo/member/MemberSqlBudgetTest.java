@@ -0,0 +1,116 @@
+package edu.pasudo123.study.demo.member;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.support.QueryBudget;
+import edu.pasudo123.study.demo.support.SqlCounter;
+import edu.pasudo123.study.demo.support.SqlScope;
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DisplayName("SQL 예산 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberSqlBudgetTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    @DisplayName("팀이 서로 다른 Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        for(int i = 0; i < 5; i++) {
+            em.persist(Member.builder()
+                    .username("BUDGET " + i)
+                    .age(20 + i)
+                    .team(Team.builder().name("BUDGET TEAM " + i).build())
+                    .build());
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("member 마다 team 을 지연 로딩하면 N+1 으로 감지한다.")
+    public void detectNPlusOneTest() {
+        final SqlScope scope = SqlCounter.open("n+1");
+        try {
+            final List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .where(member.username.startsWith("BUDGET"))
+                    .fetch();
+            members.forEach(each -> each.getTeam().getName());
+        } finally {
+            scope.close();
+        }
+
+        assertThat(scope.getStatements()).isEqualTo(1 + 5);
+        assertThat(scope.getRepeatedLazyLoads(5)).containsEntry(Team.class.getName(), 5);
+    }
+
+    @Test
+    @DisplayName("예산을 넘으면 AssertionError 를 던진다.")
+    public void assertMaxStatementsFailTest() {
+        assertThatThrownBy(() -> QueryBudget.assertMaxStatements(1, () -> queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("BUDGET"))
+                .fetch()
+                .stream()
+                .map(each -> each.getTeam().getName())
+                .collect(Collectors.toList())))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("statements 6 > 1");
+    }
+
+    @Test
+    @DisplayName("fetch join 은 SQL 한 번으로 team 까지 가져온다.")
+    public void fetchJoinWithinBudgetTest() {
+        final List<String> teamNames = QueryBudget.assertMaxStatements(1, () -> queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .where(member.username.startsWith("BUDGET"))
+                .fetch()
+                .stream()
+                .map(each -> each.getTeam().getName())
+                .collect(Collectors.toList()));
+
+        assertThat(teamNames).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("1차 캐시에 있는 엔티티의 로딩은 지연 로딩으로 세지 않는다.")
+    public void persistenceContextHitTest() {
+        final List<Team> teams = queryFactory.selectFrom(team).where(team.name.startsWith("BUDGET")).fetch();
+
+        final List<String> teamNames = QueryBudget.assertNoRepeatedLazyLoads(1, () -> queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("BUDGET"))
+                .fetch()
+                .stream()
+                .map(each -> each.getTeam().getName())
+                .collect(Collectors.toList()));
+
+        assertThat(teams).hasSize(5);
+        assertThat(teamNames).hasSize(5);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.pasudo123.study.demo.member;
+
+import edu.pasudo123.study.demo.team.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("Member 스트리밍 조회 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class MemberStreamTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        em.persist(Member.builder()
+                .username("PARK")
+                .age(29)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("SON")
+                .age(29)
+                .team(Team.builder().name("YES TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("CHA")
+                .age(51)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+        em.persist(Member.builder()
+                .username("ABA")
+                .age(51)
+                .team(Team.builder().name("NEW TEAM").build())
+                .build());
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("jpql 커서로 전체 회원을 읽는다.")
+    public void streamAllTest() {
+        try(Stream<Member> members = memberJpaRepository.streamAll(2, 2)) {
+            assertThat(members.map(Member::getUsername).collect(Collectors.toList()))
+                    .containsExactlyInAnyOrder("PARK", "SON", "CHA", "ABA");
+        }
+    }
+
+    @Test
+    @DisplayName("clearInterval 마다 앞서 읽은 엔티티는 영속성 컨텍스트에서 분리된다.")
+    public void streamClearTest() {
+        final List<Member> results = new ArrayList<>();
+
+        try(Stream<Member> members = memberJpaRepository.streamBy(member.age.eq(29), 1, 1)) {
+            members.forEach(each -> {
+                // 경계 직후에 받은 로우도 영속 상태이고 지연 로딩을 할 수 있다.
+                assertThat(em.contains(each)).isTrue();
+                assertThat(each.getTeam().getName()).isNotNull();
+                results.forEach(previous -> assertThat(em.contains(previous)).isFalse());
+                results.add(each);
+            });
+        }
+
+        assertThat(results).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("영속성 컨텍스트를 비우기 전에 앞서 읽은 엔티티의 변경을 반영한다.")
+    public void streamFlushTest() {
+        try(Stream<Member> members = memberJpaRepository.streamBy(member.age.eq(51), 1, 1)) {
+            members.forEach(each -> each.changeTeam(Team.builder().name("FLUSH TEAM").build()));
+        }
+        em.flush();
+        em.clear();
+
+        assertThat(em.createQuery("SELECT m FROM Member m WHERE m.team.name = 'FLUSH TEAM'", Member.class)
+                .getResultList())
+                .extracting("username")
+                .containsExactlyInAnyOrder("CHA", "ABA");
+    }
+
+    @Test
+    @DisplayName("querydsl Dto 프로젝션을 커서로 읽는다.")
+    public void streamDtoTest() {
+        try(Stream<MemberDto> memberDtos = memberJpaRepository.streamMemberDtoBy(member.age.eq(51), 10)) {
+            assertThat(memberDtos.map(MemberDto::getUsername).collect(Collectors.toList()))
+                    .containsExactlyInAnyOrder("CHA", "ABA");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package edu.pasudo123.study.demo.member;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인덱스는 커밋된 변경만 반영하므로 테스트 전체를 @Transactional 로 묶지 않고, 직접 정리한다.
+ */
+@SpringBootTest
+@DisplayName("username 메모리 인덱스 테스트 클래스는")
+@ActiveProfiles("test")
+public class UsernameIndexTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private MemberBulkService memberBulkService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @DisplayName("Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(Member.builder().username("INDEX PARK").age(29).build());
+            em.persist(Member.builder().username("INDEX PAIK").age(31).build());
+            em.persist(Member.builder().username("INDEX SON").age(31).build());
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'INDEX%'").executeUpdate());
+        // JPQL 벌크 delete 는 엔티티 이벤트가 없으므로 다시 읽는다.
+        usernameIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("커밋된 username 을 prefix 로 사전 순 자동완성한다.")
+    public void autocompleteTest() {
+        assertThat(usernameIndex.autocomplete("INDEX PA", 10)).containsExactly("INDEX PAIK", "INDEX PARK");
+        assertThat(usernameIndex.autocomplete("INDEX", 2)).containsExactly("INDEX PAIK", "INDEX PARK");
+        assertThat(usernameIndex.findIdsByPrefix("INDEX S", 10)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("3-gram 으로 username 부분 검색을 한다.")
+    public void searchContainingTest() {
+        assertThat(usernameIndex.searchContaining("ARK", 10)).contains("INDEX PARK").doesNotContain("INDEX PAIK");
+        assertThat(usernameIndex.searchContaining("X PA", 10)).containsExactly("INDEX PAIK", "INDEX PARK");
+        assertThat(usernameIndex.searchContaining("ZZZ NOT FOUND", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("삭제가 커밋되면 인덱스에서 빠지고, 롤백된 저장은 반영되지 않는다.")
+    public void removeAndRollbackTest() {
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.createQuery(
+                "SELECT m FROM Member m WHERE m.username = 'INDEX SON'", Member.class).getSingleResult()));
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(Member.builder().username("INDEX SHIN").age(20).build());
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(usernameIndex.autocomplete("INDEX S", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("벌크 update 로 바뀐 username 을 반영한다.")
+    public void bulkUpdateTest() {
+        memberBulkService.update(
+                member.username.eq("INDEX PARK"),
+                clause -> clause.set(member.username, "INDEX PARK JR"),
+                MemberBulkService.DEFAULT_CHUNK_SIZE,
+                progress -> { });
+
+        assertThat(usernameIndex.autocomplete("INDEX PARK", 10)).containsExactly("INDEX PARK JR");
+    }
+}
@@ -0,0 +1,107 @@
+package edu.pasudo123.study.demo.team;
+
+import edu.pasudo123.study.demo.member.Member;
+import edu.pasudo123.study.demo.member.MemberJpaRepository;
+import edu.pasudo123.study.demo.support.FetchPlan;
+import edu.pasudo123.study.demo.support.QueryBudget;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("fetch plan 테스트 클래스는")
+@ActiveProfiles("test")
+@Transactional
+public class TeamFetchPlanTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    @DisplayName("멤버가 두 명씩 있는 Team 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        // given
+        for(int i = 0; i < 3; i++) {
+            final Team planTeam = Team.builder().name("PLAN TEAM " + i).build();
+            em.persist(Member.builder().username("PLAN A" + i).age(20).team(planTeam).build());
+            em.persist(Member.builder().username("PLAN B" + i).age(30).team(planTeam).build());
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("NONE 은 팀마다 members 를 지연 로딩한다.")
+    public void noneTest() {
+        final int size = QueryBudget.assertMaxStatements(1 + 3, () -> touchMembers(teamJpaRepository.findBy(team.name.startsWith("PLAN"), FetchPlan.NONE)));
+
+        assertThat(size).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("ENTITY_GRAPH 는 쿼리 한 번으로 team.members 까지 가져온다.")
+    public void entityGraphTest() {
+        final List<Team> teams = QueryBudget.assertMaxStatements(1, () -> teamJpaRepository.findBy(team.name.startsWith("PLAN"), FetchPlan.ENTITY_GRAPH));
+
+        assertThat(teams).hasSize(3);
+        assertThat(teams).allMatch(each -> Hibernate.isInitialized(each.getMembers()) && each.getMembers().size() == 2);
+    }
+
+    @Test
+    @DisplayName("BATCH 는 루트 쿼리 후 IN 절 한 번으로 team.members 를 채운다.")
+    public void batchTest() {
+        final List<Team> teams = QueryBudget.assertMaxStatements(2, () -> teamJpaRepository.findBy(team.name.startsWith("PLAN"), FetchPlan.BATCH));
+
+        assertThat(teams).extracting("name").containsExactly("PLAN TEAM 0", "PLAN TEAM 1", "PLAN TEAM 2");
+        assertThat(teams).allMatch(each -> Hibernate.isInitialized(each.getMembers()) && each.getMembers().size() == 2);
+    }
+
+    @Test
+    @DisplayName("Member 의 BATCH 는 member.team 프록시를 IN 절 한 번으로 초기화한다.")
+    public void memberBatchTest() {
+        final List<Member> members = QueryBudget.assertMaxStatements(2, () -> {
+            final List<Member> results = memberJpaRepository.findBy(member.username.startsWith("PLAN"), FetchPlan.BATCH);
+            results.forEach(each -> each.getTeam().getName());
+            return results;
+        });
+
+        assertThat(members).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("Member 의 ENTITY_GRAPH 는 keyset 페이징에도 적용된다.")
+    public void memberEntityGraphPageTest() {
+        final List<Member> members = QueryBudget.assertMaxStatements(1, () ->
+                memberJpaRepository.findPageOrderByAge(null, 2, FetchPlan.ENTITY_GRAPH));
+
+        assertThat(members).hasSize(2);
+        assertThat(members).allMatch(each -> Hibernate.isInitialized(each.getTeam()));
+    }
+
+    private int touchMembers(final List<Team> teams) {
+        int size = 0;
+        for(Team each : teams) {
+            size += each.getMembers().size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,77 @@
+package edu.pasudo123.study.demo.team;
+
+import edu.pasudo123.study.demo.config.SecondLevelCacheStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 담기 때문에 테스트를 @Transactional 로 묶지 않는다.
+ */
+@SpringBootTest
+@DisplayName("Team 2차 캐시 테스트 클래스는")
+@ActiveProfiles("test")
+public class TeamSecondLevelCacheTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private SecondLevelCacheStatistics cacheStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+    Long teamId;
+
+    @BeforeEach
+    @DisplayName("Team 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        teamId = transactionTemplate.execute(status -> {
+            final Team team = Team.builder().name("CACHE TEAM").build();
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("DELETE FROM Team t WHERE t.name = 'CACHE TEAM'").executeUpdate());
+    }
+
+    @Test
+    @DisplayName("커밋된 팀은 다음 트랜잭션에서 DB 대신 2차 캐시에서 조회된다.")
+    public void cacheHitTest() {
+        final long hits = cacheStatistics.of("team").getHits();
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId));
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        assertThat(cacheStatistics.of("team").getHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    @DisplayName("JPQL 벌크 연산이 실행되면 region 이 비워진다.")
+    public void bulkInvalidationTest() {
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId));
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("UPDATE Team t SET t.name = t.name WHERE t.id = :id")
+                        .setParameter("id", teamId)
+                        .executeUpdate());
+
+        assertThat(em.getEntityManagerFactory().getCache().contains(Team.class, teamId)).isFalse();
+    }
+}
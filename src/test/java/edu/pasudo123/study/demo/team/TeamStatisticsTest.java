@@ -0,0 +1,198 @@
+package edu.pasudo123.study.demo.team;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import edu.pasudo123.study.demo.member.Member;
+import edu.pasudo123.study.demo.member.MemberBulkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static edu.pasudo123.study.demo.member.QMember.member;
+import static edu.pasudo123.study.demo.team.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 집계는 커밋 직전에 반영되므로 테스트 전체를 @Transactional 로 묶지 않고, 직접 정리한다.
+ */
+@SpringBootTest
+@DisplayName("팀 집계 테스트 클래스는")
+@ActiveProfiles("test")
+public class TeamStatisticsTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private TeamStatisticsService teamStatisticsService;
+
+    @Autowired
+    private MemberBulkService memberBulkService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    Long newTeamId;
+    Long yesTeamId;
+
+    @BeforeEach
+    @DisplayName("두 팀에 Member 엔티티를 선행으로 삽입한다.")
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            final Team newTeam = Team.builder().name("STAT NEW TEAM").build();
+            final Team yesTeam = Team.builder().name("STAT YES TEAM").build();
+            em.persist(Member.builder().username("STAT PARK").age(20).team(newTeam).build());
+            em.persist(Member.builder().username("STAT SON").age(30).team(newTeam).build());
+            em.persist(Member.builder().username("STAT KIM").age(40).team(newTeam).build());
+            em.persist(Member.builder().username("STAT CHA").age(51).team(yesTeam).build());
+
+            newTeamId = newTeam.getId();
+            yesTeamId = yesTeam.getId();
+        });
+    }
+
+    @AfterEach
+    public void clean() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Member m WHERE m.username LIKE 'STAT%'").executeUpdate();
+            em.createNativeQuery("DELETE FROM team_statistics WHERE team_id IN (SELECT id FROM team WHERE name LIKE 'STAT%')").executeUpdate();
+            em.createQuery("DELETE FROM Team t WHERE t.name LIKE 'STAT%'").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("persist 한 member 가 팀 집계에 반영되고, group by 쿼리와 같은 평균을 구한다.")
+    public void persistTest() {
+        assertStatistics(newTeamId, 3, 90, 20, 40);
+        assertStatistics(yesTeamId, 1, 51, 51, 51);
+
+        final List<Tuple> tuples = queryFactory
+                .select(team.name, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.startsWith("STAT"))
+                .groupBy(team.name)
+                .fetch();
+        final Map<String, Double> grouped = tuples.stream()
+                .collect(Collectors.toMap(tuple -> tuple.get(team.name), tuple -> tuple.get(member.age.avg())));
+
+        assertThat(teamStatisticsService.findAverageAgeByTeamName()).containsAllEntriesOf(grouped);
+    }
+
+    @Test
+    @DisplayName("팀을 옮긴 member 가 양쪽 팀 집계에 반영되고, 최소 / 최대 나이는 남은 member 로 다시 구한다.")
+    public void changeTeamTest() {
+        transactionTemplate.executeWithoutResult(status ->
+                findMember("STAT KIM").changeTeam(em.find(Team.class, yesTeamId)));
+
+        assertStatistics(newTeamId, 2, 50, 20, 30);
+        assertStatistics(yesTeamId, 2, 91, 40, 51);
+    }
+
+    @Test
+    @DisplayName("삭제한 member 가 팀 집계에서 빠진다.")
+    public void removeTest() {
+        // member.team 은 cascade = ALL 이므로 혼자 있는 팀의 member 를 삭제한다.
+        final Long soloTeamId = transactionTemplate.execute(status -> {
+            final Team soloTeam = Team.builder().name("STAT SOLO TEAM").build();
+            em.persist(Member.builder().username("STAT SOLO").age(60).team(soloTeam).build());
+            return soloTeam.getId();
+        });
+        assertStatistics(soloTeamId, 1, 60, 60, 60);
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(findMember("STAT SOLO")));
+
+        assertStatistics(soloTeamId, 0, 0, null, null);
+        assertThat(teamStatisticsService.findAll()).extracting("teamId").doesNotContain(soloTeamId);
+    }
+
+    @Test
+    @DisplayName("롤백된 변경은 집계에 반영되지 않는다.")
+    public void rollbackTest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(Member.builder().username("STAT LEE").age(99).team(em.find(Team.class, newTeamId)).build());
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertStatistics(newTeamId, 3, 90, 20, 40);
+    }
+
+    @Test
+    @DisplayName("집계 행이 없는 팀은 변화량이 아니라 member 전체로 집계 행을 만든다.")
+    public void seedTest() {
+        transactionTemplate.executeWithoutResult(status -> em
+                .createNativeQuery("DELETE FROM team_statistics WHERE team_id = ?1")
+                .setParameter(1, newTeamId)
+                .executeUpdate());
+
+        transactionTemplate.executeWithoutResult(status ->
+                em.persist(Member.builder().username("STAT LEE").age(10).team(em.find(Team.class, newTeamId)).build()));
+
+        assertStatistics(newTeamId, 4, 100, 10, 40);
+    }
+
+    @Test
+    @DisplayName("벌크 update 는 청크마다 바뀐 팀을 다시 집계한다.")
+    public void bulkUpdateTest() {
+        memberBulkService.update(
+                member.username.startsWith("STAT"),
+                clause -> clause.set(member.age, member.age.add(1)),
+                2,
+                progress -> { });
+
+        assertStatistics(newTeamId, 3, 93, 21, 41);
+        assertStatistics(yesTeamId, 1, 52, 52, 52);
+    }
+
+    @Test
+    @DisplayName("전체 재집계는 어긋난 팀 집계를 바로잡는다.")
+    public void rebuildTest() {
+        transactionTemplate.executeWithoutResult(status -> em
+                .createNativeQuery("UPDATE team_statistics SET member_count = 100, min_age = 1 WHERE team_id = ?1")
+                .setParameter(1, newTeamId)
+                .executeUpdate());
+
+        final int drifted = teamStatisticsService.rebuild();
+
+        assertThat(drifted).isGreaterThanOrEqualTo(1);
+        assertStatistics(newTeamId, 3, 90, 20, 40);
+        assertThat(teamStatisticsService.rebuild()).isZero();
+    }
+
+    private Member findMember(final String username) {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(username))
+                .fetchOne();
+    }
+
+    private void assertStatistics(final Long teamId, final long memberCount, final long ageSum, final Integer minAge, final Integer maxAge) {
+        final TeamStatistics statistics = transactionTemplate.execute(status -> em.find(TeamStatistics.class, teamId));
+
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getMemberCount()).isEqualTo(memberCount);
+        assertThat(statistics.getAgeSum()).isEqualTo(ageSum);
+        assertThat(statistics.getMinAge()).isEqualTo(minAge);
+        assertThat(statistics.getMaxAge()).isEqualTo(maxAge);
+    }
+}